@@ -0,0 +1,63 @@
+package com.kosprov.jargon2.api;
+
+/**
+ * The typed key of a backend option. Backends declare the keys of the options they support as constants, so that
+ * options are set with values of the right type and misspelled names are rejected when a hasher or verifier is
+ * configured rather than silently ignored.
+ *
+ * <p>
+ *     Keys are equal if their names are equal.
+ * </p>
+ *
+ * @param <T> The type of the option value
+ * @see BackendOptions
+ */
+public final class BackendOption<T> {
+
+    private final String name;
+    private final Class<T> type;
+
+    private BackendOption(String name, Class<T> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Create an option key.
+     *
+     * @param name The name of the option, as passed to the backend
+     * @param type The type of the option value
+     * @param <T> The type of the option value
+     * @return The option key
+     * @throws Jargon2Exception If name or type is missing
+     */
+    public static <T> BackendOption<T> of(String name, Class<T> type) {
+        if (name == null || type == null) {
+            throw new Jargon2Exception("Missing option name or type");
+        }
+        return new BackendOption<>(name, type);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof BackendOption && name.equals(((BackendOption<?>) o).name));
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
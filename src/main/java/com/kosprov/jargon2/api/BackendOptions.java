@@ -0,0 +1,124 @@
+package com.kosprov.jargon2.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable (copy-on-write) set of backend options, built once and shared by every hasher and verifier configured
+ * with it. The options are handed to the backend as the same read-only map on every call, instead of being copied
+ * on every builder step.
+ *
+ * <pre>
+ * BackendOptions options = BackendOptions.EMPTY
+ *         .with(JavaJargon2Backend.MEMORY_POOL, true)
+ *         .with(JavaJargon2Backend.ADDRESS_CACHE, true);
+ * </pre>
+ *
+ * <p>
+ *     Backends that declare their supported options in their
+ *     {@link com.kosprov.jargon2.spi.Jargon2BackendCapabilities} have the names checked when a hasher or verifier is
+ *     given both the options and the backend.
+ * </p>
+ *
+ * @see BackendOption
+ */
+public final class BackendOptions {
+
+    /**
+     * No options
+     */
+    public static final BackendOptions EMPTY = new BackendOptions(Collections.<String, Object>emptyMap());
+
+    private final Map<String, Object> map;
+
+    private BackendOptions(Map<String, Object> map) {
+        this.map = map;
+    }
+
+    /**
+     * Create options from a map of option names to values.
+     *
+     * @param options The options. Can be null
+     * @return The options
+     */
+    public static BackendOptions of(Map<String, ?> options) {
+        if (options == null || options.isEmpty()) {
+            return EMPTY;
+        }
+        return new BackendOptions(Collections.unmodifiableMap(new LinkedHashMap<String, Object>(options)));
+    }
+
+    /**
+     * Set an option.
+     *
+     * @param option The option key
+     * @param value The option value. Null removes the option
+     * @param <T> The type of the option value
+     * @return A copy of these options
+     */
+    public <T> BackendOptions with(BackendOption<T> option, T value) {
+        return with(option.getName(), value);
+    }
+
+    /**
+     * Set an option by name, for backends that do not declare option keys.
+     *
+     * @param name The option name
+     * @param value The option value. Null removes the option
+     * @return A copy of these options
+     */
+    public BackendOptions with(String name, Object value) {
+        Map<String, Object> copy = new LinkedHashMap<>(map);
+        if (value != null) {
+            copy.put(name, value);
+        } else {
+            copy.remove(name);
+        }
+        return new BackendOptions(copy.isEmpty() ? Collections.<String, Object>emptyMap() : Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * @param option The option key
+     * @param <T> The type of the option value
+     * @return The value of the option or null if it is not set
+     * @throws Jargon2Exception If the value is not of the type of the key
+     */
+    public <T> T get(BackendOption<T> option) {
+        Object value = map.get(option.getName());
+        if (value != null && !option.getType().isInstance(value)) {
+            throw new Jargon2Exception("Option " + option + " is not a " + option.getType().getSimpleName());
+        }
+        return option.getType().cast(value);
+    }
+
+    /**
+     * @return The options as the read-only map that is passed to the backend
+     */
+    public Map<String, Object> asMap() {
+        return map;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof BackendOptions && map.equals(((BackendOptions) o).map));
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.kosprov.jargon2.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signals that the result of a call is no longer needed, because it was cancelled explicitly or because its deadline
+ * passed. A token is typically created per request, with the time the caller is still willing to wait, and can be
+ * shared by all the calls made on behalf of that request.
+ *
+ * <p>
+ *     Hashers and verifiers configured with a token refuse to start a call once the token is cancelled, including
+ *     asynchronous calls that waited too long in the executor queue. Backends that implement
+ *     {@link com.kosprov.jargon2.spi.CancellableJargon2Backend} also abandon calls already in progress.
+ * </p>
+ *
+ * @see Jargon2.Hasher#cancellation(CancellationToken)
+ * @see Jargon2.Verifier#cancellation(CancellationToken)
+ */
+public final class CancellationToken {
+
+    private final CancellationToken parent;
+    private final boolean hasDeadline;
+    private final long deadline;
+    private volatile boolean cancelled;
+
+    /**
+     * Create a token without a deadline, cancelled only by {@link #cancel()}.
+     */
+    public CancellationToken() {
+        this(null, false, 0);
+    }
+
+    private CancellationToken(CancellationToken parent, boolean hasDeadline, long deadline) {
+        this.parent = parent;
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Create a token that is cancelled once the timeout elapses, or earlier by {@link #cancel()}.
+     *
+     * @param timeout The time from now until the deadline
+     * @param unit The unit of <tt>timeout</tt>
+     * @return A new token
+     */
+    public static CancellationToken withTimeout(long timeout, TimeUnit unit) {
+        return new CancellationToken(null, true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Create a token that is cancelled when this one is, and can also be cancelled on its own without affecting this
+     * one, e.g. to abandon one of several calls made on behalf of the same request.
+     *
+     * @return The child token
+     */
+    public CancellationToken child() {
+        return new CancellationToken(this, false, 0);
+    }
+
+    /**
+     * Cancel all the calls using this token or any of its children.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if {@link #cancel()} was called, the deadline passed or the parent token is cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled || (hasDeadline && System.nanoTime() - deadline >= 0) || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * @throws Jargon2CancelledException If the token is cancelled
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new Jargon2CancelledException("Call cancelled");
+        }
+        if (hasDeadline && System.nanoTime() - deadline >= 0) {
+            throw new Jargon2CancelledException("Call deadline exceeded");
+        }
+        if (parent != null) {
+            parent.throwIfCancelled();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CancellationToken{" +
+                "cancelled=" + cancelled +
+                (hasDeadline ? ", remainingMillis=" + TimeUnit.NANOSECONDS.toMillis(Math.max(0, deadline - System.nanoTime())) : "") +
+                '}';
+    }
+}
@@ -0,0 +1,176 @@
+package com.kosprov.jargon2.api;
+
+import com.kosprov.jargon2.internal.EncodedHashAccess;
+import com.kosprov.jargon2.internal.argon2.Argon2Encoding;
+
+import java.util.Arrays;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * An encoded hash parsed once into its type, version, costs, salt and hash value, so that it can be verified any
+ * number of times without parsing and Base64 decoding on every call.
+ *
+ * <p>
+ *     Instances are immutable: salt and hash are copied on the way in and out. Verification reads them in place, so
+ *     verifying a parsed hash copies nothing. Callers that cache user records can keep the parsed form next to (or
+ *     instead of) the encoded string.
+ * </p>
+ *
+ * @see Verifier#hash(EncodedHash)
+ * @see LowLevelApi#verifyEncoded(EncodedHash, int, byte[], byte[], byte[], java.util.Map)
+ */
+public final class EncodedHash {
+
+    static {
+        EncodedHashAccess.register(new EncodedHashAccess() {
+            @Override
+            protected byte[] saltOf(EncodedHash encodedHash) {
+                return encodedHash.salt;
+            }
+
+            @Override
+            protected byte[] hashOf(EncodedHash encodedHash) {
+                return encodedHash.hash;
+            }
+        });
+    }
+
+    private final Type type;
+    private final Version version;
+    private final int memoryCost;
+    private final int timeCost;
+    private final int lanes;
+    private final byte[] salt;
+    private final byte[] hash;
+    private final String encoded;
+
+    private EncodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, byte[] salt, byte[] hash, String encoded) {
+        this.type = type;
+        this.version = version;
+        this.memoryCost = memoryCost;
+        this.timeCost = timeCost;
+        this.lanes = lanes;
+        this.salt = salt;
+        this.hash = hash;
+        this.encoded = encoded;
+    }
+
+    /**
+     * Parse an encoded hash of the form
+     * <tt>$argon2&lt;type&gt;[$v=&lt;version&gt;]$m=&lt;memoryCost&gt;,t=&lt;timeCost&gt;,p=&lt;lanes&gt;$&lt;salt&gt;$&lt;hash&gt;</tt>.
+     *
+     * @param encodedHash The encoded hash
+     * @return The parsed hash
+     * @throws Jargon2Exception If the encoded hash is missing or invalid
+     */
+    public static EncodedHash parse(String encodedHash) {
+        Argon2Encoding.Decoded decoded = Argon2Encoding.decode(encodedHash);
+        return new EncodedHash(decoded.type, decoded.version, decoded.memoryCost, decoded.timeCost, decoded.lanes, decoded.salt, decoded.hash, encodedHash);
+    }
+
+    /**
+     * Create an encoded hash from its parts.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param salt The salt
+     * @param hash The raw hash value
+     * @return The encoded hash
+     * @throws Jargon2Exception If any part is missing
+     */
+    public static EncodedHash of(Type type, Version version, int memoryCost, int timeCost, int lanes, byte[] salt, byte[] hash) {
+        if (type == null || version == null || salt == null || hash == null) {
+            throw new Jargon2Exception("Missing type, version, salt or hash");
+        }
+        byte[] saltCopy = salt.clone();
+        byte[] hashCopy = hash.clone();
+        return new EncodedHash(type, version, memoryCost, timeCost, lanes, saltCopy, hashCopy, Argon2Encoding.encode(type, version, memoryCost, timeCost, lanes, saltCopy, hashCopy));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Version getVersion() {
+        return version;
+    }
+
+    public int getMemoryCost() {
+        return memoryCost;
+    }
+
+    public int getTimeCost() {
+        return timeCost;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * @return A copy of the salt
+     */
+    public byte[] getSalt() {
+        return salt.clone();
+    }
+
+    /**
+     * @return A copy of the raw hash value
+     */
+    public byte[] getHash() {
+        return hash.clone();
+    }
+
+    public int getHashLength() {
+        return hash.length;
+    }
+
+    /**
+     * @return The encoded form
+     */
+    public String getEncoded() {
+        return encoded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EncodedHash that = (EncodedHash) o;
+        return type == that.type &&
+                version == that.version &&
+                memoryCost == that.memoryCost &&
+                timeCost == that.timeCost &&
+                lanes == that.lanes &&
+                Arrays.equals(salt, that.salt) &&
+                Arrays.equals(hash, that.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type.hashCode();
+        result = 31 * result + version.hashCode();
+        result = 31 * result + memoryCost;
+        result = 31 * result + timeCost;
+        result = 31 * result + lanes;
+        result = 31 * result + Arrays.hashCode(salt);
+        result = 31 * result + Arrays.hashCode(hash);
+        return result;
+    }
+
+    /**
+     * @return The encoded form
+     */
+    @Override
+    public String toString() {
+        return encoded;
+    }
+}
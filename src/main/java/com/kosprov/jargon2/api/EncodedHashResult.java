@@ -0,0 +1,63 @@
+package com.kosprov.jargon2.api;
+
+/**
+ * The outcome of hashing one password of a bulk operation: either the encoded hash or the reason it failed. A failed
+ * password does not abort the rest of the bulk operation.
+ *
+ * @see Jargon2.Hasher#encodedHashes(Iterable)
+ * @see Jargon2.Hasher#encodedHashes(java.util.Iterator)
+ */
+public final class EncodedHashResult {
+
+    private final String encodedHash;
+    private final Jargon2Exception failure;
+
+    private EncodedHashResult(String encodedHash, Jargon2Exception failure) {
+        this.encodedHash = encodedHash;
+        this.failure = failure;
+    }
+
+    /**
+     * @param encodedHash The encoded hash
+     * @return A successful result
+     */
+    public static EncodedHashResult success(String encodedHash) {
+        return new EncodedHashResult(encodedHash, null);
+    }
+
+    /**
+     * @param failure The reason hashing failed
+     * @return A failed result
+     */
+    public static EncodedHashResult failure(Jargon2Exception failure) {
+        return new EncodedHashResult(null, failure);
+    }
+
+    /**
+     * @return true if the password was hashed
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * @return The encoded hash or null if hashing failed
+     */
+    public String getEncodedHash() {
+        return encodedHash;
+    }
+
+    /**
+     * @return The reason hashing failed or null if it succeeded
+     */
+    public Jargon2Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "EncodedHashResult{" +
+                (failure == null ? "encodedHash=" + encodedHash : "failure=" + failure) +
+                '}';
+    }
+}
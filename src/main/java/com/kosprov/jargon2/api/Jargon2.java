@@ -7,13 +7,19 @@ import com.kosprov.jargon2.internal.VerifierImpl;
 import com.kosprov.jargon2.internal.discovery.Jargon2BackendDiscovery;
 import com.kosprov.jargon2.spi.Jargon2Backend;
 
+import java.io.Closeable;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.Provider;
 import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * Fluent Java API for Argon2 hashing.
@@ -190,6 +196,81 @@ public class Jargon2 {
                 Map<String, Object> options
         );
 
+        /**
+         * Calculate the raw hashes of several salt and password pairs with the same parameters.
+         *
+         * <p>
+         *     Same as {@link #rawHashBatch(Type, Version, int, int, int, int, int, byte[], byte[], byte[][], byte[][], Map)}
+         *     with same lanes and threads and no secret and additional data.
+         * </p>
+         *
+         * @param type The Argon2 {@link Type}
+         * @param version The Argon2 {@link Version}
+         * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+         * @param timeCost The number of passes through memory
+         * @param parallelism The number of memory lanes and threads to be used
+         * @param hashLength The number of output bytes of each hash value
+         * @param salts The salt values, one per pair
+         * @param passwords The passwords to be hashed, as many as the salts
+         * @return An array with the hash value of every pair, in the same order
+         * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+         */
+        byte[][] rawHashBatch(
+                // Configuration
+                Type type,
+                Version version,
+                int memoryCost,
+                int timeCost,
+                int parallelism,
+                int hashLength,
+                // Data
+                byte[][] salts,
+                byte[][] passwords
+        );
+
+        /**
+         * Calculate the raw hashes of several salt and password pairs with the same parameters, secret and additional
+         * data.
+         *
+         * <p>
+         *     The result is the same as calling
+         *     {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)} for every
+         *     pair. Backends that implement {@link com.kosprov.jargon2.spi.BatchJargon2Backend} compute the whole batch
+         *     in one call; other backends are called once per pair.
+         * </p>
+         *
+         * @param type The Argon2 {@link Type}
+         * @param version The Argon2 {@link Version}
+         * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+         * @param timeCost The number of passes through memory
+         * @param lanes The number of memory lanes
+         * @param threads The maximum number of threads to process lanes
+         * @param hashLength The number of output bytes of each hash value
+         * @param secret A secret for keyed hashing. Can be null
+         * @param ad Additional authentication data to include into every hash. Can be null
+         * @param salts The salt values, one per pair
+         * @param passwords The passwords to be hashed, as many as the salts
+         * @param options A map of options to be passed to the backend
+         * @return An array with the hash value of every pair, in the same order
+         * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+         */
+        byte[][] rawHashBatch(
+                // Configuration
+                Type type,
+                Version version,
+                int memoryCost,
+                int timeCost,
+                int lanes,
+                int threads,
+                int hashLength,
+                // Data
+                byte[] secret,
+                byte[] ad,
+                byte[][] salts,
+                byte[][] passwords,
+                Map<String, Object> options
+        );
+
         /**
          * Calculate an encoded hash for the given parameters.
          *
@@ -448,6 +529,350 @@ public class Jargon2 {
                 byte[] password,
                 Map<String, Object> options
         );
+
+        /**
+         * Verify a parsed encoded hash value for the given parameters.
+         *
+         * <p>
+         *     Same as {@link #verifyEncoded(String, int, byte[], byte[], byte[], Map)}, without parsing and decoding
+         *     the hash again. The parts of the hash are passed to
+         *     {@link Jargon2Backend#verifyRaw(Type, Version, int, int, int, int, byte[], byte[], byte[], byte[], byte[], Map)}.
+         * </p>
+         *
+         * @param encodedHash The parsed encoded hash
+         * @param threads The maximum number of threads it be used during hash recalculation. -1 to use as many as the
+         *                parallelism property of the hash.
+         * @param secret The secret (keyed hashing) used during hashing. Can be null
+         * @param ad Additional authentication data to included during hashing. Can be null
+         * @param password The password to verify
+         * @param options A map of options to be passed to the backend. Can be null
+         * @return true if recalculating the hash matches the given value
+         * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+         */
+        boolean verifyEncoded(
+                // Encoded hash encapsulates configuration
+                EncodedHash encodedHash,
+                int threads,
+                // Data
+                byte[] secret,
+                byte[] ad,
+                byte[] password,
+                Map<String, Object> options
+        );
+
+        /**
+         * Verify several encoded hashes and passwords.
+         *
+         * <p>
+         *     Same as {@link #verifyEncodedBatch(int, byte[], byte[], List, Map)} with threads derived from the
+         *     parallelism of each hash and no secret and additional data.
+         * </p>
+         *
+         * @param requests The encoded hashes and passwords to verify
+         * @return An array with the result of every request, in the same order
+         * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+         */
+        boolean[] verifyEncodedBatch(
+                // Encoded hashes encapsulate configuration
+                List<VerifyRequest> requests
+        );
+
+        /**
+         * Verify several encoded hashes and passwords with the same secret and additional data.
+         *
+         * <p>
+         *     Returns the same results as a {@link #verifyEncoded(String, int, byte[], byte[], byte[], Map)} call per
+         *     request. Backends that implement {@link com.kosprov.jargon2.spi.BatchJargon2Backend} can share memory
+         *     and precomputation across the requests; for other backends, the requests are verified one by one. An
+         *     encoded hash that cannot be decoded does not match, so that one malformed or legacy hash does not fail
+         *     the rest of the batch. Any other invalid request, e.g. one without an encoded hash or password, fails the
+         *     whole batch.
+         * </p>
+         *
+         * @param threads The maximum number of threads it be used during hash recalculation. -1 to derive the number
+         *                of threads from the parallelism property of each encoded hash.
+         * @param secret The secret (keyed hashing) used during hashing. Can be null
+         * @param ad Additional authentication data to included during hashing. Can be null
+         * @param requests The encoded hashes and passwords to verify
+         * @param options A map of options to be passed to the backend. Can be null
+         * @return An array with the result of every request, in the same order
+         * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+         */
+        boolean[] verifyEncodedBatch(
+                // Encoded hashes encapsulate configuration
+                int threads,
+                // Data
+                byte[] secret,
+                byte[] ad,
+                List<VerifyRequest> requests,
+                Map<String, Object> options
+        );
+
+        /**
+         * Calculate a raw hash for the given parameters with inputs in {@link ByteBuffer}s.
+         *
+         * <p>
+         *     Same as {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)}.
+         *     The bytes between the position and the limit of each buffer are used; positions and limits are not
+         *     changed. Buffers can be direct or heap. Backends that implement
+         *     {@link com.kosprov.jargon2.spi.ByteBufferJargon2Backend} read them in place; for other backends, they
+         *     are copied to byte arrays that are wiped after the call.
+         * </p>
+         *
+         * @param type The Argon2 {@link Type}
+         * @param version The Argon2 {@link Version}
+         * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+         * @param timeCost The number of passes through memory
+         * @param lanes The number of memory lanes
+         * @param threads The maximum number of threads to process lanes
+         * @param hashLength The number of output bytes of the hash value
+         * @param secret A secret for keyed hashing. Can be null
+         * @param ad Additional authentication data to include into the hash. Can be null
+         * @param salt The salt value to be used during hashing
+         * @param password The password to be hashed
+         * @param options A map of options to be passed to the backend
+         * @return A byte array of length hashLength with the hash value
+         * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+         */
+        byte[] rawHash(
+                // Configuration
+                Type type,
+                Version version,
+                int memoryCost,
+                int timeCost,
+                int lanes,
+                int threads,
+                int hashLength,
+                // Data
+                ByteBuffer secret,
+                ByteBuffer ad,
+                ByteBuffer salt,
+                ByteBuffer password,
+                Map<String, Object> options
+        );
+
+        /**
+         * Calculate an encoded hash for the given parameters with inputs in {@link ByteBuffer}s.
+         *
+         * <p>
+         *     Same as {@link #encodedHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)},
+         *     with buffers handled as in
+         *     {@link #rawHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+         * </p>
+         *
+         * @param type The Argon2 {@link Type}
+         * @param version The Argon2 {@link Version}
+         * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+         * @param timeCost The number of passes through memory
+         * @param lanes The number of memory lanes
+         * @param threads The maximum number of threads to process lanes
+         * @param hashLength The number of output bytes of the hash value
+         * @param secret A secret for keyed hashing. Can be null
+         * @param ad Additional authentication data to include into the hash. Can be null
+         * @param salt The salt value to be used during hashing
+         * @param password The password to be hashed
+         * @param options A map of options to be passed to the backend
+         * @return A string containing the encoded hash value
+         * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+         */
+        String encodedHash(
+                // Configuration
+                Type type,
+                Version version,
+                int memoryCost,
+                int timeCost,
+                int lanes,
+                int threads,
+                int hashLength,
+                // Data
+                ByteBuffer secret,
+                ByteBuffer ad,
+                ByteBuffer salt,
+                ByteBuffer password,
+                Map<String, Object> options
+        );
+
+        /**
+         * Verify a raw hash value for the given parameters with inputs in {@link ByteBuffer}s.
+         *
+         * <p>
+         *     Same as {@link #verifyRaw(Type, Version, int, int, int, int, byte[], byte[], byte[], byte[], byte[], Map)},
+         *     with buffers handled as in
+         *     {@link #rawHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+         * </p>
+         *
+         * @param type The Argon2 {@link Type}
+         * @param version The Argon2 {@link Version}
+         * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+         * @param timeCost The number of passes through memory
+         * @param lanes The number of memory lanes
+         * @param threads The maximum number of threads to process lanes
+         * @param rawHash The raw hash bytes
+         * @param secret The secret (keyed hashing) used during hashing. Can be null
+         * @param ad Additional authentication data to included during hashing. Can be null
+         * @param salt The salt value used during hashing
+         * @param password The password to verify
+         * @param options A map of options to be passed to the backend
+         * @return true if recalculating the hash matches the given value
+         * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+         */
+        boolean verifyRaw(
+                // Configuration
+                Type type,
+                Version version,
+                int memoryCost,
+                int timeCost,
+                int lanes,
+                int threads,
+                // Hash
+                byte[] rawHash,
+                // Data
+                ByteBuffer secret,
+                ByteBuffer ad,
+                ByteBuffer salt,
+                ByteBuffer password,
+                Map<String, Object> options
+        );
+
+        /**
+         * Verify an encoded hash value for a password in a {@link ByteBuffer}.
+         *
+         * <p>
+         *     Same as {@link #verifyEncoded(String, byte[])}, with the buffer handled as in
+         *     {@link #rawHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+         * </p>
+         *
+         * @param encodedHash The encoded hash
+         * @param password The password to verify
+         * @return true if recalculating the hash matches the given value
+         * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+         */
+        boolean verifyEncoded(
+                // Encoded hash encapsulates configuration
+                String encodedHash,
+                // Data
+                ByteBuffer password
+        );
+
+        /**
+         * Verify an encoded hash value for the given parameters with inputs in {@link ByteBuffer}s.
+         *
+         * <p>
+         *     Same as {@link #verifyEncoded(String, int, byte[], byte[], byte[], Map)}, with buffers handled as in
+         *     {@link #rawHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+         * </p>
+         *
+         * @param encodedHash The encoded hash
+         * @param threads The maximum number of threads it be used during hash recalculation. -1 to derive the number
+         *                of threads from the parallelism property of the encoded hash.
+         * @param secret The secret (keyed hashing) used during hashing. Can be null
+         * @param ad Additional authentication data to included during hashing. Can be null
+         * @param password The password to verify
+         * @param options A map of options to be passed to the backend. Can be null
+         * @return true if recalculating the hash matches the given value
+         * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+         */
+        boolean verifyEncoded(
+                // Encoded hash encapsulates configuration
+                String encodedHash,
+                int threads,
+                // Data
+                ByteBuffer secret,
+                ByteBuffer ad,
+                ByteBuffer password,
+                Map<String, Object> options
+        );
+
+        /**
+         * Calculate a raw hash for the given parameters into a caller-supplied array.
+         *
+         * <p>
+         *     Same as {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)},
+         *     except that the hash value is written to out starting at outOffset. Backends that implement
+         *     {@link com.kosprov.jargon2.spi.OutputJargon2Backend} write it there directly; for other backends, it is
+         *     copied from a temporary array that is wiped after the call.
+         * </p>
+         *
+         * @param type The Argon2 {@link Type}
+         * @param version The Argon2 {@link Version}
+         * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+         * @param timeCost The number of passes through memory
+         * @param lanes The number of memory lanes
+         * @param threads The maximum number of threads to process lanes
+         * @param hashLength The number of output bytes of the hash value
+         * @param secret A secret for keyed hashing. Can be null
+         * @param ad Additional authentication data to include into the hash. Can be null
+         * @param salt The salt value to be used during hashing
+         * @param password The password to be hashed
+         * @param options A map of options to be passed to the backend
+         * @param out The array to write the hash value to
+         * @param outOffset The index in out of the first byte of the hash value
+         * @throws Jargon2Exception If required parameters are missing, are invalid, out cannot hold hashLength bytes at
+         * outOffset or hash calculation fails unexpectedly
+         */
+        void rawHash(
+                // Configuration
+                Type type,
+                Version version,
+                int memoryCost,
+                int timeCost,
+                int lanes,
+                int threads,
+                int hashLength,
+                // Data
+                byte[] secret,
+                byte[] ad,
+                byte[] salt,
+                byte[] password,
+                Map<String, Object> options,
+                // Output
+                byte[] out,
+                int outOffset
+        );
+
+        /**
+         * Calculate a raw hash for the given parameters with inputs and output in {@link ByteBuffer}s.
+         *
+         * <p>
+         *     Same as {@link #rawHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)},
+         *     except that the hash value is written at the position of out, which is then advanced by hashLength.
+         *     Nothing is written if hashing fails.
+         * </p>
+         *
+         * @param type The Argon2 {@link Type}
+         * @param version The Argon2 {@link Version}
+         * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+         * @param timeCost The number of passes through memory
+         * @param lanes The number of memory lanes
+         * @param threads The maximum number of threads to process lanes
+         * @param hashLength The number of output bytes of the hash value
+         * @param secret A secret for keyed hashing. Can be null
+         * @param ad Additional authentication data to include into the hash. Can be null
+         * @param salt The salt value to be used during hashing
+         * @param password The password to be hashed
+         * @param options A map of options to be passed to the backend
+         * @param out The buffer to write the hash value to
+         * @throws Jargon2Exception If required parameters are missing, are invalid, out is read-only or has fewer than
+         * hashLength bytes remaining or hash calculation fails unexpectedly
+         */
+        void rawHash(
+                // Configuration
+                Type type,
+                Version version,
+                int memoryCost,
+                int timeCost,
+                int lanes,
+                int threads,
+                int hashLength,
+                // Data
+                ByteBuffer secret,
+                ByteBuffer ad,
+                ByteBuffer salt,
+                ByteBuffer password,
+                Map<String, Object> options,
+                // Output
+                ByteBuffer out
+        );
     }
 
     /**
@@ -461,6 +886,34 @@ public class Jargon2 {
         void generate(byte[] salt);
     }
 
+    /**
+     * Receives the outcome of an asynchronous hash calculation or verification.
+     *
+     * <p>
+     *     Exactly one of the methods is called once, on the thread that completes the calculation (a thread of the
+     *     executor or of the backend), or on the calling thread if the call fails before it is scheduled. It should
+     *     return quickly and must not block.
+     * </p>
+     *
+     * @param <T> The type of the result
+     */
+    public interface Callback<T> {
+        /**
+         * Called with the result of a successful calculation
+         *
+         * @param result The result
+         */
+        void completed(T result);
+
+        /**
+         * Called if the calculation fails or is cancelled before it completes
+         *
+         * @param error A {@link Jargon2Exception} for invalid input or calculation failures, a
+         *              {@link java.util.concurrent.CancellationException} if cancelled, or any other unexpected error
+         */
+        void failed(Throwable error);
+    }
+
     /**
      * Entry-point for the fluent API for password hashing.
      *
@@ -802,6 +1255,13 @@ public class Jargon2 {
 
     /**
      * Immutable builder (copy-on-write) to configure and use the Argon2 hashing backend.
+     *
+     * <p>
+     *     Hashing never modifies the hasher, so one configured instance can be kept per parameter profile and used
+     *     concurrently by any number of threads, each setting its own password on the copy returned by
+     *     {@link #password(byte[])}. Arrays given to the hasher are not copied and must not be modified while in use.
+     *     {@link #prepare()} goes one step further and takes the password as an argument.
+     * </p>
      */
     public interface Hasher {
         /**
@@ -842,6 +1302,43 @@ public class Jargon2 {
          */
         Hasher options(Map<String, Object> options);
 
+        /**
+         * Configure a set of options which will be passed to the backend. If the backend declares its supported
+         * options, the names are checked as soon as both options and a backend are configured. A discovered backend
+         * does not check them, so options may be set before the backend they are meant for.
+         *
+         * @param options The options
+         * @return A copy of this builder
+         * @throws Jargon2Exception If the backend does not support any of the options
+         */
+        Hasher backendOptions(BackendOptions options);
+
+        /**
+         * Configure the executor of the asynchronous methods.
+         *
+         * If left unspecified, a library-owned pool of daemon threads is used. Its size defaults to the number of
+         * processors and its queue to 1024 pending calls; override them with
+         * <tt>-Dcom.kosprov.jargon2.async.threads</tt> and <tt>-Dcom.kosprov.jargon2.async.queueSize</tt>. Calls
+         * rejected by the executor fail with a {@link Jargon2Exception}.
+         *
+         * @param executor The executor to use
+         * @return A copy of this builder
+         */
+        Hasher executor(Executor executor);
+
+        /**
+         * Configure a token that abandons the calls of this hasher once it is cancelled or its deadline passes.
+         *
+         * Calls are refused with a {@link Jargon2CancelledException} before they reach the backend if the token is
+         * already cancelled, including asynchronous calls that waited too long in the executor queue. If the backend
+         * implements {@link com.kosprov.jargon2.spi.CancellableJargon2Backend}, calls in progress are abandoned as
+         * well. With a token, asynchronous calls always run on the executor.
+         *
+         * @param cancellation The token, typically one per request. Null for none
+         * @return A copy of this builder
+         */
+        Hasher cancellation(CancellationToken cancellation);
+
         /**
          * Configure the Argon2 {@link Type}
          *
@@ -982,7 +1479,21 @@ public class Jargon2 {
          * @param password The password value
          * @return A copy of this builder
          */
-        Hasher password(ByteArray password);
+        Hasher password(ByteArray password);
+
+        /**
+         * Set the password value to be hashed as a {@link ByteBuffer}.
+         *
+         * <p>
+         *     The bytes between the position and the limit of the buffer are hashed, when the hash is calculated. The
+         *     buffer is not copied by this method and its position and limit are not changed. Backends that implement
+         *     {@link com.kosprov.jargon2.spi.ByteBufferJargon2Backend} read it in place.
+         * </p>
+         *
+         * @param password The password value
+         * @return A copy of this builder
+         */
+        Hasher password(ByteBuffer password);
 
         /**
          * Configure the secret for keyed hashing (can be left unspecified)
@@ -1024,6 +1535,39 @@ public class Jargon2 {
          */
         byte[] rawHash();
 
+        /**
+         * Calculate the raw hash (hashLength bytes) into the beginning of the given array, without allocating one per
+         * call.
+         *
+         * @param out The array to write the raw hash to. Must be at least hashLength bytes long
+         * @throws Jargon2Exception If required parameters are missing, are invalid, out is shorter than hashLength or
+         * hash calculation fails unexpectedly
+         */
+        void rawHash(byte[] out);
+
+        /**
+         * Calculate the raw hash asynchronously.
+         *
+         * <p>
+         *     Same as {@link #rawHash()}, but the calculation runs on the executor of this hasher, or on the backend's
+         *     own threads if it implements {@link com.kosprov.jargon2.spi.AsyncJargon2Backend}. The password, salt,
+         *     secret and ad are not copied, so they must not be changed or cleared before the returned future
+         *     completes. Failures are reported by the future, not thrown. Cancelling the future does not stop a
+         *     calculation that has started, but its result is discarded.
+         * </p>
+         *
+         * @return A future of the raw hash
+         */
+        Future<byte[]> rawHashAsync();
+
+        /**
+         * Same as {@link #rawHashAsync()}, additionally notifying a callback on completion.
+         *
+         * @param callback The callback to be notified. Can be null
+         * @return A future of the raw hash
+         */
+        Future<byte[]> rawHashAsync(Callback<byte[]> callback);
+
         /**
          * Calculate the encoded hash.
          *
@@ -1037,11 +1581,82 @@ public class Jargon2 {
          *
          * Salt and hash are Base64 encoded without any padding, new lines or spaces.
          *
+         * If no salt is configured, a new one is generated for every call. It is not kept by the hasher, so every
+         * encoded hash of the same hasher has its own salt.
+         *
          * @return The encoded hash
          * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
          */
         String encodedHash();
 
+        /**
+         * Calculate the encoded hash asynchronously.
+         *
+         * <p>
+         *     Same as {@link #encodedHash()}, with the calculation scheduled as in {@link #rawHashAsync()}.
+         * </p>
+         *
+         * @return A future of the encoded hash
+         */
+        Future<String> encodedHashAsync();
+
+        /**
+         * Same as {@link #encodedHashAsync()}, additionally notifying a callback on completion.
+         *
+         * @param callback The callback to be notified. Can be null
+         * @return A future of the encoded hash
+         */
+        Future<String> encodedHashAsync(Callback<String> callback);
+
+        /**
+         * Calculate the encoded hashes of many passwords, each with a new salt from the salt generator.
+         *
+         * <p>
+         *     Same as {@link #encodedHashes(Iterator)}, collecting all the results.
+         * </p>
+         *
+         * @param passwords The passwords
+         * @return The results, in the order of the passwords
+         * @throws Jargon2Exception If passwords are missing or the parameters exceed the limits of the backend
+         */
+        List<EncodedHashResult> encodedHashes(Iterable<? extends ByteArray> passwords);
+
+        /**
+         * Calculate the encoded hashes of a stream of passwords, each with a new salt from the salt generator.
+         *
+         * <p>
+         *     Hashes are calculated on the executor of the asynchronous calls, with {@link #concurrency()} of them in
+         *     flight. Passwords are read ahead only that far, so the input can be of any size. Results are returned in the
+         *     order of the passwords. A password that fails to hash gives a failed result and does not stop the rest.
+         *     Any password or salt configured on this hasher is ignored. If reading a password fails, the results of
+         *     the passwords read before it are returned first, then the failure is thrown by
+         *     {@link Iterator#hasNext()}.
+         * </p>
+         *
+         * <p>
+         *     The hashes go through a {@link PreparedHasher} owned by the returned iterator. It is closed once the
+         *     iterator is exhausted or its source fails; a consumer that may stop earlier should use the iterator in a
+         *     try-with-resources statement.
+         * </p>
+         *
+         * @param passwords The passwords
+         * @return The results, in the order of the passwords
+         * @throws Jargon2Exception If passwords are missing or the parameters exceed the limits of the backend
+         */
+        EncodedHashIterator encodedHashes(Iterator<? extends ByteArray> passwords);
+
+        /**
+         * The number of hashes with this configuration worth calculating at once: as many as the processors can
+         * compute (a hash takes <tt>threads</tt> of them if the backend computes lanes in parallel), but no more than
+         * half of the maximum heap size can hold at the memory cost of this hasher. The heap does not bound hashes
+         * whose memory the backend takes from files, such as the pure Java backend with <tt>memory=mapped</tt>. It
+         * bounds the hashes in flight of {@link #encodedHashes(Iterator)}, and suits any pipeline that hashes or
+         * verifies with these parameters.
+         *
+         * @return The number of hashes, at least 1
+         */
+        int concurrency();
+
         /**
          * Tests whether this hasher configuration matches with properties found encoded in the given hash.
          *
@@ -1050,6 +1665,21 @@ public class Jargon2 {
          * cost, time cost, parallelism, salt length and hash length)
          */
         boolean propertiesMatch(String encodedHash);
+
+        /**
+         * Freeze this hasher configuration into a {@link PreparedHasher} that can be shared by all threads hashing
+         * with it.
+         *
+         * <p>
+         *     Backend, options, parameters, salt length and generator, secret and additional data are captured (secret
+         *     and additional data are copied). Salt and password are not: they are given to every call. If the backend
+         *     supports contexts, one is opened for the prepared hasher, which must then be closed.
+         * </p>
+         *
+         * @return The prepared hasher
+         * @throws Jargon2Exception If the parameters exceed the limits of the backend
+         */
+        PreparedHasher prepare();
     }
 
     /**
@@ -1094,6 +1724,37 @@ public class Jargon2 {
          */
         Verifier options(Map<String, Object> options);
 
+        /**
+         * Configure a set of options which will be passed to the backend. If the backend declares its supported
+         * options, the names are checked as soon as both options and a backend are configured. A discovered backend
+         * does not check them, so options may be set before the backend they are meant for.
+         *
+         * @param options The options
+         * @return A copy of this builder
+         * @throws Jargon2Exception If the backend does not support any of the options
+         */
+        Verifier backendOptions(BackendOptions options);
+
+        /**
+         * Configure the executor of the asynchronous methods.
+         *
+         * If left unspecified, the library-owned pool described in {@link Hasher#executor(Executor)} is used.
+         *
+         * @param executor The executor to use
+         * @return A copy of this builder
+         */
+        Verifier executor(Executor executor);
+
+        /**
+         * Configure a token that abandons the calls of this verifier once it is cancelled or its deadline passes.
+         *
+         * See {@link Hasher#cancellation(CancellationToken)}.
+         *
+         * @param cancellation The token, typically one per request. Null for none
+         * @return A copy of this builder
+         */
+        Verifier cancellation(CancellationToken cancellation);
+
         /**
          * Configure the Argon2 {@link Type}.
          *
@@ -1216,6 +1877,20 @@ public class Jargon2 {
          */
         Verifier password(ByteArray password);
 
+        /**
+         * Set the password value to be verified as a {@link ByteBuffer}.
+         *
+         * <p>
+         *     The bytes between the position and the limit of the buffer are used, when the hash is verified. The
+         *     buffer is not copied by this method and its position and limit are not changed. Backends that implement
+         *     {@link com.kosprov.jargon2.spi.ByteBufferJargon2Backend} read it in place.
+         * </p>
+         *
+         * @param password The password value
+         * @return A copy of this builder
+         */
+        Verifier password(ByteBuffer password);
+
         /**
          * Configure the secret for keyed hashing (can be left unspecified)
          *
@@ -1266,6 +1941,16 @@ public class Jargon2 {
          */
         EncodedVerifier hash(String encodedHash);
 
+        /**
+         * Set the parsed encoded hash value produced during hashing.
+         *
+         * Same as {@link #hash(String)}, without parsing and decoding the hash again on every verification.
+         *
+         * @param encodedHash The parsed encoded hash value
+         * @return A copy of this builder
+         */
+        EncodedVerifier hash(EncodedHash encodedHash);
+
         /**
          * Set the raw hash value produced during hashing (can be left unspecified if encoded hash was calculated)
          *
@@ -1273,6 +1958,84 @@ public class Jargon2 {
          * @return A copy of this builder
          */
         RawVerifier hash(byte[] rawHash);
+
+        /**
+         * Verify several encoded hashes and passwords with the backend, options, threads, secret and ad of this
+         * verifier. Its own hash, password and other parameters are not used.
+         *
+         * <p>
+         *     Same as {@link LowLevelApi#verifyEncodedBatch(int, byte[], byte[], List, Map)}.
+         * </p>
+         *
+         * @param requests The encoded hashes and passwords to verify
+         * @return An array with the result of every request, in the same order
+         * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+         */
+        boolean[] verifyEncodedBatch(List<VerifyRequest> requests);
+
+        /**
+         * Verify a password against several encoded hashes, e.g. the primary password and the application passwords
+         * of an account, with the backend, options, threads, secret and ad of this verifier.
+         *
+         * <p>
+         *     Same as {@link #verifyAny(List, ByteArray, boolean)} without constant work: returns as soon as one hash
+         *     matches.
+         * </p>
+         *
+         * @param encodedHashes The encoded hashes
+         * @param password The password
+         * @return true if the password matches any of the hashes
+         * @throws Jargon2Exception If required parameters are missing, or no hash matches and verification of any
+         * hash fails
+         */
+        boolean verifyAny(List<String> encodedHashes, ByteArray password);
+
+        /**
+         * Verify a password against several encoded hashes concurrently, on the executor of the asynchronous calls.
+         * Its own hash, password and other parameters are not used.
+         *
+         * <p>
+         *     Without constant work, the call returns as soon as one hash matches. The verifications still pending are
+         *     cancelled: queued ones do not start and, if the backend implements
+         *     {@link com.kosprov.jargon2.spi.CancellableJargon2Backend}, running ones are abandoned. Response time then
+         *     reveals which hashes were tried before the match. With constant work, all the hashes are verified every
+         *     time and the call returns once all of them are done.
+         * </p>
+         *
+         * <p>
+         *     A failed verification, e.g. of an invalid hash, does not hide a match of another hash. The failure is
+         *     reported only if no hash matches.
+         * </p>
+         *
+         * <p>
+         *     The calling thread blocks until the call returns and verifies hashes itself, taking those no thread of
+         *     the executor has started. It only ever waits for verifications that are already running, so calling
+         *     from a thread of the executor, e.g. from a {@link Callback}, cannot exhaust it. Such a call does hold
+         *     that thread for the whole call, though, and with every other thread busy it verifies the hashes one
+         *     after the other. Prefer a calling thread that may block.
+         * </p>
+         *
+         * @param encodedHashes The encoded hashes
+         * @param password The password
+         * @param constantWork true to verify all the hashes even after a match
+         * @return true if the password matches any of the hashes
+         * @throws Jargon2Exception If required parameters are missing, or no hash matches and verification of any
+         * hash fails
+         */
+        boolean verifyAny(List<String> encodedHashes, ByteArray password, boolean constantWork);
+
+        /**
+         * Freeze this verifier configuration into a {@link PreparedVerifier} that can be shared by all threads
+         * verifying with it.
+         *
+         * <p>
+         *     Backend, options, parameters, threads, secret and additional data are captured (secret and additional
+         *     data are copied). Hash, salt and password are not: they are given to every call.
+         * </p>
+         *
+         * @return The prepared verifier
+         */
+        PreparedVerifier prepare();
     }
 
     /**
@@ -1292,6 +2055,15 @@ public class Jargon2 {
         @Override
         EncodedVerifier options(Map<String, Object> options);
 
+        @Override
+        EncodedVerifier backendOptions(BackendOptions options);
+
+        @Override
+        EncodedVerifier executor(Executor executor);
+
+        @Override
+        EncodedVerifier cancellation(CancellationToken cancellation);
+
         @Override
         EncodedVerifier type(Type type);
 
@@ -1325,6 +2097,9 @@ public class Jargon2 {
         @Override
         EncodedVerifier password(ByteArray password);
 
+        @Override
+        EncodedVerifier password(ByteBuffer password);
+
         @Override
         EncodedVerifier secret(byte[] secret);
 
@@ -1340,6 +2115,9 @@ public class Jargon2 {
         @Override
         EncodedVerifier hash(String encodedHash);
 
+        @Override
+        EncodedVerifier hash(EncodedHash encodedHash);
+
         @Override
         RawVerifier hash(byte[] rawHash);
 
@@ -1350,6 +2128,25 @@ public class Jargon2 {
          * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
          */
         boolean verifyEncoded();
+
+        /**
+         * Verify the encoded hash asynchronously.
+         *
+         * <p>
+         *     Same as {@link #verifyEncoded()}, with the calculation scheduled as in {@link Hasher#rawHashAsync()}.
+         * </p>
+         *
+         * @return A future of the verification result
+         */
+        Future<Boolean> verifyEncodedAsync();
+
+        /**
+         * Same as {@link #verifyEncodedAsync()}, additionally notifying a callback on completion.
+         *
+         * @param callback The callback to be notified. Can be null
+         * @return A future of the verification result
+         */
+        Future<Boolean> verifyEncodedAsync(Callback<Boolean> callback);
     }
 
     /**
@@ -1369,6 +2166,15 @@ public class Jargon2 {
         @Override
         RawVerifier options(Map<String, Object> options);
 
+        @Override
+        RawVerifier backendOptions(BackendOptions options);
+
+        @Override
+        RawVerifier executor(Executor executor);
+
+        @Override
+        RawVerifier cancellation(CancellationToken cancellation);
+
         @Override
         RawVerifier type(Type type);
 
@@ -1402,6 +2208,9 @@ public class Jargon2 {
         @Override
         RawVerifier password(ByteArray password);
 
+        @Override
+        RawVerifier password(ByteBuffer password);
+
         @Override
         RawVerifier secret(byte[] secret);
 
@@ -1417,6 +2226,9 @@ public class Jargon2 {
         @Override
         EncodedVerifier hash(String encodedHash);
 
+        @Override
+        EncodedVerifier hash(EncodedHash encodedHash);
+
         @Override
         RawVerifier hash(byte[] rawHash);
 
@@ -1427,5 +2239,188 @@ public class Jargon2 {
          * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
          */
         boolean verifyRaw();
+
+        /**
+         * Verify the raw hash asynchronously.
+         *
+         * <p>
+         *     Same as {@link #verifyRaw()}, with the calculation scheduled as in {@link Hasher#rawHashAsync()}.
+         * </p>
+         *
+         * @return A future of the verification result
+         */
+        Future<Boolean> verifyRawAsync();
+
+        /**
+         * Same as {@link #verifyRawAsync()}, additionally notifying a callback on completion.
+         *
+         * @param callback The callback to be notified. Can be null
+         * @return A future of the verification result
+         */
+        Future<Boolean> verifyRawAsync(Callback<Boolean> callback);
+    }
+
+    /**
+     * An immutable, thread-safe {@link Hasher} configuration, created by {@link Hasher#prepare()}.
+     *
+     * <p>
+     *     Everything but salt and password is resolved once: the backend and its capabilities, the options, the
+     *     matcher of {@link #propertiesMatch(String)} and, for backends that implement
+     *     {@link com.kosprov.jargon2.spi.ContextJargon2Backend}, the backend context. Keep one instance per parameter
+     *     profile and share it across threads instead of building a hasher for every call.
+     * </p>
+     *
+     * <p>
+     *     The prepared hasher owns its backend context. Close it when it is no longer needed, e.g. when the component
+     *     holding it shuts down, to release whatever the context holds. Calls made after closing fail.
+     * </p>
+     */
+    public interface PreparedHasher extends AutoCloseable {
+
+        /**
+         * Calculate the raw hash.
+         *
+         * @param salt The salt
+         * @param password The password
+         * @return The raw hash bytes
+         * @throws Jargon2Exception If salt or password is missing or hashing fails
+         */
+        byte[] rawHash(byte[] salt, byte[] password);
+
+        /**
+         * Same as {@link #rawHash(byte[], byte[])} with the password of a {@link ByteArray}.
+         *
+         * @param salt The salt
+         * @param password The password
+         * @return The raw hash bytes
+         * @throws Jargon2Exception If salt or password is missing or hashing fails
+         */
+        byte[] rawHash(byte[] salt, ByteArray password);
+
+        /**
+         * Calculate the encoded hash with a new salt from the salt generator.
+         *
+         * @param password The password
+         * @return The encoded hash
+         * @throws Jargon2Exception If password is missing or hashing fails
+         */
+        String encodedHash(byte[] password);
+
+        /**
+         * Same as {@link #encodedHash(byte[])} with the password of a {@link ByteArray}.
+         *
+         * @param password The password
+         * @return The encoded hash
+         * @throws Jargon2Exception If password is missing or hashing fails
+         */
+        String encodedHash(ByteArray password);
+
+        /**
+         * Same as {@link Hasher#propertiesMatch(String)}.
+         *
+         * @param encodedHash An Argon2 encoded hash
+         * @return <code>true</code>, if the prepared properties and encodedHash properties match
+         */
+        boolean propertiesMatch(String encodedHash);
+
+        /**
+         * Close the backend context of this prepared hasher, if any. Hashes still running complete normally. Closing a
+         * closed prepared hasher has no effect.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * The results of {@link Hasher#encodedHashes(Iterator)}, in the order of the passwords. Not thread-safe.
+     *
+     * <p>
+     *     The iterator owns the {@link PreparedHasher} its hashes go through and closes it once exhausted. Close the
+     *     iterator to stop earlier, e.g. in a try-with-resources statement.
+     * </p>
+     */
+    public interface EncodedHashIterator extends Iterator<EncodedHashResult>, Closeable {
+
+        /**
+         * Stop reading passwords, drop the results not returned yet and close the prepared hasher. Queued hashes are
+         * skipped; hashes still running complete first, so the prepared hasher may be closed after this returns.
+         * Closing a closed iterator has no effect.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * An immutable, thread-safe {@link Verifier} configuration, created by {@link Verifier#prepare()}.
+     *
+     * <p>
+     *     Backend, capabilities and options are resolved once. Encoded hashes carry their own parameters; the
+     *     parameters of the verifier apply to raw hashes only. Keep one instance per parameter profile and share it
+     *     across threads instead of building a verifier for every call.
+     * </p>
+     */
+    public interface PreparedVerifier {
+
+        /**
+         * Verify an encoded hash.
+         *
+         * @param encodedHash The encoded hash
+         * @param password The password
+         * @return true if recalculating the hash matches
+         * @throws Jargon2Exception If hash or password is missing, is invalid or verification fails unexpectedly
+         */
+        boolean verifyEncoded(String encodedHash, byte[] password);
+
+        /**
+         * Same as {@link #verifyEncoded(String, byte[])} with the password of a {@link ByteArray}.
+         *
+         * @param encodedHash The encoded hash
+         * @param password The password
+         * @return true if recalculating the hash matches
+         * @throws Jargon2Exception If hash or password is missing, is invalid or verification fails unexpectedly
+         */
+        boolean verifyEncoded(String encodedHash, ByteArray password);
+
+        /**
+         * Verify a parsed encoded hash.
+         *
+         * @param encodedHash The parsed encoded hash
+         * @param password The password
+         * @return true if recalculating the hash matches
+         * @throws Jargon2Exception If hash or password is missing or verification fails unexpectedly
+         */
+        boolean verifyEncoded(EncodedHash encodedHash, byte[] password);
+
+        /**
+         * Same as {@link #verifyEncoded(EncodedHash, byte[])} with the password of a {@link ByteArray}.
+         *
+         * @param encodedHash The parsed encoded hash
+         * @param password The password
+         * @return true if recalculating the hash matches
+         * @throws Jargon2Exception If hash or password is missing or verification fails unexpectedly
+         */
+        boolean verifyEncoded(EncodedHash encodedHash, ByteArray password);
+
+        /**
+         * Verify a raw hash with the parameters of the verifier.
+         *
+         * @param rawHash The raw hash
+         * @param salt The salt
+         * @param password The password
+         * @return true if recalculating the hash matches
+         * @throws Jargon2Exception If any input is missing or verification fails unexpectedly
+         */
+        boolean verifyRaw(byte[] rawHash, byte[] salt, byte[] password);
+
+        /**
+         * Same as {@link #verifyRaw(byte[], byte[], byte[])} with the password of a {@link ByteArray}.
+         *
+         * @param rawHash The raw hash
+         * @param salt The salt
+         * @param password The password
+         * @return true if recalculating the hash matches
+         * @throws Jargon2Exception If any input is missing or verification fails unexpectedly
+         */
+        boolean verifyRaw(byte[] rawHash, byte[] salt, ByteArray password);
     }
 }
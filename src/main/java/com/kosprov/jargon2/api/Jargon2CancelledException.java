@@ -0,0 +1,23 @@
+package com.kosprov.jargon2.api;
+
+/**
+ * Thrown when a call is abandoned because its {@link CancellationToken} was cancelled or its deadline passed, either
+ * before the call reached the backend or by a backend that checks the token while hashing.
+ */
+public class Jargon2CancelledException extends Jargon2Exception {
+
+    public Jargon2CancelledException() {
+    }
+
+    public Jargon2CancelledException(String message) {
+        super(message);
+    }
+
+    public Jargon2CancelledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public Jargon2CancelledException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,56 @@
+package com.kosprov.jargon2.api;
+
+/**
+ * An encoded hash and the password to verify against it, one element of a batch verification.
+ *
+ * <p>
+ *     The password array is not copied, so it must not be changed or cleared before the batch completes.
+ * </p>
+ *
+ * @see Jargon2.LowLevelApi#verifyEncodedBatch(int, byte[], byte[], java.util.List, java.util.Map)
+ * @see Jargon2.Verifier#verifyEncodedBatch(java.util.List)
+ */
+public final class VerifyRequest {
+
+    private final String encodedHash;
+    private final byte[] password;
+
+    /**
+     * @param encodedHash The encoded hash
+     * @param password The password to verify
+     */
+    public VerifyRequest(String encodedHash, byte[] password) {
+        this.encodedHash = encodedHash;
+        this.password = password;
+    }
+
+    /**
+     * @param encodedHash The encoded hash
+     * @param password The password to verify
+     */
+    public VerifyRequest(String encodedHash, Jargon2.ByteArray password) {
+        this(encodedHash, password.getBytes());
+    }
+
+    /**
+     * @return The encoded hash
+     */
+    public String getEncodedHash() {
+        return encodedHash;
+    }
+
+    /**
+     * @return The password to verify
+     */
+    public byte[] getPassword() {
+        return password;
+    }
+
+    @Override
+    public String toString() {
+        // Careful not to leak any sensitive data
+        return "VerifyRequest{" +
+                "encodedHash=" + encodedHash +
+                '}';
+    }
+}
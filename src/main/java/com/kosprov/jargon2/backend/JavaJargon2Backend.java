@@ -0,0 +1,561 @@
+package com.kosprov.jargon2.backend;
+
+import com.kosprov.jargon2.api.BackendOption;
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.VerifyRequest;
+import com.kosprov.jargon2.internal.argon2.AddressCache;
+import com.kosprov.jargon2.internal.argon2.Argon2Encoding;
+import com.kosprov.jargon2.internal.argon2.Argon2Engine;
+import com.kosprov.jargon2.internal.argon2.BlockMemoryAllocator;
+import com.kosprov.jargon2.internal.argon2.BlockMemoryPool;
+import com.kosprov.jargon2.spi.BatchJargon2Backend;
+import com.kosprov.jargon2.spi.CancellableByteBufferJargon2Backend;
+import com.kosprov.jargon2.spi.ContextJargon2Backend;
+import com.kosprov.jargon2.spi.DescribedJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+import com.kosprov.jargon2.spi.Jargon2BackendContext;
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+import com.kosprov.jargon2.spi.OutputJargon2Backend;
+
+import java.io.File;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+import static com.kosprov.jargon2.api.Jargon2.Version;
+
+/**
+ * Pure Java {@link Jargon2Backend} implementing Argon2d, Argon2i and Argon2id, versions 1.0 and 1.3.
+ *
+ * <p>
+ *     It has no native dependencies and is registered as a {@link java.util.ServiceLoader} provider by the
+ *     <tt>jargon2-api</tt> jar itself. It is used by automatic discovery only if no other backend is found, so
+ *     adding a native backend to the classpath takes precedence without any configuration.
+ * </p>
+ *
+ * <p>
+ *     Supported options, also available as typed {@link BackendOption} keys for
+ *     {@link com.kosprov.jargon2.api.BackendOptions}:
+ * </p>
+ * <ul>
+ *     <li>
+ *         {@value #MEMORY_OPTION}: where the block matrix is placed. {@value #MEMORY_HEAP} (default) allocates a
+ *         long[] of <tt>memoryCost</tt> KiB per call. {@value #MEMORY_DIRECT} allocates direct buffers outside the
+ *         Java heap and frees them before the call returns, so that large memory costs do not cause humongous
+ *         allocations and GC pressure. {@value #MEMORY_MAPPED} maps a temporary file of the matrix size into
+ *         memory and deletes it before the call returns, so that memory costs of several GiB are not bounded by the
+ *         heap or direct memory limits.
+ *     </li>
+ *     <li>
+ *         {@value #MEMORY_DIRECTORY_OPTION}: the directory of the temporary files of {@value #MEMORY_MAPPED} memory,
+ *         as a {@link String}, {@link File} or {@link Path}. Defaults to <tt>java.io.tmpdir</tt>. It should be on a
+ *         memory file system such as <tt>tmpfs</tt>, because pages written out to a disk are not reliably erased by
+ *         wiping.
+ *     </li>
+ *     <li>
+ *         {@value #MEMORY_POOL_OPTION}: if <tt>true</tt>, the block matrix is leased from a pool owned by this backend
+ *         instance and returned to it after the call, instead of being allocated and freed every time. The pool keeps
+ *         up to <tt>maxIdle</tt> matrices per memory size and frees those idle for longer than <tt>maxIdleTime</tt>.
+ *         The no-args constructor reads them from <tt>-Dcom.kosprov.jargon2.backend.pool.maxIdle</tt> (default 2)
+ *         and <tt>-Dcom.kosprov.jargon2.backend.pool.maxIdleSeconds</tt> (default 60).
+ *     </li>
+ *     <li>
+ *         {@value #ADDRESS_CACHE_OPTION}: if <tt>true</tt>, the reference blocks of the data-independent segments of
+ *         Argon2i and Argon2id are computed once per (type, memoryCost, timeCost, lanes) and kept in a cache owned by
+ *         this backend instance, instead of generating address blocks on every call. The total size of the cache is
+ *         bounded by <tt>-Dcom.kosprov.jargon2.backend.addressCache.maxBytes</tt> (default 16 MiB). It holds no
+ *         password-dependent data.
+ *     </li>
+ * </ul>
+ *
+ * <p>
+ *     The block matrix is wiped before it is released in every mode, including before it is returned to the pool.
+ * </p>
+ */
+public class JavaJargon2Backend implements BatchJargon2Backend, CancellableByteBufferJargon2Backend, OutputJargon2Backend, ContextJargon2Backend, DescribedJargon2Backend {
+
+    public static final String MEMORY_OPTION = "memory";
+    public static final String MEMORY_HEAP = "heap";
+    public static final String MEMORY_DIRECT = "direct";
+    public static final String MEMORY_MAPPED = "mapped";
+    public static final String MEMORY_DIRECTORY_OPTION = "memoryDirectory";
+    public static final String MEMORY_POOL_OPTION = "memoryPool";
+    public static final String ADDRESS_CACHE_OPTION = "addressCache";
+
+    public static final BackendOption<String> MEMORY = BackendOption.of(MEMORY_OPTION, String.class);
+    public static final BackendOption<Path> MEMORY_DIRECTORY = BackendOption.of(MEMORY_DIRECTORY_OPTION, Path.class);
+    public static final BackendOption<Boolean> MEMORY_POOL = BackendOption.of(MEMORY_POOL_OPTION, Boolean.class);
+    public static final BackendOption<Boolean> ADDRESS_CACHE = BackendOption.of(ADDRESS_CACHE_OPTION, Boolean.class);
+
+    private static final String POOL_MAX_IDLE_SYSTEM_PROP_NAME = "com.kosprov.jargon2.backend.pool.maxIdle";
+    private static final String POOL_MAX_IDLE_SECONDS_SYSTEM_PROP_NAME = "com.kosprov.jargon2.backend.pool.maxIdleSeconds";
+    private static final String ADDRESS_CACHE_MAX_BYTES_SYSTEM_PROP_NAME = "com.kosprov.jargon2.backend.addressCache.maxBytes";
+
+    /**
+     * Thread-safe, computes lanes in parallel when given more than one thread and rejects any option not listed above
+     */
+    private static final Jargon2BackendCapabilities CAPABILITIES = Jargon2BackendCapabilities.DEFAULT
+            .parallelLanes(true)
+            .options(MEMORY, MEMORY_DIRECTORY, MEMORY_POOL, ADDRESS_CACHE);
+
+    private final BlockMemoryPool heapPool;
+    private final BlockMemoryPool directPool;
+    private final AddressCache addressCache = new AddressCache(Long.getLong(ADDRESS_CACHE_MAX_BYTES_SYSTEM_PROP_NAME, 16L << 20));
+
+    public JavaJargon2Backend() {
+        this(Integer.getInteger(POOL_MAX_IDLE_SYSTEM_PROP_NAME, 2), Long.getLong(POOL_MAX_IDLE_SECONDS_SYSTEM_PROP_NAME, 60L), TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param maxIdle The maximum number of idle pooled matrices per memory size and memory type
+     * @param maxIdleTime The time after which an idle pooled matrix is freed
+     * @param unit The unit of <tt>maxIdleTime</tt>
+     */
+    public JavaJargon2Backend(int maxIdle, long maxIdleTime, TimeUnit unit) {
+        this.heapPool = new BlockMemoryPool(BlockMemoryAllocator.HEAP, maxIdle, maxIdleTime, unit);
+        this.directPool = new BlockMemoryPool(BlockMemoryAllocator.DIRECT, maxIdle, maxIdleTime, unit);
+    }
+
+    @Override
+    public Jargon2BackendCapabilities getCapabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        return rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, (CancellationToken) null);
+    }
+
+    /**
+     * Checks the token before every slice of the block matrix.
+     */
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, CancellationToken cancellation) {
+        Argon2Engine engine = engine(type, version, memoryCost, timeCost, lanes, threads, hashLength, options);
+        byte[] hash = new byte[hashLength];
+        engine.hash(allocator(options), wrap(secret), wrap(ad), wrap(salt), wrap(password), hash, 0, cancellation);
+        return hash;
+    }
+
+    /**
+     * Hashes the pairs one after the other in a single block matrix, leased once for the whole batch. For Argon2i
+     * and Argon2id, the data-independent reference blocks are also computed once, whether or not
+     * {@value #ADDRESS_CACHE_OPTION} is set.
+     */
+    @Override
+    public byte[][] rawHashBatch(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[][] salts, byte[][] passwords, Map<String, Object> options) {
+        return engine(type, version, memoryCost, timeCost, lanes, threads, hashLength, options).hashBatch(allocator(options), secret, ad, salts, passwords);
+    }
+
+    /**
+     * Decodes all hashes first, then verifies the requests that share type, version, costs, lanes and hash length
+     * as one {@link #rawHashBatch(Type, Version, int, int, int, int, int, byte[], byte[], byte[][], byte[][], Map)}.
+     * A hash that cannot be decoded does not match, so it does not fail the rest of the batch.
+     */
+    @Override
+    public boolean[] verifyEncodedBatch(int threads, byte[] secret, byte[] ad, List<VerifyRequest> requests, Map<String, Object> options) {
+        // Few distinct parameter sets are expected, so a group is found by comparing with its first request
+        List<List<Integer>> groups = new ArrayList<>();
+        Argon2Encoding.Decoded[] decoded = new Argon2Encoding.Decoded[requests.size()];
+        byte[][] passwords = new byte[requests.size()][];
+        int i = 0;
+        for (VerifyRequest request : requests) {
+            if (request.getEncodedHash() == null) {
+                throw new Jargon2BackendException("Missing encoded hash");
+            }
+            Argon2Encoding.Decoded d;
+            try {
+                d = Argon2Encoding.decode(request.getEncodedHash());
+            } catch (Jargon2BackendException e) {
+                i++;
+                continue;
+            }
+            List<Integer> group = null;
+            for (List<Integer> candidate : groups) {
+                if (sameParameters(decoded[candidate.get(0)], d)) {
+                    group = candidate;
+                    break;
+                }
+            }
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.add(group);
+            }
+            group.add(i);
+            decoded[i] = d;
+            passwords[i] = request.getPassword();
+            i++;
+        }
+
+        boolean[] results = new boolean[decoded.length];
+        for (List<Integer> group : groups) {
+            Argon2Encoding.Decoded first = decoded[group.get(0)];
+            byte[][] groupSalts = new byte[group.size()][];
+            byte[][] groupPasswords = new byte[group.size()][];
+            for (int j = 0; j < group.size(); j++) {
+                groupSalts[j] = decoded[group.get(j)].salt;
+                groupPasswords[j] = passwords[group.get(j)];
+            }
+            byte[][] hashes = rawHashBatch(
+                    first.type,
+                    first.version,
+                    first.memoryCost,
+                    first.timeCost,
+                    first.lanes,
+                    threads == -1 ? first.lanes : threads,
+                    first.hash.length,
+                    secret,
+                    ad,
+                    groupSalts,
+                    groupPasswords,
+                    options
+            );
+            for (int j = 0; j < group.size(); j++) {
+                results[group.get(j)] = MessageDigest.isEqual(decoded[group.get(j)].hash, hashes[j]);
+                Arrays.fill(hashes[j], (byte) 0);
+            }
+        }
+        return results;
+    }
+
+    private static boolean sameParameters(Argon2Encoding.Decoded a, Argon2Encoding.Decoded b) {
+        return a.type == b.type
+                && a.version == b.version
+                && a.memoryCost == b.memoryCost
+                && a.timeCost == b.timeCost
+                && a.lanes == b.lanes
+                && a.hash.length == b.hash.length;
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        return encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, (CancellationToken) null);
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, CancellationToken cancellation) {
+        byte[] hash = rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, cancellation);
+        try {
+            return Argon2Encoding.encode(type, version, memoryCost, timeCost, lanes, salt, hash);
+        } finally {
+            Arrays.fill(hash, (byte) 0);
+        }
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        return verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options, (CancellationToken) null);
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, CancellationToken cancellation) {
+        if (rawHash == null) {
+            throw new Jargon2BackendException("Missing raw hash");
+        }
+        byte[] calculated = rawHash(type, version, memoryCost, timeCost, lanes, threads, rawHash.length, secret, ad, salt, password, options, cancellation);
+        try {
+            return MessageDigest.isEqual(rawHash, calculated);
+        } finally {
+            Arrays.fill(calculated, (byte) 0);
+        }
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options) {
+        return verifyEncoded(encodedHash, threads, secret, ad, password, options, (CancellationToken) null);
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options, CancellationToken cancellation) {
+        Argon2Encoding.Decoded decoded = Argon2Encoding.decode(encodedHash);
+        return verifyRaw(
+                decoded.type,
+                decoded.version,
+                decoded.memoryCost,
+                decoded.timeCost,
+                decoded.lanes,
+                threads == -1 ? decoded.lanes : threads,
+                decoded.hash,
+                secret,
+                ad,
+                decoded.salt,
+                password,
+                options,
+                cancellation
+        );
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        return rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, (CancellationToken) null);
+    }
+
+    /**
+     * Checks the token before every slice of the block matrix.
+     */
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation) {
+        Argon2Engine engine = engine(type, version, memoryCost, timeCost, lanes, threads, hashLength, options);
+        byte[] hash = new byte[hashLength];
+        engine.hash(allocator(options), secret, ad, salt, password, hash, 0, cancellation);
+        return hash;
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        return encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, (CancellationToken) null);
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation) {
+        byte[] hash = rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, cancellation);
+        try {
+            byte[] saltBytes = new byte[salt.remaining()];
+            salt.duplicate().get(saltBytes);
+            return Argon2Encoding.encode(type, version, memoryCost, timeCost, lanes, saltBytes, hash);
+        } finally {
+            Arrays.fill(hash, (byte) 0);
+        }
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        return verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options, (CancellationToken) null);
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation) {
+        if (rawHash == null) {
+            throw new Jargon2BackendException("Missing raw hash");
+        }
+        byte[] calculated = rawHash(type, version, memoryCost, timeCost, lanes, threads, rawHash.length, secret, ad, salt, password, options, cancellation);
+        try {
+            return MessageDigest.isEqual(rawHash, calculated);
+        } finally {
+            Arrays.fill(calculated, (byte) 0);
+        }
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options) {
+        return verifyEncoded(encodedHash, threads, secret, ad, password, options, (CancellationToken) null);
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation) {
+        Argon2Encoding.Decoded decoded = Argon2Encoding.decode(encodedHash);
+        return verifyRaw(
+                decoded.type,
+                decoded.version,
+                decoded.memoryCost,
+                decoded.timeCost,
+                decoded.lanes,
+                threads == -1 ? decoded.lanes : threads,
+                decoded.hash,
+                secret,
+                ad,
+                ByteBuffer.wrap(decoded.salt),
+                password,
+                options,
+                cancellation
+        );
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, byte[] out, int outOffset) {
+        engine(type, version, memoryCost, timeCost, lanes, threads, hashLength, options).hash(allocator(options), secret, ad, salt, password, out, outOffset);
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, ByteBuffer out) {
+        Argon2Engine engine = engine(type, version, memoryCost, timeCost, lanes, threads, hashLength, options);
+        if (out.hasArray()) {
+            engine.hash(allocator(options), secret, ad, salt, password, out.array(), out.arrayOffset() + out.position());
+            ((Buffer) out).position(out.position() + hashLength);
+            return;
+        }
+        byte[] hash = engine.hash(allocator(options), secret, ad, salt, password);
+        try {
+            out.put(hash);
+        } finally {
+            Arrays.fill(hash, (byte) 0);
+        }
+    }
+
+    /**
+     * Validates the parameters and resolves the options once. The context allocates memory like the backend, from
+     * the pools of the backend if {@value #MEMORY_POOL_OPTION} is set, so it holds nothing that needs releasing.
+     */
+    @Override
+    public Jargon2BackendContext openContext(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, Map<String, Object> options) {
+        return new Context(engine(type, version, memoryCost, timeCost, lanes, threads, hashLength, options), allocator(options));
+    }
+
+    private static final class Context implements Jargon2BackendContext {
+        private final Argon2Engine engine;
+        private final BlockMemoryAllocator allocator;
+        private volatile boolean closed;
+
+        Context(Argon2Engine engine, BlockMemoryAllocator allocator) {
+            this.engine = engine;
+            this.allocator = allocator;
+        }
+
+        @Override
+        public byte[] rawHash(byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+            checkOpen();
+            return engine.hash(allocator, secret, ad, salt, password);
+        }
+
+        @Override
+        public String encodedHash(byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+            byte[] hash = rawHash(secret, ad, salt, password);
+            try {
+                return Argon2Encoding.encode(engine.getType(), engine.getVersion(), engine.getMemoryCost(), engine.getTimeCost(), engine.getLanes(), salt, hash);
+            } finally {
+                Arrays.fill(hash, (byte) 0);
+            }
+        }
+
+        @Override
+        public boolean verifyRaw(byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+            checkOpen();
+            if (rawHash == null) {
+                throw new Jargon2BackendException("Missing raw hash");
+            }
+            return engine.verify(allocator, rawHash, secret, ad, salt, password);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new Jargon2BackendException("Context is closed");
+            }
+        }
+    }
+
+    /**
+     * @return The number of pooled calculations that found an idle matrix
+     */
+    public long getPoolHits() {
+        return heapPool.getHits() + directPool.getHits();
+    }
+
+    /**
+     * @return The number of pooled calculations that had to allocate a new matrix
+     */
+    public long getPoolMisses() {
+        return heapPool.getMisses() + directPool.getMisses();
+    }
+
+    /**
+     * @return The number of idle matrices currently held by the pool
+     */
+    public int getPoolIdleCount() {
+        return heapPool.getIdleCount() + directPool.getIdleCount();
+    }
+
+    /**
+     * Free the pooled matrices that have been idle for longer than the max idle time. This also happens every time
+     * a matrix is returned to the pool.
+     */
+    public void trimPool() {
+        heapPool.trim();
+        directPool.trim();
+    }
+
+    /**
+     * Free all idle pooled matrices.
+     */
+    public void clearPool() {
+        heapPool.clear();
+        directPool.clear();
+    }
+
+    /**
+     * @return The number of calls that found their reference blocks in the address cache
+     */
+    public long getAddressCacheHits() {
+        return addressCache.getHits();
+    }
+
+    /**
+     * @return The number of calls that computed the reference blocks for the address cache
+     */
+    public long getAddressCacheMisses() {
+        return addressCache.getMisses();
+    }
+
+    /**
+     * Remove all entries of the address cache.
+     */
+    public void clearAddressCache() {
+        addressCache.clear();
+    }
+
+    private Argon2Engine engine(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, Map<String, Object> options) {
+        boolean cached = options != null && isTrue(ADDRESS_CACHE_OPTION, options.get(ADDRESS_CACHE_OPTION));
+        return new Argon2Engine(type, version, memoryCost, timeCost, lanes, threads, hashLength, cached ? addressCache : null);
+    }
+
+    private BlockMemoryAllocator allocator(Map<String, Object> options) {
+        Object memory = options != null ? options.get(MEMORY_OPTION) : null;
+        boolean pooled = options != null && isTrue(MEMORY_POOL_OPTION, options.get(MEMORY_POOL_OPTION));
+        if (memory == null || MEMORY_HEAP.equals(memory)) {
+            return pooled ? heapPool : BlockMemoryAllocator.HEAP;
+        }
+        if (MEMORY_DIRECT.equals(memory)) {
+            return pooled ? directPool : BlockMemoryAllocator.DIRECT;
+        }
+        if (MEMORY_MAPPED.equals(memory)) {
+            if (pooled) {
+                throw new Jargon2BackendException("Option " + MEMORY_POOL_OPTION + " is not supported with " + MEMORY_MAPPED + " memory");
+            }
+            return BlockMemoryAllocator.mapped(directory(options.get(MEMORY_DIRECTORY_OPTION)));
+        }
+        throw new Jargon2BackendException("Invalid value for option " + MEMORY_OPTION + ": " + memory);
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        return bytes != null ? ByteBuffer.wrap(bytes) : null;
+    }
+
+    private static Path directory(Object value) {
+        if (value == null) {
+            return Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        if (value instanceof Path) {
+            return (Path) value;
+        }
+        if (value instanceof File) {
+            return ((File) value).toPath();
+        }
+        if (value instanceof String) {
+            return Paths.get((String) value);
+        }
+        throw new Jargon2BackendException("Invalid value for option " + MEMORY_DIRECTORY_OPTION + ": " + value);
+    }
+
+    private static boolean isTrue(String option, Object value) {
+        if (value == null || Boolean.FALSE.equals(value) || "false".equals(value)) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(value) || "true".equals(value)) {
+            return true;
+        }
+        throw new Jargon2BackendException("Invalid value for option " + option + ": " + value);
+    }
+}
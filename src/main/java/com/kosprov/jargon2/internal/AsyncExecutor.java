@@ -0,0 +1,74 @@
+package com.kosprov.jargon2.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The library-owned executor of asynchronous calls when none is configured: a fixed number of daemon threads, started
+ * on demand and stopped after a minute of idleness, in front of a bounded queue. Calls beyond the queue capacity are
+ * rejected instead of piling up.
+ */
+final class AsyncExecutor {
+
+    private static final String THREADS_SYSTEM_PROP_NAME = "com.kosprov.jargon2.async.threads";
+    private static final String QUEUE_SIZE_SYSTEM_PROP_NAME = "com.kosprov.jargon2.async.queueSize";
+
+    private AsyncExecutor() {
+    }
+
+    /**
+     * @return The given executor, or the library-owned one if null
+     */
+    static Executor orDefault(Executor executor) {
+        return executor != null ? executor : Holder.DEFAULT;
+    }
+
+    /**
+     * @return The number of tasks the executor can usefully run at once: its maximum pool size if known, but no more
+     * than the processors
+     */
+    static int parallelism(Executor executor) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (executor instanceof ThreadPoolExecutor) {
+            return Math.max(1, Math.min(processors, ((ThreadPoolExecutor) executor).getMaximumPoolSize()));
+        }
+        return processors;
+    }
+
+    /**
+     * Created on first use, so that nothing is started unless asynchronous calls are made.
+     */
+    private static final class Holder {
+
+        private static final Executor DEFAULT = create(
+                Integer.getInteger(THREADS_SYSTEM_PROP_NAME, Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger(QUEUE_SIZE_SYSTEM_PROP_NAME, 1024)
+        );
+    }
+
+    private static ThreadPoolExecutor create(int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "jargon2-async-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
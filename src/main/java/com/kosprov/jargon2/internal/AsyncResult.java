@@ -0,0 +1,165 @@
+package com.kosprov.jargon2.internal;
+
+import com.kosprov.jargon2.api.Jargon2Exception;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.kosprov.jargon2.api.Jargon2.Callback;
+
+/**
+ * {@link Future} of an asynchronous call, completed through its {@link Callback} side by an executor task or by an
+ * async backend, and forwarding the outcome to an optional user callback.
+ *
+ * <p>
+ *     The first outcome wins. Later ones, including the result of a calculation that finishes after the future was
+ *     cancelled, are discarded; a discarded byte[] result is wiped.
+ * </p>
+ */
+final class AsyncResult<T> implements Future<T>, Callback<T> {
+
+    private static final int PENDING = 0;
+    private static final int COMPLETED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private final Callback<T> callback;
+
+    private int state = PENDING;
+    private T result;
+    private Throwable error;
+
+    AsyncResult(Callback<T> callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * A result that has already failed, for calls refused before any work is queued.
+     */
+    static <T> AsyncResult<T> failedWith(Callback<T> callback, Throwable error) {
+        AsyncResult<T> asyncResult = new AsyncResult<>(callback);
+        asyncResult.failed(error);
+        return asyncResult;
+    }
+
+    /**
+     * Run a task on an executor. A task still queued when the future is cancelled is skipped.
+     */
+    static <T> AsyncResult<T> submit(Executor executor, Callback<T> callback, final Callable<T> task) {
+        final AsyncResult<T> asyncResult = new AsyncResult<>(callback);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (asyncResult.isDone()) {
+                        return;
+                    }
+                    T result;
+                    try {
+                        result = task.call();
+                    } catch (Throwable t) {
+                        asyncResult.failed(t);
+                        return;
+                    }
+                    asyncResult.completed(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            asyncResult.failed(new Jargon2Exception("Asynchronous call rejected by the executor", e));
+        }
+        return asyncResult;
+    }
+
+    @Override
+    public void completed(T result) {
+        if (!complete(COMPLETED, result, null)) {
+            if (result instanceof byte[]) {
+                Arrays.fill((byte[]) result, (byte) 0);
+            }
+            return;
+        }
+        if (callback != null) {
+            callback.completed(result);
+        }
+    }
+
+    @Override
+    public void failed(Throwable error) {
+        if (complete(FAILED, null, error) && callback != null) {
+            callback.failed(error);
+        }
+    }
+
+    /**
+     * A calculation that has started is not interrupted; its result is discarded.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!complete(CANCELLED, null, null)) {
+            return false;
+        }
+        if (callback != null) {
+            callback.failed(new CancellationException());
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != PENDING;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        while (state == PENDING) {
+            wait();
+        }
+        return report();
+    }
+
+    @Override
+    public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (state == PENDING) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return report();
+    }
+
+    private synchronized boolean complete(int state, T result, Throwable error) {
+        if (this.state != PENDING) {
+            return false;
+        }
+        this.state = state;
+        this.result = result;
+        this.error = error;
+        notifyAll();
+        return true;
+    }
+
+    private T report() throws ExecutionException {
+        if (state == CANCELLED) {
+            throw new CancellationException();
+        }
+        if (state == FAILED) {
+            throw new ExecutionException(error);
+        }
+        return result;
+    }
+}
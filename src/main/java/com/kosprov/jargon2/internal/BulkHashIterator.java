@@ -0,0 +1,169 @@
+package com.kosprov.jargon2.internal;
+
+import com.kosprov.jargon2.api.EncodedHashResult;
+import com.kosprov.jargon2.api.Jargon2Exception;
+import com.kosprov.jargon2.backend.JavaJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.kosprov.jargon2.api.Jargon2.ByteArray;
+import static com.kosprov.jargon2.api.Jargon2.EncodedHashIterator;
+import static com.kosprov.jargon2.api.Jargon2.PreparedHasher;
+
+/**
+ * Hashes the passwords of a source iterator on an executor, keeping up to a fixed number of them in flight and
+ * returning the results in input order. Passwords are read from the source only as results are consumed, so inputs
+ * of any size are hashed in bounded memory. The iterator is closed once the last result is consumed or once a failure
+ * to read the source has been thrown after the results read before it; the prepared hasher is closed when the
+ * iterator is and no hash is running.
+ */
+final class BulkHashIterator implements EncodedHashIterator {
+
+    private final PreparedHasher hasher;
+    private final Executor executor;
+    private final int window;
+    private final Iterator<? extends ByteArray> passwords;
+    private final Deque<AsyncResult<String>> inFlight = new ArrayDeque<>();
+    // One hold for the iterator and one for every running hash; the last one released closes the prepared hasher
+    private final AtomicInteger holds = new AtomicInteger(1);
+    private RuntimeException sourceFailure;
+    private boolean closed;
+
+    BulkHashIterator(PreparedHasher hasher, Executor executor, int window, Iterator<? extends ByteArray> passwords) {
+        this.hasher = hasher;
+        this.executor = executor;
+        this.window = window;
+        this.passwords = passwords;
+    }
+
+    /**
+     * The number of hashes to keep in flight: as many as the processors can compute at once, but no more than half
+     * of the maximum heap size can hold, since every hash needs <tt>memoryCost</tt> KiB while it runs. A hash takes
+     * <tt>threads</tt> processors only if the backend computes lanes in parallel. The pure Java backend with
+     * {@value JavaJargon2Backend#MEMORY_MAPPED} memory takes its matrices from files, so only processors bound it;
+     * {@value JavaJargon2Backend#MEMORY_DIRECT} memory is bounded like the heap, since the direct memory limit
+     * defaults to the maximum heap size.
+     *
+     * @param capabilities The capabilities of the backend
+     * @param memoryCost The memory cost in kibi bytes
+     * @param threads The number of threads of every hash
+     * @param options The options of the backend
+     * @return The number of hashes to keep in flight, at least 1
+     */
+    static int window(Jargon2BackendCapabilities capabilities, int memoryCost, int threads, Map<String, Object> options) {
+        int perHash = capabilities.isParallelLanes() ? Math.max(1, threads) : 1;
+        int byProcessors = Runtime.getRuntime().availableProcessors() / perHash;
+        if (JavaJargon2Backend.MEMORY_MAPPED.equals(options.get(JavaJargon2Backend.MEMORY_OPTION))) {
+            return Math.max(1, byProcessors);
+        }
+        long byMemory = Runtime.getRuntime().maxMemory() / 2 / (Math.max(1, memoryCost) * 1024L);
+        return (int) Math.max(1, Math.min(byProcessors, byMemory));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        fill();
+        if (!inFlight.isEmpty()) {
+            return true;
+        }
+        close();
+        if (sourceFailure != null) {
+            throw sourceFailure;
+        }
+        return false;
+    }
+
+    @Override
+    public EncodedHashResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        AsyncResult<String> head = inFlight.poll();
+        // Keeps the window full while waiting; a failure to read the source is only thrown after this result
+        fill();
+        try {
+            return EncodedHashResult.success(head.get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            return EncodedHashResult.failure(cause instanceof Jargon2Exception ? (Jargon2Exception) cause : new Jargon2Exception("Hash calculation failed", cause));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Jargon2Exception("Interrupted while waiting for a hash", e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (AsyncResult<String> result : inFlight) {
+            result.cancel(false);
+        }
+        inFlight.clear();
+        release();
+    }
+
+    private boolean acquire() {
+        for (;;) {
+            int current = holds.get();
+            if (current == 0) {
+                return false;
+            }
+            if (holds.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        if (holds.decrementAndGet() == 0) {
+            hasher.close();
+        }
+    }
+
+    private void fill() {
+        if (closed || sourceFailure != null) {
+            return;
+        }
+        try {
+            while (inFlight.size() < window && passwords.hasNext()) {
+                final ByteArray password = passwords.next();
+                inFlight.add(AsyncResult.submit(executor, null, new Callable<String>() {
+                    @Override
+                    public String call() {
+                        if (!acquire()) {
+                            throw new CancellationException();
+                        }
+                        try {
+                            return hasher.encodedHash(password);
+                        } finally {
+                            release();
+                        }
+                    }
+                }));
+            }
+        } catch (RuntimeException e) {
+            sourceFailure = e;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.kosprov.jargon2.internal;
+
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.VerifyRequest;
+import com.kosprov.jargon2.spi.BatchJargon2Backend;
+import com.kosprov.jargon2.spi.ByteBufferJargon2Backend;
+import com.kosprov.jargon2.spi.CancellableByteBufferJargon2Backend;
+import com.kosprov.jargon2.spi.CancellableJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+import com.kosprov.jargon2.spi.OutputJargon2Backend;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Checks a cancellation token before every call to a backend, and passes it on if the backend is a
+ * {@link CancellableJargon2Backend} (or a {@link CancellableByteBufferJargon2Backend}, for buffer inputs).
+ *
+ * <p>
+ *     Implements every optional interface a caller may dispatch to, but its methods of an interface must only be
+ *     called if the capabilities of the wrapped backend say that it implements that interface. Batch and output calls
+ *     are only checked before they reach the backend.
+ * </p>
+ */
+final class CancellingJargon2Backend implements BatchJargon2Backend, ByteBufferJargon2Backend, OutputJargon2Backend {
+
+    private final Jargon2Backend delegate;
+    private final Jargon2BackendCapabilities capabilities;
+    private final CancellationToken cancellation;
+    private final boolean cancellableByteBuffers;
+
+    CancellingJargon2Backend(Jargon2Backend delegate, Jargon2BackendCapabilities capabilities, CancellationToken cancellation) {
+        this.delegate = delegate;
+        this.capabilities = capabilities;
+        this.cancellation = cancellation;
+        this.cancellableByteBuffers = delegate instanceof CancellableByteBufferJargon2Backend;
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (capabilities.isCancellable()) {
+            return ((CancellableJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, cancellation);
+        }
+        return delegate.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (capabilities.isCancellable()) {
+            return ((CancellableJargon2Backend) delegate).encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, cancellation);
+        }
+        return delegate.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (capabilities.isCancellable()) {
+            return ((CancellableJargon2Backend) delegate).verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options, cancellation);
+        }
+        return delegate.verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options);
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (capabilities.isCancellable()) {
+            return ((CancellableJargon2Backend) delegate).verifyEncoded(encodedHash, threads, secret, ad, password, options, cancellation);
+        }
+        return delegate.verifyEncoded(encodedHash, threads, secret, ad, password, options);
+    }
+
+    @Override
+    public byte[][] rawHashBatch(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[][] salts, byte[][] passwords, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        return ((BatchJargon2Backend) delegate).rawHashBatch(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salts, passwords, options);
+    }
+
+    @Override
+    public boolean[] verifyEncodedBatch(int threads, byte[] secret, byte[] ad, List<VerifyRequest> requests, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        return ((BatchJargon2Backend) delegate).verifyEncodedBatch(threads, secret, ad, requests, options);
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (cancellableByteBuffers) {
+            return ((CancellableByteBufferJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, cancellation);
+        }
+        return ((ByteBufferJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (cancellableByteBuffers) {
+            return ((CancellableByteBufferJargon2Backend) delegate).encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, cancellation);
+        }
+        return ((ByteBufferJargon2Backend) delegate).encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (cancellableByteBuffers) {
+            return ((CancellableByteBufferJargon2Backend) delegate).verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options, cancellation);
+        }
+        return ((ByteBufferJargon2Backend) delegate).verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options);
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options) {
+        cancellation.throwIfCancelled();
+        if (cancellableByteBuffers) {
+            return ((CancellableByteBufferJargon2Backend) delegate).verifyEncoded(encodedHash, threads, secret, ad, password, options, cancellation);
+        }
+        return ((ByteBufferJargon2Backend) delegate).verifyEncoded(encodedHash, threads, secret, ad, password, options);
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, byte[] out, int outOffset) {
+        cancellation.throwIfCancelled();
+        ((OutputJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, out, outOffset);
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, ByteBuffer out) {
+        cancellation.throwIfCancelled();
+        ((OutputJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, out);
+    }
+}
@@ -0,0 +1,51 @@
+package com.kosprov.jargon2.internal;
+
+import com.kosprov.jargon2.api.EncodedHash;
+
+/**
+ * Gives the internal classes the salt and hash of an {@link EncodedHash} without the defensive copies of its public
+ * getters, so that verifying a parsed hash allocates nothing on the way to the backend. The arrays are shared with
+ * the {@link EncodedHash} and must never be modified.
+ *
+ * <p>
+ *     The only implementation is registered by {@link EncodedHash} when its class is initialized, which has always
+ *     happened by the time an instance is passed here.
+ * </p>
+ */
+public abstract class EncodedHashAccess {
+
+    private static volatile EncodedHashAccess access;
+
+    /**
+     * Register the implementation. Only {@link EncodedHash} may call it, once.
+     *
+     * @param implementation The implementation
+     * @throws IllegalStateException If called by any other class or more than once
+     */
+    public static void register(EncodedHashAccess implementation) {
+        if (implementation.getClass().getEnclosingClass() != EncodedHash.class || access != null) {
+            throw new IllegalStateException("EncodedHashAccess is registered by EncodedHash only");
+        }
+        access = implementation;
+    }
+
+    static byte[] salt(EncodedHash encodedHash) {
+        return access.saltOf(encodedHash);
+    }
+
+    static byte[] hash(EncodedHash encodedHash) {
+        return access.hashOf(encodedHash);
+    }
+
+    /**
+     * @param encodedHash The encoded hash
+     * @return The salt array of the encoded hash itself
+     */
+    protected abstract byte[] saltOf(EncodedHash encodedHash);
+
+    /**
+     * @param encodedHash The encoded hash
+     * @return The hash array of the encoded hash itself
+     */
+    protected abstract byte[] hashOf(EncodedHash encodedHash);
+}
@@ -1,22 +1,35 @@
 package com.kosprov.jargon2.internal;
 
+import com.kosprov.jargon2.api.BackendOptions;
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.EncodedHashResult;
 import com.kosprov.jargon2.api.Jargon2Exception;
+import com.kosprov.jargon2.internal.argon2.EncodedHashMatcher;
 import com.kosprov.jargon2.internal.discovery.Jargon2BackendDiscovery;
+import com.kosprov.jargon2.spi.AsyncJargon2Backend;
+import com.kosprov.jargon2.spi.ContextJargon2Backend;
 import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+import com.kosprov.jargon2.spi.Jargon2BackendContext;
 
+import java.nio.ByteBuffer;
 import java.security.Provider;
-import java.text.MessageFormat;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import static com.kosprov.jargon2.api.Jargon2.*;
 
 public class HasherImpl implements Hasher {
 
     private Jargon2Backend backend = Jargon2BackendDiscovery.INSTANCE.getJargon2Backend();
-    private Map<String, Object> options = Collections.emptyMap();
+    private Jargon2BackendCapabilities capabilities = Jargon2BackendDiscovery.INSTANCE.getJargon2BackendCapabilities();
+    private boolean explicitBackend;
+    private BackendOptions options = BackendOptions.EMPTY;
     private Type type = Type.ARGON2i;
     private Version version = Version.V13;
     private int timeCost = 3;
@@ -28,16 +41,23 @@ public class HasherImpl implements Hasher {
 
     private byte[] salt;
     private byte[] password;
+    private ByteBuffer passwordBuffer;
     private byte[] secret;
     private byte[] ad;
 
     private SaltGenerator saltGenerator = SecureRandomSaltGenerator.DEFAULT;
+    private Executor executor;
+    private CancellationToken cancellation;
+
+    private volatile EncodedHashMatcher matcher;
 
     public HasherImpl() {
     }
 
     private HasherImpl(HasherImpl copy) {
         this.backend = copy.backend;
+        this.capabilities = copy.capabilities;
+        this.explicitBackend = copy.explicitBackend;
         this.options = copy.options;
         this.type = copy.type;
         this.version = copy.version;
@@ -49,40 +69,75 @@ public class HasherImpl implements Hasher {
         this.saltLength = copy.saltLength;
         this.salt = copy.salt;
         this.password = copy.password;
+        this.passwordBuffer = copy.passwordBuffer;
         this.secret = copy.secret;
         this.ad = copy.ad;
         this.saltGenerator = copy.saltGenerator;
+        this.executor = copy.executor;
+        this.cancellation = copy.cancellation;
+        this.matcher = copy.matcher;
     }
 
     @Override
     public HasherImpl backend(Jargon2Backend backend) {
         HasherImpl copy = new HasherImpl(this);
         copy.backend = backend;
+        copy.capabilities = Jargon2BackendCapabilities.of(backend);
+        copy.explicitBackend = true;
+        copy.capabilities.checkOptions(options);
         return copy;
     }
 
     @Override
     public HasherImpl backend(String backendClass) {
+        Class<? extends Jargon2Backend> resolved;
         try {
-            return backend(Class.forName(backendClass).asSubclass(Jargon2Backend.class));
+            resolved = Class.forName(backendClass).asSubclass(Jargon2Backend.class);
         } catch (Exception e) {
             throw new Jargon2Exception("Could not create Jargon2Backend instance from class " + backendClass);
         }
+        return backend(resolved);
     }
 
     @Override
     public HasherImpl backend(Class<? extends Jargon2Backend> backendClass) {
+        Jargon2Backend instance;
         try {
-            return backend(backendClass.newInstance());
+            instance = backendClass.newInstance();
         } catch (Exception e) {
             throw new Jargon2Exception("Could not create Jargon2Backend instance from class " + backendClass);
         }
+        return backend(instance);
     }
 
     @Override
     public HasherImpl options(Map<String, Object> options) {
+        return backendOptions(BackendOptions.of(options));
+    }
+
+    @Override
+    public HasherImpl backendOptions(BackendOptions options) {
+        BackendOptions checked = options != null ? options : BackendOptions.EMPTY;
+        if (explicitBackend) {
+            // The discovered backend may be replaced later on, so only a configured one rejects options early
+            capabilities.checkOptions(checked);
+        }
+        HasherImpl copy = new HasherImpl(this);
+        copy.options = checked;
+        return copy;
+    }
+
+    @Override
+    public HasherImpl executor(Executor executor) {
+        HasherImpl copy = new HasherImpl(this);
+        copy.executor = executor;
+        return copy;
+    }
+
+    @Override
+    public HasherImpl cancellation(CancellationToken cancellation) {
         HasherImpl copy = new HasherImpl(this);
-        copy.options = options != null ? new HashMap<>(options) : Collections.<String, Object>emptyMap();
+        copy.cancellation = cancellation;
         return copy;
     }
 
@@ -190,6 +245,7 @@ public class HasherImpl implements Hasher {
     public HasherImpl password(byte[] password) {
         HasherImpl copy = new HasherImpl(this);
         copy.password = password;
+        copy.passwordBuffer = null;
         return copy;
     }
 
@@ -197,6 +253,15 @@ public class HasherImpl implements Hasher {
     public HasherImpl password(ByteArray password) {
         HasherImpl copy = new HasherImpl(this);
         copy.password = password.getBytes();
+        copy.passwordBuffer = null;
+        return copy;
+    }
+
+    @Override
+    public HasherImpl password(ByteBuffer password) {
+        HasherImpl copy = new HasherImpl(this);
+        copy.password = null;
+        copy.passwordBuffer = password;
         return copy;
     }
 
@@ -233,70 +298,289 @@ public class HasherImpl implements Hasher {
         if (salt == null) {
             throw new Jargon2Exception("Missing salt for raw hashing");
         }
-        return new Jargon2BackendAdapter(backend).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        Jargon2BackendAdapter adapter = new Jargon2BackendAdapter(backend, capabilities, cancellation);
+        if (passwordBuffer != null) {
+            return adapter.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, wrap(secret), wrap(ad), ByteBuffer.wrap(salt), passwordBuffer, options.asMap());
+        }
+        return adapter.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options.asMap());
+    }
+
+    @Override
+    public void rawHash(byte[] out) {
+        if (salt == null) {
+            throw new Jargon2Exception("Missing salt for raw hashing");
+        }
+        if (out == null) {
+            throw new Jargon2Exception("Missing output array");
+        }
+        Jargon2BackendAdapter adapter = new Jargon2BackendAdapter(backend, capabilities, cancellation);
+        if (passwordBuffer != null) {
+            adapter.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, wrap(secret), wrap(ad), ByteBuffer.wrap(salt), passwordBuffer, options.asMap(), ByteBuffer.wrap(out));
+        } else {
+            adapter.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options.asMap(), out, 0);
+        }
     }
 
     @Override
     public String encodedHash() {
+        // Generated salts stay local to the call, so that a configured hasher can be shared by any number of threads
+        byte[] salt = this.salt;
         if (salt == null) {
             salt = new byte[saltLength];
             saltGenerator.generate(salt);
         }
-        return new Jargon2BackendAdapter(backend).encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        Jargon2BackendAdapter adapter = new Jargon2BackendAdapter(backend, capabilities, cancellation);
+        if (passwordBuffer != null) {
+            return adapter.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, wrap(secret), wrap(ad), ByteBuffer.wrap(salt), passwordBuffer, options.asMap());
+        }
+        return adapter.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options.asMap());
     }
 
     @Override
-    public boolean propertiesMatch(String encodedHash) {
-        Pattern pattern = encodedHashPattern();
-        return pattern.matcher(encodedHash).matches();
-    }
-
-    private Pattern encodedHashPattern;
-
-    private Pattern encodedHashPattern() {
-        if (encodedHashPattern == null) {
-            switch (version) {
-                case V10:
-                    encodedHashPattern =
-                            Pattern.compile(
-                                    MessageFormat.format(
-                                            "^\\${0}\\$m={1},t={2},p={3}\\$[A-Za-z0-9+/]'{'{4}'}'\\$[A-Za-z0-9+/]'{'{5}'}'$",
-                                            type.getValue(),
-                                            Integer.toString(memoryCost),
-                                            Integer.toString(timeCost),
-                                            Integer.toString(lanes),
-                                            Integer.toString(base64Length(saltLength)),
-                                            Integer.toString(base64Length(hashLength))
-                                    )
-                            );
-                    break;
-                case V13:
-                default:
-                    encodedHashPattern =
-                            Pattern.compile(
-                                    MessageFormat.format(
-                                            "^\\${0}\\$v={1}\\$m={2},t={3},p={4}\\$[A-Za-z0-9+/]'{'{5}'}'\\$[A-Za-z0-9+/]'{'{6}'}'$",
-                                            type.getValue(),
-                                            Integer.toString(version.getValue()),
-                                            Integer.toString(memoryCost),
-                                            Integer.toString(timeCost),
-                                            Integer.toString(lanes),
-                                            Integer.toString(base64Length(saltLength)),
-                                            Integer.toString(base64Length(hashLength))
-                                    )
-                            );
+    public Future<byte[]> rawHashAsync() {
+        return rawHashAsync(null);
+    }
+
+    @Override
+    public Future<byte[]> rawHashAsync(Callback<byte[]> callback) {
+        try {
+            capabilities.checkLimits(lanes, memoryCost);
+            if (cancellation != null) {
+                cancellation.throwIfCancelled();
+            }
+        } catch (Jargon2Exception e) {
+            return AsyncResult.failedWith(callback, e);
+        }
+        if (capabilities.isAsync() && capabilities.isThreadSafe() && cancellation == null && passwordBuffer == null && salt != null) {
+            AsyncResult<byte[]> result = new AsyncResult<>(callback);
+            try {
+                ((AsyncJargon2Backend) backend).rawHashAsync(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options.asMap(), result);
+            } catch (RuntimeException e) {
+                result.failed(e);
+            }
+            return result;
+        }
+        return AsyncResult.submit(AsyncExecutor.orDefault(executor), callback, new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+                return rawHash();
+            }
+        });
+    }
+
+    @Override
+    public Future<String> encodedHashAsync() {
+        return encodedHashAsync(null);
+    }
+
+    @Override
+    public Future<String> encodedHashAsync(Callback<String> callback) {
+        try {
+            capabilities.checkLimits(lanes, memoryCost);
+            if (cancellation != null) {
+                cancellation.throwIfCancelled();
+            }
+        } catch (Jargon2Exception e) {
+            return AsyncResult.failedWith(callback, e);
+        }
+        if (capabilities.isAsync() && capabilities.isThreadSafe() && cancellation == null && passwordBuffer == null) {
+            AsyncResult<String> result = new AsyncResult<>(callback);
+            try {
+                byte[] salt = this.salt;
+                if (salt == null) {
+                    salt = new byte[saltLength];
+                    saltGenerator.generate(salt);
+                }
+                ((AsyncJargon2Backend) backend).encodedHashAsync(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options.asMap(), result);
+            } catch (RuntimeException e) {
+                result.failed(e);
+            }
+            return result;
+        }
+        return AsyncResult.submit(AsyncExecutor.orDefault(executor), callback, new Callable<String>() {
+            @Override
+            public String call() {
+                return encodedHash();
+            }
+        });
+    }
+
+    private boolean contextsUsable() {
+        return capabilities.isContexts() && capabilities.isThreadSafe() && cancellation == null;
+    }
+
+    /**
+     * Everything of a hasher but salt and password, resolved once. Holds no mutable state but the closed flag, so it
+     * is shared freely. Owns its context and closes it on {@link #close()}.
+     */
+    private static final class PreparedHasherImpl implements PreparedHasher {
+        private final Jargon2BackendAdapter adapter;
+        private final Jargon2BackendContext context;
+        private final Map<String, Object> options;
+        private final Type type;
+        private final Version version;
+        private final int timeCost;
+        private final int memoryCost;
+        private final int lanes;
+        private final int threads;
+        private final int hashLength;
+        private final int saltLength;
+        private final SaltGenerator saltGenerator;
+        private final byte[] secret;
+        private final byte[] ad;
+        private final EncodedHashMatcher matcher;
+        private volatile boolean closed;
+
+        PreparedHasherImpl(HasherImpl hasher) {
+            this.adapter = new Jargon2BackendAdapter(hasher.backend, hasher.capabilities, hasher.cancellation);
+            this.options = hasher.options.asMap();
+            this.type = hasher.type;
+            this.version = hasher.version;
+            this.timeCost = hasher.timeCost;
+            this.memoryCost = hasher.memoryCost;
+            this.lanes = hasher.lanes;
+            this.threads = hasher.threads;
+            this.hashLength = hasher.hashLength;
+            this.saltLength = hasher.saltLength;
+            this.saltGenerator = hasher.saltGenerator;
+            this.secret = hasher.secret != null ? hasher.secret.clone() : null;
+            this.ad = hasher.ad != null ? hasher.ad.clone() : null;
+            this.matcher = hasher.matcher();
+            // Opened last, so that nothing can fail once the context is open
+            this.context = hasher.contextsUsable()
+                    ? ((ContextJargon2Backend) hasher.backend).openContext(type, version, memoryCost, timeCost, lanes, threads, hashLength, options)
+                    : null;
+        }
+
+        @Override
+        public byte[] rawHash(byte[] salt, byte[] password) {
+            checkOpen();
+            if (salt == null) {
+                throw new Jargon2Exception("Missing salt for raw hashing");
+            }
+            if (context != null) {
+                return context.rawHash(secret, ad, salt, password);
+            }
+            return adapter.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+
+        @Override
+        public byte[] rawHash(byte[] salt, ByteArray password) {
+            return rawHash(salt, bytes(password));
+        }
+
+        @Override
+        public String encodedHash(byte[] password) {
+            checkOpen();
+            byte[] salt = new byte[saltLength];
+            saltGenerator.generate(salt);
+            if (context != null) {
+                return context.encodedHash(secret, ad, salt, password);
+            }
+            return adapter.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+
+        @Override
+        public String encodedHash(ByteArray password) {
+            return encodedHash(bytes(password));
+        }
+
+        @Override
+        public boolean propertiesMatch(String encodedHash) {
+            return matcher.matches(encodedHash);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new Jargon2Exception("Prepared hasher is closed");
             }
         }
-        return encodedHashPattern;
+
+        @Override
+        public String toString() {
+            return "PreparedHasher{" +
+                    "type=" + type +
+                    ", version=" + version +
+                    ", timeCost=" + timeCost +
+                    ", memoryCost=" + memoryCost +
+                    ", lanes=" + lanes +
+                    ", threads=" + threads +
+                    ", hashLength=" + hashLength +
+                    ", saltLength=" + saltLength +
+                    ", context=" + (context != null) +
+                    '}';
+        }
+    }
+
+    static byte[] bytes(ByteArray byteArray) {
+        return byteArray != null ? byteArray.getBytes() : null;
+    }
+
+    static ByteBuffer wrap(byte[] bytes) {
+        return bytes != null ? ByteBuffer.wrap(bytes) : null;
+    }
+
+    @Override
+    public List<EncodedHashResult> encodedHashes(Iterable<? extends ByteArray> passwords) {
+        if (passwords == null) {
+            throw new Jargon2Exception("Missing passwords");
+        }
+        List<EncodedHashResult> collected = new ArrayList<>();
+        try (EncodedHashIterator results = encodedHashes(passwords.iterator())) {
+            while (results.hasNext()) {
+                collected.add(results.next());
+            }
+        }
+        return collected;
     }
 
-    private static int base64Length(int bytes) {
-        int base64Length = bytes / 3 * 4;
-        int mod3 = bytes % 3;
-        if (mod3 != 0) {
-            base64Length += (mod3 + 1);
+    @Override
+    public EncodedHashIterator encodedHashes(Iterator<? extends ByteArray> passwords) {
+        if (passwords == null) {
+            throw new Jargon2Exception("Missing passwords");
+        }
+        return new BulkHashIterator(prepare(), AsyncExecutor.orDefault(executor), concurrency(), passwords);
+    }
+
+    @Override
+    public int concurrency() {
+        return BulkHashIterator.window(capabilities, memoryCost, threads, options.asMap());
+    }
+
+    @Override
+    public PreparedHasher prepare() {
+        capabilities.checkLimits(lanes, memoryCost);
+        return new PreparedHasherImpl(this);
+    }
+
+    @Override
+    public boolean propertiesMatch(String encodedHash) {
+        return matcher().matches(encodedHash);
+    }
+
+    /**
+     * Copies of a hasher start with its matcher and look one up again only if their parameters differ.
+     *
+     * @return The matcher of encoded hashes for the current parameters
+     */
+    private EncodedHashMatcher matcher() {
+        EncodedHashMatcher current = matcher;
+        if (current == null || !current.isFor(type, version, memoryCost, timeCost, lanes, saltLength, hashLength)) {
+            current = EncodedHashMatcher.of(type, version, memoryCost, timeCost, lanes, saltLength, hashLength);
+            matcher = current;
         }
-        return base64Length;
+        return current;
     }
 
     @Override
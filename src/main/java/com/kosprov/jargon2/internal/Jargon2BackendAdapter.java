@@ -1,45 +1,114 @@
 package com.kosprov.jargon2.internal;
 
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.EncodedHash;
+import com.kosprov.jargon2.api.Jargon2CancelledException;
+import com.kosprov.jargon2.api.Jargon2Exception;
+import com.kosprov.jargon2.api.VerifyRequest;
+import com.kosprov.jargon2.internal.argon2.Argon2Encoding;
+import com.kosprov.jargon2.spi.BatchJargon2Backend;
+import com.kosprov.jargon2.spi.ByteBufferJargon2Backend;
 import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+import com.kosprov.jargon2.spi.OutputJargon2Backend;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import static com.kosprov.jargon2.api.Jargon2.*;
 
 public class Jargon2BackendAdapter implements LowLevelApi {
     private Jargon2Backend backend;
+    private Jargon2BackendCapabilities capabilities;
 
     public Jargon2BackendAdapter(Jargon2Backend backend) {
-        this.backend = backend;
+        this(backend, Jargon2BackendCapabilities.of(backend));
+    }
+
+    /**
+     * @param backend The backend
+     * @param capabilities The capabilities of the backend, as returned by {@link Jargon2BackendCapabilities#of(Jargon2Backend)}
+     */
+    public Jargon2BackendAdapter(Jargon2Backend backend, Jargon2BackendCapabilities capabilities) {
+        this(backend, capabilities, null);
+    }
+
+    /**
+     * @param backend The backend
+     * @param capabilities The capabilities of the backend, as returned by {@link Jargon2BackendCapabilities#of(Jargon2Backend)}
+     * @param cancellation The token to check before every call to the backend, and during the call if the backend is
+     *                     cancellable. Can be null
+     */
+    public Jargon2BackendAdapter(Jargon2Backend backend, Jargon2BackendCapabilities capabilities, CancellationToken cancellation) {
+        // The wrappers forward every optional interface, so calls keep dispatching on the capabilities of the backend
+        Jargon2Backend effective = backend;
+        if (cancellation != null) {
+            effective = new CancellingJargon2Backend(effective, capabilities, cancellation);
+        }
+        if (!capabilities.isThreadSafe()) {
+            // Checked once the lock is acquired, so that the wait for it counts towards the deadline
+            effective = new SynchronizedJargon2Backend(effective, backend);
+        }
+        this.backend = effective;
+        this.capabilities = capabilities;
     }
 
     @Override
     public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int parallelism, int hashLength, byte[] salt, byte[] password) {
-        return backend.rawHash(type, version, memoryCost, timeCost, parallelism, parallelism, hashLength, null, null, salt, password, null);
+        return rawHash(type, version, memoryCost, timeCost, parallelism, parallelism, hashLength, (byte[]) null, null, salt, password, null);
     }
 
     @Override
     public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        capabilities.checkLimits(lanes, memoryCost);
         return backend.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
     }
 
+    @Override
+    public byte[][] rawHashBatch(Type type, Version version, int memoryCost, int timeCost, int parallelism, int hashLength, byte[][] salts, byte[][] passwords) {
+        return rawHashBatch(type, version, memoryCost, timeCost, parallelism, parallelism, hashLength, null, null, salts, passwords, null);
+    }
+
+    @Override
+    public byte[][] rawHashBatch(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[][] salts, byte[][] passwords, Map<String, Object> options) {
+        capabilities.checkLimits(lanes, memoryCost);
+        if (salts == null || passwords == null) {
+            throw new Jargon2Exception("Missing salts or passwords");
+        }
+        if (salts.length != passwords.length) {
+            throw new Jargon2Exception("Salts and passwords must be as many");
+        }
+        if (capabilities.isBatch()) {
+            return ((BatchJargon2Backend) backend).rawHashBatch(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salts, passwords, options);
+        }
+        byte[][] hashes = new byte[salts.length][];
+        for (int i = 0; i < salts.length; i++) {
+            hashes[i] = backend.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salts[i], passwords[i], options);
+        }
+        return hashes;
+    }
+
     @Override
     public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int parallelism, int hashLength, byte[] salt, byte[] password) {
-        return backend.encodedHash(type, version, memoryCost, timeCost, parallelism, parallelism, hashLength, null, null, salt, password, null);
+        return encodedHash(type, version, memoryCost, timeCost, parallelism, parallelism, hashLength, (byte[]) null, null, salt, password, null);
     }
 
     @Override
     public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        capabilities.checkLimits(lanes, memoryCost);
         return backend.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
     }
 
     @Override
     public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int parallelism, byte[] rawHash, byte[] salt, byte[] password) {
-        return backend.verifyRaw(type, version, memoryCost, timeCost, parallelism, parallelism, rawHash, null, null, salt, password, null);
+        return verifyRaw(type, version, memoryCost, timeCost, parallelism, parallelism, rawHash, (byte[]) null, null, salt, password, null);
     }
 
     @Override
     public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        capabilities.checkLimits(lanes, memoryCost);
         return backend.verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options);
     }
 
@@ -62,4 +131,212 @@ public class Jargon2BackendAdapter implements LowLevelApi {
     public boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options) {
         return backend.verifyEncoded(encodedHash, threads, secret, ad, password, options);
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean verifyEncoded(EncodedHash encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options) {
+        if (encodedHash == null) {
+            throw new Jargon2Exception("Missing encoded hash");
+        }
+        return verifyRaw(
+                encodedHash.getType(),
+                encodedHash.getVersion(),
+                encodedHash.getMemoryCost(),
+                encodedHash.getTimeCost(),
+                encodedHash.getLanes(),
+                threads == -1 ? encodedHash.getLanes() : threads,
+                EncodedHashAccess.hash(encodedHash),
+                secret,
+                ad,
+                EncodedHashAccess.salt(encodedHash),
+                password,
+                options
+        );
+    }
+
+    @Override
+    public boolean[] verifyEncodedBatch(List<VerifyRequest> requests) {
+        return verifyEncodedBatch(-1, null, null, requests, null);
+    }
+
+    @Override
+    public boolean[] verifyEncodedBatch(int threads, byte[] secret, byte[] ad, List<VerifyRequest> requests, Map<String, Object> options) {
+        if (requests == null) {
+            throw new Jargon2Exception("Missing requests");
+        }
+        for (VerifyRequest request : requests) {
+            if (request == null) {
+                throw new Jargon2Exception("Missing request");
+            }
+            if (request.getEncodedHash() == null) {
+                throw new Jargon2Exception("Missing encoded hash");
+            }
+        }
+        if (capabilities.isBatch()) {
+            return ((BatchJargon2Backend) backend).verifyEncodedBatch(threads, secret, ad, requests, options);
+        }
+        boolean[] results = new boolean[requests.size()];
+        int i = 0;
+        for (VerifyRequest request : requests) {
+            try {
+                results[i] = backend.verifyEncoded(request.getEncodedHash(), threads, secret, ad, request.getPassword(), options);
+            } catch (Jargon2CancelledException e) {
+                throw e;
+            } catch (Jargon2Exception e) {
+                // Only decoded once a call has failed, so that hashes the backend accepts are never decoded here
+                if (isDecodable(request.getEncodedHash())) {
+                    throw e;
+                }
+            }
+            i++;
+        }
+        return results;
+    }
+
+    /**
+     * @return true if the encoded hash is in the format of the reference implementation
+     */
+    private static boolean isDecodable(String encodedHash) {
+        try {
+            Argon2Encoding.decode(encodedHash);
+            return true;
+        } catch (Jargon2Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        capabilities.checkLimits(lanes, memoryCost);
+        if (capabilities.isByteBuffers()) {
+            return ((ByteBufferJargon2Backend) backend).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+        byte[] secretBytes = bytes(secret), adBytes = bytes(ad), saltBytes = bytes(salt), passwordBytes = bytes(password);
+        try {
+            return backend.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secretBytes, adBytes, saltBytes, passwordBytes, options);
+        } finally {
+            wipeCopies(secret, secretBytes, ad, adBytes, password, passwordBytes);
+        }
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        capabilities.checkLimits(lanes, memoryCost);
+        if (capabilities.isByteBuffers()) {
+            return ((ByteBufferJargon2Backend) backend).encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+        byte[] secretBytes = bytes(secret), adBytes = bytes(ad), saltBytes = bytes(salt), passwordBytes = bytes(password);
+        try {
+            return backend.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secretBytes, adBytes, saltBytes, passwordBytes, options);
+        } finally {
+            wipeCopies(secret, secretBytes, ad, adBytes, password, passwordBytes);
+        }
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        capabilities.checkLimits(lanes, memoryCost);
+        if (capabilities.isByteBuffers()) {
+            return ((ByteBufferJargon2Backend) backend).verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options);
+        }
+        byte[] secretBytes = bytes(secret), adBytes = bytes(ad), saltBytes = bytes(salt), passwordBytes = bytes(password);
+        try {
+            return backend.verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secretBytes, adBytes, saltBytes, passwordBytes, options);
+        } finally {
+            wipeCopies(secret, secretBytes, ad, adBytes, password, passwordBytes);
+        }
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, ByteBuffer password) {
+        return verifyEncoded(encodedHash, -1, null, null, password, null);
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options) {
+        if (capabilities.isByteBuffers()) {
+            return ((ByteBufferJargon2Backend) backend).verifyEncoded(encodedHash, threads, secret, ad, password, options);
+        }
+        byte[] secretBytes = bytes(secret), adBytes = bytes(ad), passwordBytes = bytes(password);
+        try {
+            return backend.verifyEncoded(encodedHash, threads, secretBytes, adBytes, passwordBytes, options);
+        } finally {
+            wipeCopies(secret, secretBytes, ad, adBytes, password, passwordBytes);
+        }
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, byte[] out, int outOffset) {
+        capabilities.checkLimits(lanes, memoryCost);
+        if (out == null) {
+            throw new Jargon2Exception("Missing output array");
+        }
+        if (outOffset < 0 || outOffset > out.length - hashLength) {
+            throw new Jargon2Exception("Output array of length " + out.length + " cannot hold " + hashLength + " bytes at offset " + outOffset);
+        }
+        if (capabilities.isOutput()) {
+            ((OutputJargon2Backend) backend).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, out, outOffset);
+            return;
+        }
+        byte[] hash = backend.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        try {
+            System.arraycopy(hash, 0, out, outOffset, hashLength);
+        } finally {
+            Arrays.fill(hash, (byte) 0);
+        }
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, ByteBuffer out) {
+        capabilities.checkLimits(lanes, memoryCost);
+        if (out == null) {
+            throw new Jargon2Exception("Missing output buffer");
+        }
+        if (out.isReadOnly()) {
+            throw new Jargon2Exception("Output buffer is read-only");
+        }
+        if (out.remaining() < hashLength) {
+            throw new Jargon2Exception("Output buffer has " + out.remaining() + " bytes remaining, less than " + hashLength);
+        }
+        if (capabilities.isOutput()) {
+            ((OutputJargon2Backend) backend).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, out);
+            return;
+        }
+        byte[] hash = rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        try {
+            out.put(hash, 0, hashLength);
+        } finally {
+            Arrays.fill(hash, (byte) 0);
+        }
+    }
+
+    /**
+     * @return The remaining bytes of the buffer: its backing array if the buffer spans all of it, else a copy
+     */
+    private static byte[] bytes(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        if (isBackingArray(buffer)) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static boolean isBackingArray(ByteBuffer buffer) {
+        return buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.limit() == buffer.array().length;
+    }
+
+    private static void wipeCopies(ByteBuffer secret, byte[] secretBytes, ByteBuffer ad, byte[] adBytes, ByteBuffer password, byte[] passwordBytes) {
+        wipeCopy(secret, secretBytes);
+        wipeCopy(ad, adBytes);
+        wipeCopy(password, passwordBytes);
+    }
+
+    private static void wipeCopy(ByteBuffer buffer, byte[] bytes) {
+        if (bytes != null && !isBackingArray(buffer)) {
+            Arrays.fill(bytes, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.kosprov.jargon2.internal;
+
+import com.kosprov.jargon2.api.VerifyRequest;
+import com.kosprov.jargon2.spi.BatchJargon2Backend;
+import com.kosprov.jargon2.spi.ByteBufferJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.OutputJargon2Backend;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Serializes the calls to a backend that is not thread-safe. The lock is the backend instance, not any wrapper of it,
+ * so that calls are serialized across all the hashers, verifiers and low-level APIs sharing it.
+ *
+ * <p>
+ *     Implements every optional interface a caller may dispatch to, but its methods of an interface must only be
+ *     called if the capabilities of the wrapped backend say that it implements that interface.
+ * </p>
+ */
+final class SynchronizedJargon2Backend implements BatchJargon2Backend, ByteBufferJargon2Backend, OutputJargon2Backend {
+
+    private final Jargon2Backend delegate;
+    private final Object lock;
+
+    SynchronizedJargon2Backend(Jargon2Backend delegate, Object lock) {
+        this.delegate = delegate;
+        this.lock = lock;
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        synchronized (lock) {
+            return delegate.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        synchronized (lock) {
+            return delegate.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        synchronized (lock) {
+            return delegate.verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options);
+        }
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options) {
+        synchronized (lock) {
+            return delegate.verifyEncoded(encodedHash, threads, secret, ad, password, options);
+        }
+    }
+
+    @Override
+    public byte[][] rawHashBatch(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[][] salts, byte[][] passwords, Map<String, Object> options) {
+        synchronized (lock) {
+            return ((BatchJargon2Backend) delegate).rawHashBatch(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salts, passwords, options);
+        }
+    }
+
+    @Override
+    public boolean[] verifyEncodedBatch(int threads, byte[] secret, byte[] ad, List<VerifyRequest> requests, Map<String, Object> options) {
+        synchronized (lock) {
+            return ((BatchJargon2Backend) delegate).verifyEncodedBatch(threads, secret, ad, requests, options);
+        }
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        synchronized (lock) {
+            return ((ByteBufferJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        synchronized (lock) {
+            return ((ByteBufferJargon2Backend) delegate).encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        }
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        synchronized (lock) {
+            return ((ByteBufferJargon2Backend) delegate).verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options);
+        }
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options) {
+        synchronized (lock) {
+            return ((ByteBufferJargon2Backend) delegate).verifyEncoded(encodedHash, threads, secret, ad, password, options);
+        }
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, byte[] out, int outOffset) {
+        synchronized (lock) {
+            ((OutputJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, out, outOffset);
+        }
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, ByteBuffer out) {
+        synchronized (lock) {
+            ((OutputJargon2Backend) delegate).rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, out);
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package com.kosprov.jargon2.internal;
 
+import com.kosprov.jargon2.api.BackendOptions;
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.EncodedHash;
+import com.kosprov.jargon2.api.Jargon2CancelledException;
 import com.kosprov.jargon2.api.Jargon2Exception;
+import com.kosprov.jargon2.api.VerifyRequest;
 import com.kosprov.jargon2.internal.discovery.Jargon2BackendDiscovery;
+import com.kosprov.jargon2.spi.AsyncJargon2Backend;
 import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.kosprov.jargon2.api.Jargon2.*;
 
 public class VerifierImpl implements Verifier {
     Jargon2Backend backend = Jargon2BackendDiscovery.INSTANCE.getJargon2Backend();
-    Map<String, Object> options = Collections.emptyMap();
+    Jargon2BackendCapabilities capabilities = Jargon2BackendDiscovery.INSTANCE.getJargon2BackendCapabilities();
+    boolean explicitBackend;
+    BackendOptions options = BackendOptions.EMPTY;
     Type type = Type.ARGON2i;
     Version version = Version.V13;
     int timeCost = 3;
@@ -22,9 +39,13 @@ public class VerifierImpl implements Verifier {
     boolean autoThreads = true;
     byte[] salt;
     byte[] password;
+    ByteBuffer passwordBuffer;
     byte[] secret;
     byte[] ad;
+    Executor executor;
+    CancellationToken cancellation;
     String encodedHash;
+    EncodedHash parsedHash;
     byte[] rawHash;
 
     public VerifierImpl() {
@@ -32,6 +53,8 @@ public class VerifierImpl implements Verifier {
 
     private VerifierImpl(VerifierImpl copy) {
         this.backend = copy.backend;
+        this.capabilities = copy.capabilities;
+        this.explicitBackend = copy.explicitBackend;
         this.options = copy.options;
         this.type = copy.type;
         this.version = copy.version;
@@ -42,10 +65,14 @@ public class VerifierImpl implements Verifier {
         this.autoThreads = copy.autoThreads;
         this.salt = copy.salt;
         this.password = copy.password;
+        this.passwordBuffer = copy.passwordBuffer;
         this.secret = copy.secret;
         this.ad = copy.ad;
+        this.executor = copy.executor;
+        this.cancellation = copy.cancellation;
 
         this.encodedHash = copy.encodedHash;
+        this.parsedHash = copy.parsedHash;
         this.rawHash = copy.rawHash;
     }
 
@@ -53,31 +80,62 @@ public class VerifierImpl implements Verifier {
     public VerifierImpl backend(Jargon2Backend backend) {
         VerifierImpl copy = new VerifierImpl(this);
         copy.backend = backend;
+        copy.capabilities = Jargon2BackendCapabilities.of(backend);
+        copy.explicitBackend = true;
+        copy.capabilities.checkOptions(options);
         return copy;
     }
 
     @Override
     public VerifierImpl backend(String backendClass) {
+        Class<? extends Jargon2Backend> resolved;
         try {
-            return backend(Class.forName(backendClass).asSubclass(Jargon2Backend.class));
+            resolved = Class.forName(backendClass).asSubclass(Jargon2Backend.class);
         } catch (Exception e) {
             throw new Jargon2Exception("Could not create Jargon2Backend instance from class " + backendClass);
         }
+        return backend(resolved);
     }
 
     @Override
     public VerifierImpl backend(Class<? extends Jargon2Backend> backendClass) {
+        Jargon2Backend instance;
         try {
-            return backend(backendClass.newInstance());
+            instance = backendClass.newInstance();
         } catch (Exception e) {
             throw new Jargon2Exception("Could not create Jargon2Backend instance from class " + backendClass);
         }
+        return backend(instance);
     }
 
     @Override
     public VerifierImpl options(Map<String, Object> options) {
+        return backendOptions(BackendOptions.of(options));
+    }
+
+    @Override
+    public VerifierImpl backendOptions(BackendOptions options) {
+        BackendOptions checked = options != null ? options : BackendOptions.EMPTY;
+        if (explicitBackend) {
+            // The discovered backend may be replaced later on, so only a configured one rejects options early
+            capabilities.checkOptions(checked);
+        }
         VerifierImpl copy = new VerifierImpl(this);
-        copy.options = options != null ? new HashMap<>(options) : Collections.<String, Object>emptyMap();
+        copy.options = checked;
+        return copy;
+    }
+
+    @Override
+    public VerifierImpl executor(Executor executor) {
+        VerifierImpl copy = new VerifierImpl(this);
+        copy.executor = executor;
+        return copy;
+    }
+
+    @Override
+    public VerifierImpl cancellation(CancellationToken cancellation) {
+        VerifierImpl copy = new VerifierImpl(this);
+        copy.cancellation = cancellation;
         return copy;
     }
 
@@ -153,6 +211,7 @@ public class VerifierImpl implements Verifier {
     public VerifierImpl password(byte[] password) {
         VerifierImpl copy = new VerifierImpl(this);
         copy.password = password;
+        copy.passwordBuffer = null;
         return copy;
     }
 
@@ -160,6 +219,15 @@ public class VerifierImpl implements Verifier {
     public VerifierImpl password(ByteArray password) {
         VerifierImpl copy = new VerifierImpl(this);
         copy.password = password.getBytes();
+        copy.passwordBuffer = null;
+        return copy;
+    }
+
+    @Override
+    public VerifierImpl password(ByteBuffer password) {
+        VerifierImpl copy = new VerifierImpl(this);
+        copy.password = null;
+        copy.passwordBuffer = password;
         return copy;
     }
 
@@ -195,6 +263,16 @@ public class VerifierImpl implements Verifier {
     public EncodedVerifierImpl hash(String encodedHash) {
         VerifierImpl copy = new VerifierImpl(this);
         copy.encodedHash = encodedHash;
+        copy.parsedHash = null;
+        copy.rawHash = null;
+        return new EncodedVerifierImpl(copy);
+    }
+
+    @Override
+    public EncodedVerifierImpl hash(EncodedHash encodedHash) {
+        VerifierImpl copy = new VerifierImpl(this);
+        copy.encodedHash = encodedHash != null ? encodedHash.getEncoded() : null;
+        copy.parsedHash = encodedHash;
         copy.rawHash = null;
         return new EncodedVerifierImpl(copy);
     }
@@ -204,9 +282,151 @@ public class VerifierImpl implements Verifier {
         VerifierImpl copy = new VerifierImpl(this);
         copy.rawHash = rawHash;
         copy.encodedHash = null;
+        copy.parsedHash = null;
         return new RawVerifierImpl(copy);
     }
 
+    @Override
+    public boolean[] verifyEncodedBatch(List<VerifyRequest> requests) {
+        return new Jargon2BackendAdapter(backend, capabilities, cancellation).verifyEncodedBatch(autoThreads ? -1 : threads, secret, ad, requests, options.asMap());
+    }
+
+    @Override
+    public boolean verifyAny(List<String> encodedHashes, ByteArray password) {
+        return verifyAny(encodedHashes, password, false);
+    }
+
+    @Override
+    public boolean verifyAny(List<String> encodedHashes, ByteArray password, boolean constantWork) {
+        if (encodedHashes == null || password == null) {
+            throw new Jargon2Exception("Missing encoded hashes or password");
+        }
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+        if (encodedHashes.isEmpty()) {
+            return false;
+        }
+        // Cancelled on the first match, so that the other verifications are skipped or abandoned
+        CancellationToken race = constantWork ? cancellation : cancellation != null ? cancellation.child() : new CancellationToken();
+        // Verifications may outlive an early return, so they get a copy of the password, wiped by the last one
+        VerifyAnyTasks tasks = new VerifyAnyTasks(encodedHashes, password.getBytes().clone(), new Jargon2BackendAdapter(backend, capabilities, race),
+                constantWork ? null : race);
+        Executor executor = AsyncExecutor.orDefault(this.executor);
+        // Every task verifies until no hash is left, so more tasks than the executor runs at once only fill its queue
+        int helpers = Math.min(encodedHashes.size() - 1, AsyncExecutor.parallelism(executor));
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(tasks);
+            } catch (RejectedExecutionException e) {
+                break; // The calling thread verifies what the executor does not
+            }
+        }
+
+        boolean matched = false;
+        Throwable failure = null;
+        try {
+            int pending = encodedHashes.size();
+            while (pending > 0) {
+                // Help with the hashes no one has started, so that the wait is only ever for running verifications
+                Object outcome = tasks.runNext() ? tasks.outcomes.poll() : tasks.outcomes.take();
+                if (outcome == null) {
+                    continue;
+                }
+                pending--;
+                if (Boolean.TRUE.equals(outcome)) {
+                    matched = true;
+                    if (!constantWork) {
+                        // Hashes no one has started fail fast now; claiming them lets the last one wipe the password
+                        tasks.run();
+                        return true;
+                    }
+                } else if (outcome instanceof Throwable && failure == null) {
+                    failure = (Throwable) outcome;
+                }
+            }
+        } catch (InterruptedException e) {
+            if (!constantWork) {
+                race.cancel();
+                tasks.run();
+            }
+            Thread.currentThread().interrupt();
+            throw new Jargon2Exception("Interrupted while verifying", e);
+        }
+        if (matched) {
+            return true;
+        }
+        if (failure != null) {
+            throw failure instanceof Jargon2Exception ? (Jargon2Exception) failure : new Jargon2Exception("Verification failed", failure);
+        }
+        return false;
+    }
+
+    /**
+     * The verifications of one {@link #verifyAny(List, ByteArray, boolean)} call. Hashes are claimed one at a time by
+     * the calling thread and by the tasks submitted to the executor, whichever gets to them first, and every
+     * verification leaves its outcome (a Boolean or a Throwable) in {@link #outcomes}. A match cancels the others
+     * right away, even the one the calling thread may be running.
+     */
+    private final class VerifyAnyTasks implements Runnable {
+        private final List<String> encodedHashes;
+        private final byte[] password;
+        private final Jargon2BackendAdapter adapter;
+        private final CancellationToken cancelOnMatch;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final BlockingQueue<Object> outcomes = new LinkedBlockingQueue<>();
+
+        VerifyAnyTasks(List<String> encodedHashes, byte[] password, Jargon2BackendAdapter adapter, CancellationToken cancelOnMatch) {
+            this.encodedHashes = encodedHashes;
+            this.password = password;
+            this.adapter = adapter;
+            this.cancelOnMatch = cancelOnMatch;
+            this.remaining = new AtomicInteger(encodedHashes.size());
+        }
+
+        @Override
+        public void run() {
+            while (runNext()) {
+                // verify until no hash is left
+            }
+        }
+
+        /**
+         * @return false if all the hashes had already been claimed
+         */
+        boolean runNext() {
+            int index = next.getAndIncrement();
+            if (index >= encodedHashes.size()) {
+                return false;
+            }
+            String encodedHash = encodedHashes.get(index);
+            Object outcome;
+            try {
+                if (autoThreads) {
+                    outcome = adapter.verifyEncoded(encodedHash, secret, ad, password, options.asMap());
+                } else {
+                    outcome = adapter.verifyEncoded(encodedHash, threads, secret, ad, password, options.asMap());
+                }
+            } catch (Throwable t) {
+                outcome = t;
+            }
+            if (cancelOnMatch != null && Boolean.TRUE.equals(outcome)) {
+                cancelOnMatch.cancel();
+            }
+            outcomes.add(outcome);
+            if (remaining.decrementAndGet() == 0) {
+                Arrays.fill(password, (byte) 0);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public PreparedVerifier prepare() {
+        return new PreparedVerifierImpl(this);
+    }
+
     @Override
     public String toString() {
         // Careful not to leak any sensitive data
@@ -222,6 +442,83 @@ public class VerifierImpl implements Verifier {
                 '}';
     }
 
+    /**
+     * Everything of a verifier but hash, salt and password, resolved once. Holds no mutable state, so it is shared
+     * freely.
+     */
+    private static final class PreparedVerifierImpl implements PreparedVerifier {
+        private final Jargon2BackendAdapter adapter;
+        private final Map<String, Object> options;
+        private final Type type;
+        private final Version version;
+        private final int timeCost;
+        private final int memoryCost;
+        private final int lanes;
+        private final int threads;
+        private final boolean autoThreads;
+        private final byte[] secret;
+        private final byte[] ad;
+
+        PreparedVerifierImpl(VerifierImpl verifier) {
+            this.adapter = new Jargon2BackendAdapter(verifier.backend, verifier.capabilities, verifier.cancellation);
+            this.options = verifier.options.asMap();
+            this.type = verifier.type;
+            this.version = verifier.version;
+            this.timeCost = verifier.timeCost;
+            this.memoryCost = verifier.memoryCost;
+            this.lanes = verifier.lanes;
+            this.threads = verifier.threads;
+            this.autoThreads = verifier.autoThreads;
+            this.secret = verifier.secret != null ? verifier.secret.clone() : null;
+            this.ad = verifier.ad != null ? verifier.ad.clone() : null;
+        }
+
+        @Override
+        public boolean verifyEncoded(String encodedHash, byte[] password) {
+            if (autoThreads) {
+                return adapter.verifyEncoded(encodedHash, secret, ad, password, options);
+            }
+            return adapter.verifyEncoded(encodedHash, threads, secret, ad, password, options);
+        }
+
+        @Override
+        public boolean verifyEncoded(String encodedHash, ByteArray password) {
+            return verifyEncoded(encodedHash, HasherImpl.bytes(password));
+        }
+
+        @Override
+        public boolean verifyEncoded(EncodedHash encodedHash, byte[] password) {
+            return adapter.verifyEncoded(encodedHash, autoThreads ? -1 : threads, secret, ad, password, options);
+        }
+
+        @Override
+        public boolean verifyEncoded(EncodedHash encodedHash, ByteArray password) {
+            return verifyEncoded(encodedHash, HasherImpl.bytes(password));
+        }
+
+        @Override
+        public boolean verifyRaw(byte[] rawHash, byte[] salt, byte[] password) {
+            return adapter.verifyRaw(type, version, memoryCost, timeCost, lanes, autoThreads ? lanes : threads, rawHash, secret, ad, salt, password, options);
+        }
+
+        @Override
+        public boolean verifyRaw(byte[] rawHash, byte[] salt, ByteArray password) {
+            return verifyRaw(rawHash, salt, HasherImpl.bytes(password));
+        }
+
+        @Override
+        public String toString() {
+            return "PreparedVerifier{" +
+                    "type=" + type +
+                    ", version=" + version +
+                    ", timeCost=" + timeCost +
+                    ", memoryCost=" + memoryCost +
+                    ", lanes=" + lanes +
+                    ", threads=" + (autoThreads ? "auto" : String.valueOf(threads)) +
+                    '}';
+        }
+    }
+
     private static class EncodedVerifierImpl implements EncodedVerifier {
         private final VerifierImpl delegate;
 
@@ -249,6 +546,21 @@ public class VerifierImpl implements Verifier {
             return new EncodedVerifierImpl(delegate.options(options));
         }
 
+        @Override
+        public EncodedVerifierImpl backendOptions(BackendOptions options) {
+            return new EncodedVerifierImpl(delegate.backendOptions(options));
+        }
+
+        @Override
+        public EncodedVerifierImpl executor(Executor executor) {
+            return new EncodedVerifierImpl(delegate.executor(executor));
+        }
+
+        @Override
+        public EncodedVerifierImpl cancellation(CancellationToken cancellation) {
+            return new EncodedVerifierImpl(delegate.cancellation(cancellation));
+        }
+
         @Override
         public EncodedVerifierImpl type(Type type) {
             return new EncodedVerifierImpl(delegate.type(type));
@@ -304,6 +616,11 @@ public class VerifierImpl implements Verifier {
             return new EncodedVerifierImpl(delegate.password(password));
         }
 
+        @Override
+        public EncodedVerifierImpl password(ByteBuffer password) {
+            return new EncodedVerifierImpl(delegate.password(password));
+        }
+
         @Override
         public EncodedVerifierImpl secret(byte[] secret) {
             return new EncodedVerifierImpl(delegate.secret(secret));
@@ -329,31 +646,135 @@ public class VerifierImpl implements Verifier {
             return delegate.hash(encodedHash);
         }
 
+        @Override
+        public EncodedVerifierImpl hash(EncodedHash encodedHash) {
+            return delegate.hash(encodedHash);
+        }
+
         @Override
         public RawVerifierImpl hash(byte[] rawHash) {
             return delegate.hash(rawHash);
         }
 
+        @Override
+        public boolean[] verifyEncodedBatch(List<VerifyRequest> requests) {
+            return delegate.verifyEncodedBatch(requests);
+        }
+
+        @Override
+        public boolean verifyAny(List<String> encodedHashes, ByteArray password) {
+            return delegate.verifyAny(encodedHashes, password);
+        }
+
+        @Override
+        public boolean verifyAny(List<String> encodedHashes, ByteArray password, boolean constantWork) {
+            return delegate.verifyAny(encodedHashes, password, constantWork);
+        }
+
+        @Override
+        public PreparedVerifier prepare() {
+            return delegate.prepare();
+        }
+
         @Override
         public boolean verifyEncoded() {
+            Jargon2BackendAdapter adapter = new Jargon2BackendAdapter(delegate.backend, delegate.capabilities, delegate.cancellation);
+            int threads = delegate.autoThreads ? -1 : delegate.threads;
+            if (delegate.parsedHash != null) {
+                return verifyParsed(adapter, delegate.parsedHash, threads);
+            }
+            if (delegate.passwordBuffer != null) {
+                return adapter.verifyEncoded(
+                        delegate.encodedHash,
+                        threads,
+                        HasherImpl.wrap(delegate.secret),
+                        HasherImpl.wrap(delegate.ad),
+                        delegate.passwordBuffer,
+                        delegate.options.asMap()
+                );
+            }
             if (delegate.autoThreads) {
-                return new Jargon2BackendAdapter(delegate.backend).verifyEncoded(
+                return adapter.verifyEncoded(
                         delegate.encodedHash,
                         delegate.secret,
                         delegate.ad,
                         delegate.password,
-                        delegate.options
+                        delegate.options.asMap()
                 );
             } else {
-                return new Jargon2BackendAdapter(delegate.backend).verifyEncoded(
+                return adapter.verifyEncoded(
                         delegate.encodedHash,
                         delegate.threads,
                         delegate.secret,
                         delegate.ad,
                         delegate.password,
-                        delegate.options
+                        delegate.options.asMap()
+                );
+            }
+        }
+        private boolean verifyParsed(Jargon2BackendAdapter adapter, EncodedHash parsedHash, int threads) {
+            if (delegate.passwordBuffer != null) {
+                return adapter.verifyRaw(
+                        parsedHash.getType(),
+                        parsedHash.getVersion(),
+                        parsedHash.getMemoryCost(),
+                        parsedHash.getTimeCost(),
+                        parsedHash.getLanes(), threads == -1 ? parsedHash.getLanes() : threads,
+                        EncodedHashAccess.hash(parsedHash),
+                        HasherImpl.wrap(delegate.secret),
+                        HasherImpl.wrap(delegate.ad),
+                        ByteBuffer.wrap(EncodedHashAccess.salt(parsedHash)),
+                        delegate.passwordBuffer,
+                        delegate.options.asMap()
                 );
             }
+            return adapter.verifyEncoded(
+                    parsedHash,
+                    threads,
+                    delegate.secret,
+                    delegate.ad,
+                    delegate.password,
+                    delegate.options.asMap()
+            );
+        }
+
+        @Override
+        public Future<Boolean> verifyEncodedAsync() {
+            return verifyEncodedAsync(null);
+        }
+
+        @Override
+        public Future<Boolean> verifyEncodedAsync(Callback<Boolean> callback) {
+            if (delegate.cancellation != null) {
+                try {
+                    delegate.cancellation.throwIfCancelled();
+                } catch (Jargon2CancelledException e) {
+                    return AsyncResult.failedWith(callback, e);
+                }
+            }
+            if (delegate.capabilities.isAsync() && delegate.capabilities.isThreadSafe() && delegate.cancellation == null && delegate.passwordBuffer == null) {
+                AsyncResult<Boolean> result = new AsyncResult<>(callback);
+                try {
+                    ((AsyncJargon2Backend) delegate.backend).verifyEncodedAsync(
+                            delegate.encodedHash,
+                            delegate.autoThreads ? -1 : delegate.threads,
+                            delegate.secret,
+                            delegate.ad,
+                            delegate.password,
+                            delegate.options.asMap(),
+                            result
+                    );
+                } catch (RuntimeException e) {
+                    result.failed(e);
+                }
+                return result;
+            }
+            return AsyncResult.submit(AsyncExecutor.orDefault(delegate.executor), callback, new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return verifyEncoded();
+                }
+            });
         }
     }
 
@@ -384,6 +805,21 @@ public class VerifierImpl implements Verifier {
             return new RawVerifierImpl(delegate.options(options));
         }
 
+        @Override
+        public RawVerifierImpl backendOptions(BackendOptions options) {
+            return new RawVerifierImpl(delegate.backendOptions(options));
+        }
+
+        @Override
+        public RawVerifierImpl executor(Executor executor) {
+            return new RawVerifierImpl(delegate.executor(executor));
+        }
+
+        @Override
+        public RawVerifierImpl cancellation(CancellationToken cancellation) {
+            return new RawVerifierImpl(delegate.cancellation(cancellation));
+        }
+
         @Override
         public RawVerifierImpl type(Type type) {
             return new RawVerifierImpl(delegate.type(type));
@@ -439,6 +875,11 @@ public class VerifierImpl implements Verifier {
             return new RawVerifierImpl(delegate.password(password));
         }
 
+        @Override
+        public RawVerifierImpl password(ByteBuffer password) {
+            return new RawVerifierImpl(delegate.password(password));
+        }
+
         @Override
         public RawVerifierImpl secret(byte[] secret) {
             return new RawVerifierImpl(delegate.secret(secret));
@@ -464,15 +905,56 @@ public class VerifierImpl implements Verifier {
             return delegate.hash(encodedHash);
         }
 
+        @Override
+        public EncodedVerifierImpl hash(EncodedHash encodedHash) {
+            return delegate.hash(encodedHash);
+        }
+
         @Override
         public RawVerifierImpl hash(byte[] rawHash) {
             return delegate.hash(rawHash);
         }
 
+        @Override
+        public boolean[] verifyEncodedBatch(List<VerifyRequest> requests) {
+            return delegate.verifyEncodedBatch(requests);
+        }
+
+        @Override
+        public boolean verifyAny(List<String> encodedHashes, ByteArray password) {
+            return delegate.verifyAny(encodedHashes, password);
+        }
+
+        @Override
+        public boolean verifyAny(List<String> encodedHashes, ByteArray password, boolean constantWork) {
+            return delegate.verifyAny(encodedHashes, password, constantWork);
+        }
+
+        @Override
+        public PreparedVerifier prepare() {
+            return delegate.prepare();
+        }
+
         @Override
         public boolean verifyRaw() {
             int threads = delegate.autoThreads ? delegate.lanes : delegate.threads;
-            return new Jargon2BackendAdapter(delegate.backend).verifyRaw(
+            Jargon2BackendAdapter adapter = new Jargon2BackendAdapter(delegate.backend, delegate.capabilities, delegate.cancellation);
+            if (delegate.passwordBuffer != null) {
+                return adapter.verifyRaw(
+                        delegate.type,
+                        delegate.version,
+                        delegate.memoryCost,
+                        delegate.timeCost,
+                        delegate.lanes, threads,
+                        delegate.rawHash,
+                        HasherImpl.wrap(delegate.secret),
+                        HasherImpl.wrap(delegate.ad),
+                        HasherImpl.wrap(delegate.salt),
+                        delegate.passwordBuffer,
+                        delegate.options.asMap()
+                );
+            }
+            return adapter.verifyRaw(
                     delegate.type,
                     delegate.version,
                     delegate.memoryCost,
@@ -483,8 +965,53 @@ public class VerifierImpl implements Verifier {
                     delegate.ad,
                     delegate.salt,
                     delegate.password,
-                    delegate.options
+                    delegate.options.asMap()
             );
         }
+
+        @Override
+        public Future<Boolean> verifyRawAsync() {
+            return verifyRawAsync(null);
+        }
+
+        @Override
+        public Future<Boolean> verifyRawAsync(Callback<Boolean> callback) {
+            try {
+                delegate.capabilities.checkLimits(delegate.lanes, delegate.memoryCost);
+                if (delegate.cancellation != null) {
+                    delegate.cancellation.throwIfCancelled();
+                }
+            } catch (Jargon2Exception e) {
+                return AsyncResult.failedWith(callback, e);
+            }
+            if (delegate.capabilities.isAsync() && delegate.capabilities.isThreadSafe() && delegate.cancellation == null && delegate.passwordBuffer == null) {
+                AsyncResult<Boolean> result = new AsyncResult<>(callback);
+                try {
+                    ((AsyncJargon2Backend) delegate.backend).verifyRawAsync(
+                            delegate.type,
+                            delegate.version,
+                            delegate.memoryCost,
+                            delegate.timeCost,
+                            delegate.lanes, delegate.autoThreads ? delegate.lanes : delegate.threads,
+                            delegate.rawHash,
+                            delegate.secret,
+                            delegate.ad,
+                            delegate.salt,
+                            delegate.password,
+                            delegate.options.asMap(),
+                            result
+                    );
+                } catch (RuntimeException e) {
+                    result.failed(e);
+                }
+                return result;
+            }
+            return AsyncResult.submit(AsyncExecutor.orDefault(delegate.executor), callback, new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return verifyRaw();
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,142 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+
+/**
+ * Bounded cache of the data-independent reference block indexes of Argon2i and Argon2id, keyed by the parameters
+ * they depend on: type, memory cost, time cost and lanes. The version is not part of the key, since it does not enter
+ * address generation.
+ *
+ * <p>
+ *     Each entry takes 4 bytes per block for every data-independent pass (<tt>timeCost</tt> passes for Argon2i, half
+ *     a pass for Argon2id). Least recently used entries are evicted to stay within <tt>maxBytes</tt>; parameter sets
+ *     whose table alone exceeds it are never cached. Concurrent misses on the same key may compute the table more than
+ *     once, but only one copy is kept.
+ * </p>
+ *
+ * <p>
+ *     Instances are thread-safe.
+ * </p>
+ */
+public final class AddressCache {
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<Key, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxBytes The maximum total size of the cached tables
+     */
+    public AddressCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Max bytes cannot be negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return The reference block indexes for the parameters of the engine, or null if they are not cacheable
+     */
+    int[] references(Argon2Engine engine) {
+        long length = engine.referencesLength();
+        if (length < 0 || length * 4 > maxBytes) {
+            return null;
+        }
+
+        Key key = new Key(engine.getType(), engine.getMemoryCost(), engine.getTimeCost(), engine.getLanes());
+        synchronized (this) {
+            int[] references = entries.get(key);
+            if (references != null) {
+                hits.incrementAndGet();
+                return references;
+            }
+        }
+
+        misses.incrementAndGet();
+        int[] references = engine.computeReferences();
+
+        synchronized (this) {
+            int[] existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            entries.put(key, references);
+            bytes += references.length * 4L;
+            for (Iterator<Map.Entry<Key, int[]>> eldest = entries.entrySet().iterator(); bytes > maxBytes; ) {
+                bytes -= eldest.next().getValue().length * 4L;
+                eldest.remove();
+            }
+        }
+        return references;
+    }
+
+    /**
+     * @return The number of lookups served from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of lookups that computed a table
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The total size of the cached tables
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    private static final class Key {
+        private final Type type;
+        private final int memoryCost;
+        private final int timeCost;
+        private final int lanes;
+
+        Key(Type type, int memoryCost, int timeCost, int lanes) {
+            this.type = type;
+            this.memoryCost = memoryCost;
+            this.timeCost = timeCost;
+            this.lanes = lanes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return memoryCost == key.memoryCost && timeCost == key.timeCost && lanes == key.lanes && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = type.hashCode();
+            result = 31 * result + memoryCost;
+            result = 31 * result + timeCost;
+            result = 31 * result + lanes;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+import static com.kosprov.jargon2.api.Jargon2.Version;
+
+/**
+ * Encoding and decoding of the Argon2 PHC string format:
+ *
+ * <pre>
+ * $argon2&lt;type&gt;[$v=&lt;version&gt;]$m=&lt;memoryCost&gt;,t=&lt;timeCost&gt;,p=&lt;lanes&gt;$&lt;salt&gt;$&lt;hash&gt;
+ * </pre>
+ *
+ * The version segment is omitted for {@link Version#V10}. Salt and hash are Base64 encoded without padding.
+ */
+public final class Argon2Encoding {
+
+    private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final int[] BASE64_INVERSE = new int[128];
+
+    static {
+        java.util.Arrays.fill(BASE64_INVERSE, -1);
+        for (int i = 0; i < BASE64.length; i++) {
+            BASE64_INVERSE[BASE64[i]] = i;
+        }
+    }
+
+    private Argon2Encoding() {
+    }
+
+    /**
+     * The parts of a decoded hash
+     */
+    public static final class Decoded {
+        public final Type type;
+        public final Version version;
+        public final int memoryCost;
+        public final int timeCost;
+        public final int lanes;
+        public final byte[] salt;
+        public final byte[] hash;
+
+        Decoded(Type type, Version version, int memoryCost, int timeCost, int lanes, byte[] salt, byte[] hash) {
+            this.type = type;
+            this.version = version;
+            this.memoryCost = memoryCost;
+            this.timeCost = timeCost;
+            this.lanes = lanes;
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+
+    public static String encode(Type type, Version version, int memoryCost, int timeCost, int lanes, byte[] salt, byte[] hash) {
+        StringBuilder sb = new StringBuilder(32 + base64Length(salt.length) + base64Length(hash.length));
+        appendPrefix(type, version, memoryCost, timeCost, lanes, sb);
+        encodeBase64(salt, sb);
+        sb.append('$');
+        encodeBase64(hash, sb);
+        return sb.toString();
+    }
+
+    /**
+     * @return Everything of an encoded hash before the salt: <tt>$argon2&lt;type&gt;[$v=&lt;version&gt;]$m=&lt;memoryCost&gt;,t=&lt;timeCost&gt;,p=&lt;lanes&gt;$</tt>
+     */
+    public static String prefix(Type type, Version version, int memoryCost, int timeCost, int lanes) {
+        StringBuilder sb = new StringBuilder(32);
+        appendPrefix(type, version, memoryCost, timeCost, lanes, sb);
+        return sb.toString();
+    }
+
+    private static void appendPrefix(Type type, Version version, int memoryCost, int timeCost, int lanes, StringBuilder sb) {
+        sb.append('$').append(type.getValue());
+        if (version != Version.V10) {
+            sb.append("$v=").append(version.getValue());
+        }
+        sb.append("$m=").append(memoryCost).append(",t=").append(timeCost).append(",p=").append(lanes);
+        sb.append('$');
+    }
+
+    public static Decoded decode(String encodedHash) {
+        if (encodedHash == null) {
+            throw new Jargon2BackendException("Missing encoded hash");
+        }
+        try {
+            String[] parts = encodedHash.split("\\$", -1);
+            if (parts.length != 5 && parts.length != 6 || !parts[0].isEmpty()) {
+                throw invalid();
+            }
+
+            int i = 1;
+            Type type = parseType(parts[i++]);
+
+            Version version = Version.V10;
+            if (parts.length == 6) {
+                version = parseVersion(parts[i++]);
+            }
+
+            String[] params = parts[i++].split(",", -1);
+            if (params.length != 3) {
+                throw invalid();
+            }
+            int memoryCost = parseParam(params[0], "m=");
+            int timeCost = parseParam(params[1], "t=");
+            int lanes = parseParam(params[2], "p=");
+
+            byte[] salt = decodeBase64(parts[i++]);
+            byte[] hash = decodeBase64(parts[i]);
+
+            return new Decoded(type, version, memoryCost, timeCost, lanes, salt, hash);
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    private static Type parseType(String value) {
+        for (Type type : Type.values()) {
+            if (type.getValue().equals(value)) {
+                return type;
+            }
+        }
+        throw invalid();
+    }
+
+    private static Version parseVersion(String value) {
+        int version = parseParam(value, "v=");
+        for (Version v : Version.values()) {
+            if (v.getValue() == version) {
+                return v;
+            }
+        }
+        throw invalid();
+    }
+
+    private static int parseParam(String value, String prefix) {
+        if (!value.startsWith(prefix) || value.length() == prefix.length()) {
+            throw invalid();
+        }
+        for (int i = prefix.length(); i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid();
+            }
+        }
+        return Integer.parseInt(value.substring(prefix.length()));
+    }
+
+    private static Jargon2BackendException invalid() {
+        return new Jargon2BackendException("Invalid encoded hash");
+    }
+
+    /**
+     * @return true if the character is in the Base64 alphabet
+     */
+    static boolean isBase64(char c) {
+        return c < 128 && BASE64_INVERSE[c] >= 0;
+    }
+
+    static int base64Length(int bytes) {
+        return (bytes * 4 + 2) / 3;
+    }
+
+    static void encodeBase64(byte[] data, StringBuilder sb) {
+        int i = 0;
+        for (; i + 3 <= data.length; i += 3) {
+            int v = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF);
+            sb.append(BASE64[v >>> 18]).append(BASE64[(v >>> 12) & 0x3F]).append(BASE64[(v >>> 6) & 0x3F]).append(BASE64[v & 0x3F]);
+        }
+        int remaining = data.length - i;
+        if (remaining == 1) {
+            int v = (data[i] & 0xFF) << 16;
+            sb.append(BASE64[v >>> 18]).append(BASE64[(v >>> 12) & 0x3F]);
+        } else if (remaining == 2) {
+            int v = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8;
+            sb.append(BASE64[v >>> 18]).append(BASE64[(v >>> 12) & 0x3F]).append(BASE64[(v >>> 6) & 0x3F]);
+        }
+    }
+
+    static byte[] decodeBase64(String value) {
+        int length = value.length();
+        if (length % 4 == 1) {
+            throw invalid();
+        }
+        byte[] out = new byte[length * 3 / 4];
+        int bits = 0;
+        int bitCount = 0;
+        int o = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            int d = c < 128 ? BASE64_INVERSE[c] : -1;
+            if (d < 0) {
+                throw invalid();
+            }
+            bits = bits << 6 | d;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[o++] = (byte) (bits >>> bitCount);
+            }
+        }
+        if ((bits & ((1 << bitCount) - 1)) != 0) {
+            throw invalid(); // non-canonical trailing bits
+        }
+        return out;
+    }
+}
@@ -0,0 +1,770 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+import static com.kosprov.jargon2.api.Jargon2.Version;
+
+/**
+ * Pure Java implementation of Argon2 (RFC 9106) for a fixed set of parameters.
+ *
+ * <p>
+ *     The block matrix holds <tt>memoryBlocks</tt> blocks, lane after lane, and is obtained from a
+ *     {@link BlockMemoryAllocator} for every calculation (a long[] on the heap unless stated otherwise). Instances are
+ *     immutable and can be shared; all per-hash state lives on the stack of {@link #hash}.
+ * </p>
+ *
+ * <p>
+ *     With more than one thread, the segments of each slice are filled in parallel on the shared
+ *     {@link LaneWorkers#pool() lane worker pool}.
+ * </p>
+ *
+ * <p>
+ *     Calculations given a {@link CancellationToken} check it before every slice and abandon the matrix (wiped as
+ *     usual) with a {@link com.kosprov.jargon2.api.Jargon2CancelledException} once it is cancelled.
+ * </p>
+ *
+ * <p>
+ *     In data-independent segments (all of Argon2i, the first half pass of Argon2id) the reference block of every
+ *     position depends only on the parameters. If an {@link AddressCache} is given, these reference block indexes are
+ *     computed once per parameter set and looked up instead of generating address blocks on every hash.
+ * </p>
+ */
+public final class Argon2Engine {
+
+    static final int BLOCK_SIZE = 1024;
+    static final int QWORDS_IN_BLOCK = BLOCK_SIZE / 8;
+    static final int ADDRESSES_IN_BLOCK = 128;
+    static final int SYNC_POINTS = 4;
+    static final int PREHASH_DIGEST_LENGTH = 64;
+    static final int PREHASH_SEED_LENGTH = PREHASH_DIGEST_LENGTH + 8;
+
+    static final int MIN_HASH_LENGTH = 4;
+    static final int MIN_SALT_LENGTH = 8;
+    static final int MIN_LANES = 1;
+    static final int MAX_LANES = 0xFFFFFF;
+    static final int MIN_THREADS = 1;
+    static final int MAX_THREADS = 0xFFFFFF;
+    static final int MIN_TIME_COST = 1;
+
+    private final Type type;
+    private final Version version;
+    private final int memoryCost;
+    private final int timeCost;
+    private final int lanes;
+    private final int threads;
+    private final int hashLength;
+
+    private final int memoryBlocks;
+    private final int laneLength;
+    private final int segmentLength;
+
+    private final AddressCache addressCache;
+
+    /**
+     * @param type The Argon2 type
+     * @param version The Argon2 version
+     * @param memoryCost The memory cost in kibi bytes
+     * @param timeCost The number of passes
+     * @param lanes The number of lanes
+     * @param threads The maximum number of threads. Capped to lanes
+     * @param hashLength The length of the output tag
+     * @throws Jargon2BackendException If any parameter is outside the limits of the specification
+     */
+    public Argon2Engine(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength) {
+        this(type, version, memoryCost, timeCost, lanes, threads, hashLength, null);
+    }
+
+    /**
+     * @param type The Argon2 type
+     * @param version The Argon2 version
+     * @param memoryCost The memory cost in kibi bytes
+     * @param timeCost The number of passes
+     * @param lanes The number of lanes
+     * @param threads The maximum number of threads. Capped to lanes
+     * @param hashLength The length of the output tag
+     * @param addressCache The cache of data-independent reference blocks. Can be null
+     * @throws Jargon2BackendException If any parameter is outside the limits of the specification
+     */
+    public Argon2Engine(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, AddressCache addressCache) {
+        if (type == null) {
+            throw new Jargon2BackendException("Missing Argon2 type");
+        }
+        if (version == null) {
+            throw new Jargon2BackendException("Missing Argon2 version");
+        }
+        if (hashLength < MIN_HASH_LENGTH) {
+            throw new Jargon2BackendException("Hash length must be at least " + MIN_HASH_LENGTH + " bytes");
+        }
+        if (timeCost < MIN_TIME_COST) {
+            throw new Jargon2BackendException("Time cost must be at least " + MIN_TIME_COST);
+        }
+        if (lanes < MIN_LANES || lanes > MAX_LANES) {
+            throw new Jargon2BackendException("Lanes must be between " + MIN_LANES + " and " + MAX_LANES);
+        }
+        if (threads < MIN_THREADS || threads > MAX_THREADS) {
+            throw new Jargon2BackendException("Threads must be between " + MIN_THREADS + " and " + MAX_THREADS);
+        }
+        if (memoryCost < 2 * SYNC_POINTS * lanes) {
+            throw new Jargon2BackendException("Memory cost must be at least " + (2 * SYNC_POINTS) + " KiB per lane");
+        }
+
+        this.type = type;
+        this.version = version;
+        this.memoryCost = memoryCost;
+        this.timeCost = timeCost;
+        this.lanes = lanes;
+        this.threads = Math.min(threads, lanes);
+        this.hashLength = hashLength;
+
+        this.segmentLength = memoryCost / (lanes * SYNC_POINTS);
+        this.laneLength = segmentLength * SYNC_POINTS;
+        this.memoryBlocks = laneLength * lanes;
+
+        this.addressCache = addressCache;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Version getVersion() {
+        return version;
+    }
+
+    public int getMemoryCost() {
+        return memoryCost;
+    }
+
+    public int getTimeCost() {
+        return timeCost;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getHashLength() {
+        return hashLength;
+    }
+
+    /**
+     * Calculate the raw Argon2 tag with the block matrix on the heap.
+     *
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @return The tag of {@link #getHashLength()} bytes
+     */
+    public byte[] hash(byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+        return hash(BlockMemoryAllocator.HEAP, secret, ad, salt, password);
+    }
+
+    /**
+     * Calculate the raw Argon2 tag.
+     *
+     * @param allocator The allocator of the block matrix
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @return The tag of {@link #getHashLength()} bytes
+     */
+    public byte[] hash(BlockMemoryAllocator allocator, byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+        return hash(allocator, wrap(secret), wrap(ad), wrap(salt), wrap(password));
+    }
+
+    /**
+     * Calculate the raw Argon2 tag into a caller-supplied array.
+     *
+     * @param allocator The allocator of the block matrix
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @param out The array to write the tag to
+     * @param outOffset The index in the array of the first tag byte. {@link #getHashLength()} bytes are written
+     */
+    public void hash(BlockMemoryAllocator allocator, byte[] secret, byte[] ad, byte[] salt, byte[] password, byte[] out, int outOffset) {
+        hash(allocator, wrap(secret), wrap(ad), wrap(salt), wrap(password), out, outOffset);
+    }
+
+    /**
+     * Calculate the raw Argon2 tag of inputs in buffers. The remaining bytes of each buffer are read in place,
+     * without changing its position.
+     *
+     * @param allocator The allocator of the block matrix
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @return The tag of {@link #getHashLength()} bytes
+     */
+    public byte[] hash(BlockMemoryAllocator allocator, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password) {
+        byte[] tag = new byte[hashLength];
+        hash(allocator, secret, ad, salt, password, tag, 0);
+        return tag;
+    }
+
+    /**
+     * Calculate the raw Argon2 tag of inputs in buffers into a caller-supplied array. Nothing is written to the array
+     * if hashing fails.
+     *
+     * @param allocator The allocator of the block matrix
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @param out The array to write the tag to
+     * @param outOffset The index in the array of the first tag byte. {@link #getHashLength()} bytes are written
+     */
+    public void hash(BlockMemoryAllocator allocator, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, byte[] out, int outOffset) {
+        hash(allocator, secret, ad, salt, password, out, outOffset, null);
+    }
+
+    /**
+     * Calculate the raw Argon2 tag of inputs in buffers into a caller-supplied array, unless the token is cancelled
+     * first. Nothing is written to the array if hashing fails or is cancelled.
+     *
+     * @param allocator The allocator of the block matrix
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @param out The array to write the tag to
+     * @param outOffset The index in the array of the first tag byte. {@link #getHashLength()} bytes are written
+     * @param cancellation The token checked before every slice. Can be null
+     * @throws com.kosprov.jargon2.api.Jargon2CancelledException If the token is cancelled
+     */
+    public void hash(BlockMemoryAllocator allocator, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, byte[] out, int outOffset, CancellationToken cancellation) {
+        validate(salt, password);
+        if (out == null) {
+            throw new Jargon2BackendException("Missing output array");
+        }
+        if (outOffset < 0 || outOffset > out.length - hashLength) {
+            throw new Jargon2BackendException("Output array of length " + out.length + " cannot hold " + hashLength + " bytes at offset " + outOffset);
+        }
+
+        int[] references = addressCache != null ? addressCache.references(this) : null;
+        BlockMemory memory = allocator.allocate(memoryBlocks);
+        try {
+            hash(memory, references, secret, ad, salt, password, out, outOffset, cancellation);
+        } finally {
+            allocator.release(memory);
+        }
+    }
+
+    /**
+     * Calculate the raw Argon2 tags of several salt and password pairs with the same parameters, secret and
+     * associated data.
+     *
+     * <p>
+     *     The pairs are hashed one after the other in a single block matrix, which is allocated once and released
+     *     after the last one. Every hash overwrites all blocks in its first pass, so the matrix is only wiped on
+     *     release. For Argon2i and Argon2id, the data-independent reference blocks are computed once for the whole
+     *     batch if there is no address cache.
+     * </p>
+     *
+     * @param allocator The allocator of the block matrix
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salts The salts
+     * @param passwords The passwords, as many as the salts
+     * @return The tags of {@link #getHashLength()} bytes, in the order of the pairs
+     */
+    public byte[][] hashBatch(BlockMemoryAllocator allocator, byte[] secret, byte[] ad, byte[][] salts, byte[][] passwords) {
+        if (salts == null || passwords == null) {
+            throw new Jargon2BackendException("Missing salts or passwords");
+        }
+        if (salts.length != passwords.length) {
+            throw new Jargon2BackendException("Salts and passwords must be as many");
+        }
+        for (int i = 0; i < salts.length; i++) {
+            validate(wrap(salts[i]), wrap(passwords[i]));
+        }
+        if (salts.length == 0) {
+            return new byte[0][];
+        }
+
+        int[] references = addressCache != null ? addressCache.references(this) : salts.length > 1 ? computeReferences() : null;
+        byte[][] hashes = new byte[salts.length][];
+        BlockMemory memory = allocator.allocate(memoryBlocks);
+        try {
+            for (int i = 0; i < salts.length; i++) {
+                byte[] hash = new byte[hashLength];
+                hash(memory, references, wrap(secret), wrap(ad), wrap(salts[i]), wrap(passwords[i]), hash, 0, null);
+                hashes[i] = hash;
+            }
+            return hashes;
+        } catch (RuntimeException | Error e) {
+            for (byte[] hash : hashes) {
+                if (hash != null) {
+                    Arrays.fill(hash, (byte) 0);
+                }
+            }
+            throw e;
+        } finally {
+            allocator.release(memory);
+        }
+    }
+
+    private static void validate(ByteBuffer salt, ByteBuffer password) {
+        if (password == null) {
+            throw new Jargon2BackendException("Missing password");
+        }
+        if (salt == null) {
+            throw new Jargon2BackendException("Missing salt");
+        }
+        if (salt.remaining() < MIN_SALT_LENGTH) {
+            throw new Jargon2BackendException("Salt length must be at least " + MIN_SALT_LENGTH + " bytes");
+        }
+    }
+
+    private void hash(BlockMemory memory, int[] references, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, byte[] out, int outOffset, CancellationToken cancellation) {
+        // No Blake2b state is live across fillMemory, so a hash run by this thread while it waits there is harmless
+        Blake2b blake2b = Blake2b.get();
+        byte[] h0 = new byte[PREHASH_SEED_LENGTH];
+        try {
+            initialHash(blake2b, h0, secret, ad, salt, password);
+            BlockMemory.Accessor accessor = memory.accessor();
+            fillFirstBlocks(blake2b, accessor, h0);
+            fillMemory(memory, references, cancellation);
+            finalHash(blake2b, accessor, out, outOffset);
+        } finally {
+            Arrays.fill(h0, (byte) 0);
+            blake2b.wipe();
+        }
+    }
+
+    /**
+     * Recalculate the tag and compare it in constant time with the expected one.
+     *
+     * @param rawHash The expected tag
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @return true if the tags match
+     */
+    public boolean verify(byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+        return verify(BlockMemoryAllocator.HEAP, rawHash, secret, ad, salt, password);
+    }
+
+    /**
+     * Recalculate the tag and compare it in constant time with the expected one.
+     *
+     * @param allocator The allocator of the block matrix
+     * @param rawHash The expected tag
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @return true if the tags match
+     */
+    public boolean verify(BlockMemoryAllocator allocator, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+        return verify(allocator, rawHash, wrap(secret), wrap(ad), wrap(salt), wrap(password));
+    }
+
+    /**
+     * Recalculate the tag of inputs in buffers and compare it in constant time with the expected one. The remaining
+     * bytes of each buffer are read in place, without changing its position.
+     *
+     * @param allocator The allocator of the block matrix
+     * @param rawHash The expected tag
+     * @param secret The secret for keyed hashing. Can be null
+     * @param ad The associated data. Can be null
+     * @param salt The salt
+     * @param password The password
+     * @return true if the tags match
+     */
+    public boolean verify(BlockMemoryAllocator allocator, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password) {
+        byte[] calculated = hash(allocator, secret, ad, salt, password);
+        try {
+            return MessageDigest.isEqual(rawHash, calculated);
+        } finally {
+            Arrays.fill(calculated, (byte) 0);
+        }
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        return bytes != null ? ByteBuffer.wrap(bytes) : null;
+    }
+
+    private void initialHash(Blake2b blake2b, byte[] h0, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password) {
+        blake2b.reset(PREHASH_DIGEST_LENGTH)
+                .update(lanes)
+                .update(hashLength)
+                .update(memoryCost)
+                .update(timeCost)
+                .update(version.getValue())
+                .update(typeId(type));
+        blake2b.update(password.remaining()).update(password);
+        blake2b.update(salt.remaining()).update(salt);
+        blake2b.update(secret != null ? secret.remaining() : 0).update(secret);
+        blake2b.update(ad != null ? ad.remaining() : 0).update(ad);
+        blake2b.digest(h0, 0);
+    }
+
+    private void fillFirstBlocks(Blake2b blake2b, BlockMemory.Accessor memory, byte[] h0) {
+        byte[] blockBytes = new byte[BLOCK_SIZE];
+        long[] block = new long[QWORDS_IN_BLOCK];
+        try {
+            for (int lane = 0; lane < lanes; lane++) {
+                writeInt(h0, PREHASH_DIGEST_LENGTH + 4, lane);
+
+                writeInt(h0, PREHASH_DIGEST_LENGTH, 0);
+                blake2b.longHash(blockBytes, 0, BLOCK_SIZE, h0, 0, PREHASH_SEED_LENGTH);
+                readBlock(blockBytes, block, 0);
+                memory.write(lane * laneLength, block, 0);
+
+                writeInt(h0, PREHASH_DIGEST_LENGTH, 1);
+                blake2b.longHash(blockBytes, 0, BLOCK_SIZE, h0, 0, PREHASH_SEED_LENGTH);
+                readBlock(blockBytes, block, 0);
+                memory.write(lane * laneLength + 1, block, 0);
+            }
+        } finally {
+            Arrays.fill(blockBytes, (byte) 0);
+            Arrays.fill(block, 0L);
+        }
+    }
+
+    private void fillMemory(BlockMemory memory, int[] references, CancellationToken cancellation) {
+        if (threads == 1) {
+            SegmentFiller filler = new SegmentFiller(memory, references);
+            try {
+                for (int pass = 0; pass < timeCost; pass++) {
+                    for (int slice = 0; slice < SYNC_POINTS; slice++) {
+                        if (cancellation != null) {
+                            cancellation.throwIfCancelled();
+                        }
+                        for (int lane = 0; lane < lanes; lane++) {
+                            filler.fillSegment(pass, lane, slice);
+                        }
+                    }
+                }
+            } finally {
+                filler.wipe();
+            }
+        } else {
+            LaneWorkers.pool().invoke(new ParallelFill(memory, references, cancellation));
+        }
+    }
+
+    /**
+     * Fills the matrix with {@link #threads} tasks per slice. Task <tt>k</tt> processes lanes <tt>k</tt>,
+     * <tt>k + threads</tt>, ... so that each task keeps its own scratch blocks. The join of all tasks at the end of
+     * a slice is the synchronization point of the specification.
+     */
+    private final class ParallelFill extends RecursiveAction {
+        private final SegmentFiller[] fillers;
+        private final CancellationToken cancellation;
+
+        ParallelFill(BlockMemory memory, int[] references, CancellationToken cancellation) {
+            this.cancellation = cancellation;
+            fillers = new SegmentFiller[threads];
+            for (int i = 0; i < threads; i++) {
+                fillers[i] = new SegmentFiller(memory, references);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            LaneGroup[] groups = new LaneGroup[threads];
+            try {
+                for (int pass = 0; pass < timeCost; pass++) {
+                    for (int slice = 0; slice < SYNC_POINTS; slice++) {
+                        if (cancellation != null) {
+                            cancellation.throwIfCancelled();
+                        }
+                        for (int i = 0; i < threads; i++) {
+                            groups[i] = new LaneGroup(fillers[i], i, pass, slice);
+                        }
+                        invokeAll(groups);
+                    }
+                }
+            } finally {
+                for (SegmentFiller filler : fillers) {
+                    filler.wipe();
+                }
+            }
+        }
+    }
+
+    private final class LaneGroup extends RecursiveAction {
+        private final SegmentFiller filler;
+        private final int firstLane;
+        private final int pass;
+        private final int slice;
+
+        LaneGroup(SegmentFiller filler, int firstLane, int pass, int slice) {
+            this.filler = filler;
+            this.firstLane = firstLane;
+            this.pass = pass;
+            this.slice = slice;
+        }
+
+        @Override
+        protected void compute() {
+            for (int lane = firstLane; lane < lanes; lane += threads) {
+                filler.fillSegment(pass, lane, slice);
+            }
+        }
+    }
+
+    private void finalHash(Blake2b blake2b, BlockMemory.Accessor memory, byte[] out, int outOffset) {
+        long[] blockHash = new long[QWORDS_IN_BLOCK];
+        long[] lastBlock = new long[QWORDS_IN_BLOCK];
+        byte[] blockHashBytes = new byte[BLOCK_SIZE];
+        try {
+            memory.read(laneLength - 1, blockHash, 0);
+            for (int lane = 1; lane < lanes; lane++) {
+                memory.read(lane * laneLength + laneLength - 1, lastBlock, 0);
+                for (int i = 0; i < QWORDS_IN_BLOCK; i++) {
+                    blockHash[i] ^= lastBlock[i];
+                }
+            }
+            writeBlock(blockHash, 0, blockHashBytes);
+
+            blake2b.longHash(out, outOffset, hashLength, blockHashBytes, 0, BLOCK_SIZE);
+        } finally {
+            Arrays.fill(blockHash, 0L);
+            Arrays.fill(lastBlock, 0L);
+            Arrays.fill(blockHashBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * @return The number of data-independent positions, or -1 if there are none or more than fit an int[]
+     */
+    long referencesLength() {
+        long segments;
+        if (type == Type.ARGON2i) {
+            segments = (long) timeCost * SYNC_POINTS * lanes;
+        } else if (type == Type.ARGON2id) {
+            segments = (long) (SYNC_POINTS / 2) * lanes;
+        } else {
+            return -1;
+        }
+        long length = segments * segmentLength;
+        return length <= Integer.MAX_VALUE ? length : -1;
+    }
+
+    /**
+     * Compute the reference block index of every data-independent position, segment after segment in fill order.
+     *
+     * @return The reference block indexes, or null if {@link #referencesLength()} is -1
+     */
+    int[] computeReferences() {
+        long length = referencesLength();
+        if (length < 0) {
+            return null;
+        }
+        int[] references = new int[(int) length];
+        SegmentFiller generator = new SegmentFiller(null, null);
+        for (int pass = 0; pass < timeCost; pass++) {
+            for (int slice = 0; slice < SYNC_POINTS; slice++) {
+                if (!isDataIndependent(pass, slice)) {
+                    return references;
+                }
+                for (int lane = 0; lane < lanes; lane++) {
+                    generator.segmentReferences(pass, lane, slice, references, referencesOffset(pass, lane, slice));
+                }
+            }
+        }
+        return references;
+    }
+
+    private boolean isDataIndependent(int pass, int slice) {
+        return type == Type.ARGON2i || (type == Type.ARGON2id && pass == 0 && slice < SYNC_POINTS / 2);
+    }
+
+    private int referencesOffset(int pass, int lane, int slice) {
+        return ((pass * SYNC_POINTS + slice) * lanes + lane) * segmentLength;
+    }
+
+    private static int startingIndex(int pass, int slice) {
+        return pass == 0 && slice == 0 ? 2 : 0;
+    }
+
+    private int referenceBlock(int pass, int lane, int slice, int index, long pseudoRandom) {
+        int refLane = (pass == 0 && slice == 0) ? lane : (int) ((pseudoRandom >>> 32) % lanes);
+        int refIndex = indexAlpha(pass, slice, index, pseudoRandom & 0xFFFFFFFFL, refLane == lane);
+        return refLane * laneLength + refIndex;
+    }
+
+    /**
+     * Fills segments of the block matrix. Holds the scratch blocks of a single thread.
+     */
+    private final class SegmentFiller {
+        private final BlockMemory.Accessor memory;
+        private final int[] references;
+        private final BlockCompressor compressor = BlockCompressor.create();
+        private final long[] zeroBlock = new long[QWORDS_IN_BLOCK];
+        private final long[] inputBlock = new long[QWORDS_IN_BLOCK];
+        private final long[] addressBlock = new long[QWORDS_IN_BLOCK];
+
+        /**
+         * @param memory The block matrix, or null to only compute references
+         * @param references The precomputed references, or null to generate addresses
+         */
+        SegmentFiller(BlockMemory memory, int[] references) {
+            this.memory = memory != null ? memory.accessor() : null;
+            this.references = references;
+        }
+
+        void fillSegment(int pass, int lane, int slice) {
+            boolean dataIndependent = isDataIndependent(pass, slice);
+            boolean precomputed = dataIndependent && references != null;
+            int referencesOffset = precomputed ? referencesOffset(pass, lane, slice) : 0;
+
+            if (dataIndependent && !precomputed) {
+                startAddresses(pass, lane, slice);
+            }
+
+            int startingIndex = startingIndex(pass, slice);
+            int currentOffset = lane * laneLength + slice * segmentLength + startingIndex;
+            int previousOffset = currentOffset % laneLength == 0 ? currentOffset + laneLength - 1 : currentOffset - 1;
+            boolean withXor = version != Version.V10 && pass != 0;
+
+            for (int i = startingIndex; i < segmentLength; i++, currentOffset++, previousOffset++) {
+                if (currentOffset % laneLength == 1) {
+                    previousOffset = currentOffset - 1;
+                }
+
+                int refOffset;
+                if (precomputed) {
+                    refOffset = references[referencesOffset + i];
+                } else if (dataIndependent) {
+                    refOffset = referenceBlock(pass, lane, slice, i, nextPseudoRandom(i));
+                } else {
+                    refOffset = referenceBlock(pass, lane, slice, i, memory.firstWord(previousOffset));
+                }
+
+                memory.compress(compressor, previousOffset, refOffset, currentOffset, withXor);
+            }
+        }
+
+        void segmentReferences(int pass, int lane, int slice, int[] table, int tableOffset) {
+            startAddresses(pass, lane, slice);
+            for (int i = startingIndex(pass, slice); i < segmentLength; i++) {
+                table[tableOffset + i] = referenceBlock(pass, lane, slice, i, nextPseudoRandom(i));
+            }
+        }
+
+        void wipe() {
+            memory.wipe();
+        }
+
+        private void startAddresses(int pass, int lane, int slice) {
+            Arrays.fill(inputBlock, 0L);
+            inputBlock[0] = pass;
+            inputBlock[1] = lane;
+            inputBlock[2] = slice;
+            inputBlock[3] = memoryBlocks;
+            inputBlock[4] = timeCost;
+            inputBlock[5] = typeId(type);
+            if (pass == 0 && slice == 0) {
+                nextAddresses();
+            }
+        }
+
+        private long nextPseudoRandom(int index) {
+            if (index % ADDRESSES_IN_BLOCK == 0) {
+                nextAddresses();
+            }
+            return addressBlock[index % ADDRESSES_IN_BLOCK];
+        }
+
+        private void nextAddresses() {
+            inputBlock[6]++;
+            compressor.compress(zeroBlock, 0, inputBlock, 0, addressBlock, 0, false);
+            compressor.compress(zeroBlock, 0, addressBlock, 0, addressBlock, 0, false);
+        }
+    }
+
+    private int indexAlpha(int pass, int slice, int index, long pseudoRandom, boolean sameLane) {
+        long referenceAreaSize;
+        if (pass == 0) {
+            if (slice == 0) {
+                referenceAreaSize = index - 1;
+            } else if (sameLane) {
+                referenceAreaSize = slice * segmentLength + index - 1;
+            } else {
+                referenceAreaSize = slice * segmentLength + (index == 0 ? -1 : 0);
+            }
+        } else {
+            if (sameLane) {
+                referenceAreaSize = laneLength - segmentLength + index - 1;
+            } else {
+                referenceAreaSize = laneLength - segmentLength + (index == 0 ? -1 : 0);
+            }
+        }
+
+        long relativePosition = (pseudoRandom * pseudoRandom) >>> 32;
+        relativePosition = referenceAreaSize - 1 - ((referenceAreaSize * relativePosition) >>> 32);
+
+        long startPosition = 0;
+        if (pass != 0) {
+            startPosition = slice == SYNC_POINTS - 1 ? 0 : (slice + 1) * segmentLength;
+        }
+
+        return (int) ((startPosition + relativePosition) % laneLength);
+    }
+
+    static int typeId(Type type) {
+        switch (type) {
+            case ARGON2d:
+                return 0;
+            case ARGON2i:
+                return 1;
+            case ARGON2id:
+            default:
+                return 2;
+        }
+    }
+
+    static long readLong(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFFL)
+                | (bytes[offset + 1] & 0xFFL) << 8
+                | (bytes[offset + 2] & 0xFFL) << 16
+                | (bytes[offset + 3] & 0xFFL) << 24
+                | (bytes[offset + 4] & 0xFFL) << 32
+                | (bytes[offset + 5] & 0xFFL) << 40
+                | (bytes[offset + 6] & 0xFFL) << 48
+                | (bytes[offset + 7] & 0xFFL) << 56;
+    }
+
+    static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    static void readBlock(byte[] bytes, long[] block, int offset) {
+        for (int i = 0; i < QWORDS_IN_BLOCK; i++) {
+            block[offset + i] = readLong(bytes, i << 3);
+        }
+    }
+
+    static void writeBlock(long[] block, int offset, byte[] bytes) {
+        for (int i = 0; i < QWORDS_IN_BLOCK; i++) {
+            long value = block[offset + i];
+            int o = i << 3;
+            for (int j = 0; j < 8; j++) {
+                bytes[o + j] = (byte) (value >>> (j << 3));
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Plain and keyed Blake2b (RFC 7693) as needed by Argon2 for H0, H' and the final tag.
+ *
+ * <p>
+ *     The state is kept in primitive arrays that are allocated once per instance; {@link #reset(int)} starts a new
+ *     digest on the same instance and all inputs and outputs are caller-supplied buffers. {@link #get()} returns an
+ *     instance bound to the calling thread, so that hashing does not allocate after the first use on a thread. The
+ *     state depends on the hashed data; call {@link #wipe()} when done.
+ * </p>
+ *
+ * <p>
+ *     Argon2 feeds its secret to H0 as ordinary input (RFC 9106, section 3.2), so the engine does not use keyed
+ *     mode. It is available through {@link #reset(int, byte[], int, int)} for completeness.
+ * </p>
+ */
+final class Blake2b {
+
+    static final int BLOCK_BYTES = 128;
+    static final int MAX_OUT_BYTES = 64;
+    static final int MAX_KEY_BYTES = 64;
+
+    private static final long[] IV = {
+            0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+            0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+    };
+
+    private static final byte[][] SIGMA = {
+            {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+            {14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3},
+            {11, 8, 12, 0, 5, 2, 15, 13, 10, 14, 3, 6, 7, 1, 9, 4},
+            {7, 9, 3, 1, 13, 12, 11, 14, 2, 6, 5, 10, 4, 0, 15, 8},
+            {9, 0, 5, 7, 2, 4, 10, 15, 14, 1, 11, 12, 6, 8, 3, 13},
+            {2, 12, 6, 10, 0, 11, 8, 3, 4, 13, 7, 5, 15, 14, 1, 9},
+            {12, 5, 1, 15, 14, 13, 4, 10, 0, 7, 6, 3, 9, 2, 8, 11},
+            {13, 11, 7, 14, 12, 1, 3, 9, 5, 0, 15, 4, 8, 6, 2, 10},
+            {6, 15, 14, 9, 11, 3, 0, 8, 12, 2, 13, 7, 1, 4, 10, 5},
+            {10, 2, 8, 4, 7, 6, 1, 5, 15, 11, 9, 14, 3, 12, 13, 0},
+            {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+            {14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3}
+    };
+
+    private static final ThreadLocal<Blake2b> PER_THREAD = new ThreadLocal<Blake2b>() {
+        @Override
+        protected Blake2b initialValue() {
+            return new Blake2b();
+        }
+    };
+
+    private final long[] h = new long[8];
+    private final long[] m = new long[16];
+    private final long[] v = new long[16];
+    private final byte[] buffer = new byte[BLOCK_BYTES];
+    private final byte[] chain = new byte[MAX_OUT_BYTES];
+    private int bufferLength;
+    private long t0;
+    private long t1;
+    private int outLength;
+
+    Blake2b() {
+    }
+
+    /**
+     * @return The instance bound to the calling thread
+     */
+    static Blake2b get() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Start an unkeyed digest of <tt>outLength</tt> bytes.
+     */
+    Blake2b reset(int outLength) {
+        return reset(outLength, null, 0, 0);
+    }
+
+    /**
+     * Start a keyed digest of <tt>outLength</tt> bytes.
+     */
+    Blake2b reset(int outLength, byte[] key, int keyOffset, int keyLength) {
+        if (outLength < 1 || outLength > MAX_OUT_BYTES) {
+            throw new IllegalArgumentException("Invalid Blake2b output length: " + outLength);
+        }
+        if (keyLength < 0 || keyLength > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Invalid Blake2b key length: " + keyLength);
+        }
+        this.outLength = outLength;
+        System.arraycopy(IV, 0, h, 0, 8);
+        h[0] ^= 0x01010000L ^ (keyLength << 8) ^ outLength;
+        t0 = 0;
+        t1 = 0;
+        bufferLength = 0;
+        if (keyLength > 0) {
+            System.arraycopy(key, keyOffset, buffer, 0, keyLength);
+            Arrays.fill(buffer, keyLength, BLOCK_BYTES, (byte) 0);
+            bufferLength = BLOCK_BYTES;
+        }
+        return this;
+    }
+
+    Blake2b update(int value) {
+        if (bufferLength > BLOCK_BYTES - 4) {
+            byte b0 = (byte) value, b1 = (byte) (value >>> 8), b2 = (byte) (value >>> 16), b3 = (byte) (value >>> 24);
+            return update(b0).update(b1).update(b2).update(b3);
+        }
+        Argon2Engine.writeInt(buffer, bufferLength, value);
+        bufferLength += 4;
+        return this;
+    }
+
+    private Blake2b update(byte value) {
+        if (bufferLength == BLOCK_BYTES) {
+            flush();
+        }
+        buffer[bufferLength++] = value;
+        return this;
+    }
+
+    Blake2b update(byte[] data) {
+        return data != null ? update(data, 0, data.length) : this;
+    }
+
+    Blake2b update(byte[] data, int offset, int length) {
+        while (length > 0) {
+            if (bufferLength == BLOCK_BYTES) {
+                flush();
+            }
+            int n = Math.min(length, BLOCK_BYTES - bufferLength);
+            System.arraycopy(data, offset, buffer, bufferLength, n);
+            bufferLength += n;
+            offset += n;
+            length -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Update with the remaining bytes of <tt>data</tt>, without changing its position.
+     */
+    Blake2b update(ByteBuffer data) {
+        if (data == null) {
+            return this;
+        }
+        if (data.hasArray()) {
+            return update(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        }
+        for (int i = data.position(), limit = data.limit(); i < limit; ) {
+            if (bufferLength == BLOCK_BYTES) {
+                flush();
+            }
+            int n = Math.min(limit - i, BLOCK_BYTES - bufferLength);
+            for (int end = i + n; i < end; i++) {
+                buffer[bufferLength++] = data.get(i);
+            }
+        }
+        return this;
+    }
+
+    void digest(byte[] out, int offset) {
+        incrementCounter(bufferLength);
+        Arrays.fill(buffer, bufferLength, BLOCK_BYTES, (byte) 0);
+        compress(buffer, 0, true);
+        for (int i = 0; i < outLength; i++) {
+            out[offset + i] = (byte) (h[i >>> 3] >>> ((i & 7) << 3));
+        }
+    }
+
+    /**
+     * Variable-length hash function H' of the Argon2 specification.
+     */
+    void longHash(byte[] out, int outOffset, int outLength, byte[] in, int inOffset, int inLength) {
+        if (outLength <= MAX_OUT_BYTES) {
+            reset(outLength).update(outLength).update(in, inOffset, inLength).digest(out, outOffset);
+            return;
+        }
+
+        byte[] chain = this.chain;
+        reset(MAX_OUT_BYTES).update(outLength).update(in, inOffset, inLength).digest(chain, 0);
+        System.arraycopy(chain, 0, out, outOffset, MAX_OUT_BYTES / 2);
+        outOffset += MAX_OUT_BYTES / 2;
+        int remaining = outLength - MAX_OUT_BYTES / 2;
+        while (remaining > MAX_OUT_BYTES) {
+            reset(MAX_OUT_BYTES).update(chain, 0, MAX_OUT_BYTES).digest(chain, 0);
+            System.arraycopy(chain, 0, out, outOffset, MAX_OUT_BYTES / 2);
+            outOffset += MAX_OUT_BYTES / 2;
+            remaining -= MAX_OUT_BYTES / 2;
+        }
+        reset(remaining).update(chain, 0, MAX_OUT_BYTES).digest(out, outOffset);
+    }
+
+    /**
+     * Overwrite all state derived from the hashed data.
+     */
+    void wipe() {
+        Arrays.fill(h, 0L);
+        Arrays.fill(m, 0L);
+        Arrays.fill(v, 0L);
+        Arrays.fill(buffer, (byte) 0);
+        Arrays.fill(chain, (byte) 0);
+        bufferLength = 0;
+        t0 = 0;
+        t1 = 0;
+    }
+
+    private void flush() {
+        incrementCounter(BLOCK_BYTES);
+        compress(buffer, 0, false);
+        bufferLength = 0;
+    }
+
+    private void incrementCounter(int bytes) {
+        t0 += bytes;
+        if ((t0 ^ Long.MIN_VALUE) < ((long) bytes ^ Long.MIN_VALUE)) {
+            t1++;
+        }
+    }
+
+    private void compress(byte[] block, int offset, boolean last) {
+        long[] m = this.m;
+        long[] v = this.v;
+        for (int i = 0; i < 16; i++) {
+            m[i] = Argon2Engine.readLong(block, offset + (i << 3));
+        }
+        System.arraycopy(h, 0, v, 0, 8);
+        System.arraycopy(IV, 0, v, 8, 8);
+        v[12] ^= t0;
+        v[13] ^= t1;
+        if (last) {
+            v[14] = ~v[14];
+        }
+        for (int r = 0; r < 12; r++) {
+            byte[] s = SIGMA[r];
+            g(v, 0, 4, 8, 12, m[s[0]], m[s[1]]);
+            g(v, 1, 5, 9, 13, m[s[2]], m[s[3]]);
+            g(v, 2, 6, 10, 14, m[s[4]], m[s[5]]);
+            g(v, 3, 7, 11, 15, m[s[6]], m[s[7]]);
+            g(v, 0, 5, 10, 15, m[s[8]], m[s[9]]);
+            g(v, 1, 6, 11, 12, m[s[10]], m[s[11]]);
+            g(v, 2, 7, 8, 13, m[s[12]], m[s[13]]);
+            g(v, 3, 4, 9, 14, m[s[14]], m[s[15]]);
+        }
+        for (int i = 0; i < 8; i++) {
+            h[i] ^= v[i] ^ v[i + 8];
+        }
+    }
+
+    private static void g(long[] v, int a, int b, int c, int d, long x, long y) {
+        v[a] = v[a] + v[b] + x;
+        v[d] = Long.rotateRight(v[d] ^ v[a], 32);
+        v[c] = v[c] + v[d];
+        v[b] = Long.rotateRight(v[b] ^ v[c], 24);
+        v[a] = v[a] + v[b] + y;
+        v[d] = Long.rotateRight(v[d] ^ v[a], 16);
+        v[c] = v[c] + v[d];
+        v[b] = Long.rotateRight(v[b] ^ v[c], 63);
+    }
+}
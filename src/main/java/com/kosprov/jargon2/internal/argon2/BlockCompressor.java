@@ -0,0 +1,90 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.util.Arrays;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.QWORDS_IN_BLOCK;
+
+/**
+ * The Argon2 compression function G, built on the BlaMka variant of the Blake2b round.
+ *
+ * <p>
+ *     Blocks are addressed as (array, offset) pairs into flat long[] storage so that the same code path serves
+ *     the block matrix and any standalone block. Instances hold scratch state and are not thread-safe.
+ * </p>
+ *
+ * <p>
+ *     {@link #create()} returns {@link ScalarBlockCompressor} instances unless
+ *     <tt>-Dcom.kosprov.jargon2.backend.vectorize=true</tt> is set. In that case, on Java 17+ with the
+ *     <tt>jdk.incubator.vector</tt> module resolved (<tt>--add-modules jdk.incubator.vector</tt>), it returns a
+ *     {@code VectorBlockCompressor} loaded from the <tt>META-INF/versions/17</tt> entries of the multi-release
+ *     jar. The vector implementation is accepted only if it produces the same output as the scalar one on a
+ *     self-test. It is opt-in because the incubator API lacks a widening 32-bit multiply and, on the JDKs
+ *     measured so far, C2 compiles the scalar version into faster code.
+ * </p>
+ */
+abstract class BlockCompressor {
+
+    static final String VECTORIZE_PROPERTY = "com.kosprov.jargon2.backend.vectorize";
+
+    private static final String VECTOR_COMPRESSOR_CLASS = "com.kosprov.jargon2.internal.argon2.VectorBlockCompressor";
+
+    /**
+     * Compute <tt>next = G(prev, ref)</tt> or, if <tt>withXor</tt>, <tt>next ^= G(prev, ref)</tt>.
+     */
+    abstract void compress(long[] prev, int prevOffset, long[] ref, int refOffset, long[] next, int nextOffset, boolean withXor);
+
+    /**
+     * @return A new instance of the same implementation with its own scratch state
+     */
+    abstract BlockCompressor newInstance();
+
+    static BlockCompressor create() {
+        return Prototype.INSTANCE.newInstance();
+    }
+
+    /**
+     * @return true if {@link #create()} returns vectorized compressors
+     */
+    static boolean isVectorized() {
+        return !(Prototype.INSTANCE instanceof ScalarBlockCompressor);
+    }
+
+    private static class Prototype {
+        static final BlockCompressor INSTANCE = select();
+    }
+
+    private static BlockCompressor select() {
+        BlockCompressor scalar = new ScalarBlockCompressor();
+        if (!Boolean.parseBoolean(System.getProperty(VECTORIZE_PROPERTY, "false"))) {
+            return scalar;
+        }
+        try {
+            BlockCompressor vector = Class.forName(VECTOR_COMPRESSOR_CLASS).asSubclass(BlockCompressor.class).newInstance();
+            return sameOutput(scalar, vector) ? vector : scalar;
+        } catch (Throwable e) {
+            // Not on Java 17+, the incubator module is not resolved or the CPU lacks 256-bit vectors
+            return scalar;
+        }
+    }
+
+    private static boolean sameOutput(BlockCompressor expected, BlockCompressor actual) {
+        long[] prev = new long[QWORDS_IN_BLOCK];
+        long[] ref = new long[QWORDS_IN_BLOCK];
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < QWORDS_IN_BLOCK; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            prev[i] = seed;
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            ref[i] = seed;
+        }
+
+        long[] expectedNext = Arrays.copyOf(ref, QWORDS_IN_BLOCK);
+        long[] actualNext = Arrays.copyOf(ref, QWORDS_IN_BLOCK);
+        expected.compress(prev, 0, ref, 0, expectedNext, 0, false);
+        actual.compress(prev, 0, ref, 0, actualNext, 0, false);
+        expected.compress(prev, 0, ref, 0, expectedNext, 0, true);
+        actual.compress(prev, 0, ref, 0, actualNext, 0, true);
+
+        return Arrays.equals(expectedNext, actualNext);
+    }
+}
@@ -0,0 +1,64 @@
+package com.kosprov.jargon2.internal.argon2;
+
+/**
+ * The Argon2 block matrix, addressed by block index.
+ *
+ * <p>
+ *     Instances are obtained from and given back to a {@link BlockMemoryAllocator}. Block contents are read and
+ *     written through {@link Accessor accessors}, one per thread, so that implementations can keep per-thread
+ *     views and scratch blocks without synchronization.
+ * </p>
+ */
+public abstract class BlockMemory {
+
+    private final int blocks;
+
+    BlockMemory(int blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * @return The number of 1 KiB blocks
+     */
+    public int getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return A new accessor to be used by a single thread
+     */
+    abstract Accessor accessor();
+
+    /**
+     * Overwrite every block with zeros.
+     */
+    abstract void wipe();
+
+    /**
+     * Release the storage. The instance must not be used afterwards.
+     */
+    abstract void free();
+
+    abstract static class Accessor {
+
+        /**
+         * @return The first 64-bit word of the block, used for data-dependent addressing
+         */
+        abstract long firstWord(int block);
+
+        abstract void read(int block, long[] dst, int dstOffset);
+
+        abstract void write(int block, long[] src, int srcOffset);
+
+        /**
+         * Compute <tt>next = G(prev, ref)</tt> or, if <tt>withXor</tt>, <tt>next ^= G(prev, ref)</tt> in place.
+         */
+        abstract void compress(BlockCompressor compressor, int prev, int ref, int next, boolean withXor);
+
+        /**
+         * Overwrite any block contents the accessor keeps outside the matrix.
+         */
+        void wipe() {
+        }
+    }
+}
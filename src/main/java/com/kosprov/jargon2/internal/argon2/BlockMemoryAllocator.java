@@ -0,0 +1,68 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.nio.file.Path;
+
+/**
+ * Provides the block matrix of a hash calculation and takes it back when the calculation ends.
+ *
+ * <p>
+ *     {@link #release(BlockMemory)} is called exactly once per {@link #allocate(int)}, in a finally block, and
+ *     always wipes the memory before anything else happens to it.
+ * </p>
+ */
+public abstract class BlockMemoryAllocator {
+
+    /**
+     * A new long[] per calculation.
+     */
+    public static final BlockMemoryAllocator HEAP = new BlockMemoryAllocator() {
+        @Override
+        BlockMemory allocate(int blocks) {
+            return new HeapBlockMemory(blocks);
+        }
+    };
+
+    /**
+     * New direct buffers per calculation, freed on release. The Java heap only holds the buffer objects, regardless
+     * of the memory cost.
+     */
+    public static final BlockMemoryAllocator DIRECT = new BlockMemoryAllocator() {
+        @Override
+        BlockMemory allocate(int blocks) {
+            return new DirectBlockMemory(blocks);
+        }
+    };
+
+    BlockMemoryAllocator() {
+    }
+
+    /**
+     * New temporary files in <tt>directory</tt>, mapped into memory per calculation and deleted on release. The
+     * matrix is backed by the page cache instead of the Java heap or direct memory, so memory costs of several GiB do
+     * not need a matching <tt>-Xmx</tt> or <tt>-XX:MaxDirectMemorySize</tt>. The directory should be on a memory file
+     * system such as <tt>tmpfs</tt>.
+     *
+     * @param directory The directory of the temporary files
+     */
+    public static BlockMemoryAllocator mapped(final Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        return new BlockMemoryAllocator() {
+            @Override
+            BlockMemory allocate(int blocks) {
+                return MappedBlockMemory.create(blocks, directory);
+            }
+        };
+    }
+
+    abstract BlockMemory allocate(int blocks);
+
+    void release(BlockMemory memory) {
+        try {
+            memory.wipe();
+        } finally {
+            memory.free();
+        }
+    }
+}
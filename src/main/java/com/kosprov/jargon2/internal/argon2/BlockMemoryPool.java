@@ -0,0 +1,168 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocator that keeps released block matrices for reuse, so that back-to-back calculations with the same
+ * parameters find memory that is already allocated and paged in.
+ *
+ * <p>
+ *     Idle matrices are kept per size in blocks, which is what (memoryCost, lanes) determines; parameter sets that
+ *     round to the same size share them. At most <tt>maxIdle</tt> matrices are kept per size, most recently released
+ *     first. Matrices idle for longer than <tt>maxIdleTime</tt> are freed by {@link #trim()}, which also runs on every
+ *     release. Released matrices are wiped before they become idle.
+ * </p>
+ *
+ * <p>
+ *     Instances are thread-safe.
+ * </p>
+ */
+public final class BlockMemoryPool extends BlockMemoryAllocator {
+
+    private final BlockMemoryAllocator delegate;
+    private final int maxIdle;
+    private final long maxIdleNanos;
+
+    private final Map<Integer, ArrayDeque<Idle>> idle = new HashMap<>();
+    private int idleCount;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param delegate The allocator of new matrices
+     * @param maxIdle The maximum number of idle matrices per size
+     * @param maxIdleTime The time after which an idle matrix is freed
+     * @param unit The unit of <tt>maxIdleTime</tt>
+     */
+    public BlockMemoryPool(BlockMemoryAllocator delegate, int maxIdle, long maxIdleTime, TimeUnit unit) {
+        if (delegate == null || delegate instanceof BlockMemoryPool) {
+            throw new IllegalArgumentException("Invalid delegate allocator");
+        }
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Max idle cannot be negative");
+        }
+        if (maxIdleTime < 0) {
+            throw new IllegalArgumentException("Max idle time cannot be negative");
+        }
+        this.delegate = delegate;
+        this.maxIdle = maxIdle;
+        this.maxIdleNanos = unit.toNanos(maxIdleTime);
+    }
+
+    @Override
+    BlockMemory allocate(int blocks) {
+        BlockMemory memory = null;
+        synchronized (this) {
+            ArrayDeque<Idle> queue = idle.get(blocks);
+            if (queue != null && !queue.isEmpty()) {
+                memory = queue.pollFirst().memory;
+                idleCount--;
+            }
+        }
+        if (memory != null) {
+            hits.incrementAndGet();
+            return memory;
+        }
+        misses.incrementAndGet();
+        return delegate.allocate(blocks);
+    }
+
+    @Override
+    void release(BlockMemory memory) {
+        boolean pooled = false;
+        try {
+            memory.wipe();
+            synchronized (this) {
+                ArrayDeque<Idle> queue = idle.get(memory.getBlocks());
+                if (queue == null) {
+                    queue = new ArrayDeque<>();
+                    idle.put(memory.getBlocks(), queue);
+                }
+                if (queue.size() < maxIdle) {
+                    queue.addFirst(new Idle(memory, System.nanoTime()));
+                    idleCount++;
+                    pooled = true;
+                }
+            }
+        } finally {
+            if (!pooled) {
+                memory.free();
+            }
+        }
+        trim();
+    }
+
+    /**
+     * Free the matrices that have been idle for longer than the max idle time.
+     */
+    public void trim() {
+        free(collect(System.nanoTime(), false));
+    }
+
+    /**
+     * Free all idle matrices.
+     */
+    public void clear() {
+        free(collect(System.nanoTime(), true));
+    }
+
+    private synchronized List<BlockMemory> collect(long now, boolean all) {
+        List<BlockMemory> expired = new ArrayList<>();
+        for (Iterator<ArrayDeque<Idle>> queues = idle.values().iterator(); queues.hasNext(); ) {
+            ArrayDeque<Idle> queue = queues.next();
+            while (!queue.isEmpty() && (all || now - queue.peekLast().releasedAt > maxIdleNanos)) {
+                expired.add(queue.pollLast().memory);
+                idleCount--;
+            }
+            if (queue.isEmpty()) {
+                queues.remove();
+            }
+        }
+        return expired;
+    }
+
+    private static void free(List<BlockMemory> memories) {
+        for (BlockMemory memory : memories) {
+            memory.free();
+        }
+    }
+
+    /**
+     * @return The number of allocations served by an idle matrix
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of allocations that needed a new matrix
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of idle matrices
+     */
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    private static final class Idle {
+        final BlockMemory memory;
+        final long releasedAt;
+
+        Idle(BlockMemory memory, long releasedAt) {
+            this.memory = memory;
+            this.releasedAt = releasedAt;
+        }
+    }
+}
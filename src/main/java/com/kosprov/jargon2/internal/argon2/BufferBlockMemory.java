@@ -0,0 +1,200 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.BLOCK_SIZE;
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.QWORDS_IN_BLOCK;
+
+/**
+ * Block matrix outside the Java heap, split in {@link ByteBuffer} chunks of up to {@link #CHUNK_BLOCKS} blocks
+ * because a single buffer cannot exceed 2 GiB.
+ *
+ * <p>
+ *     Accessors copy the reference block (and, from the second pass on, the block being overwritten) into heap
+ *     scratch blocks, compress there and copy the result back. The block produced by the previous compression is
+ *     kept in scratch, since it is the <tt>prev</tt> input of the next one.
+ * </p>
+ *
+ * <p>
+ *     Positions are set through {@link Buffer} so that classes compiled by newer JDKs do not link against the
+ *     covariant overrides added in Java 9.
+ * </p>
+ */
+abstract class BufferBlockMemory extends BlockMemory {
+
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_BLOCKS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_BLOCKS - 1;
+
+    private static final long[] ZEROS = new long[QWORDS_IN_BLOCK * 8];
+
+    private final ByteBuffer[] chunks;
+    private final LongBuffer[] words;
+
+    BufferBlockMemory(int blocks, ByteBuffer[] chunks) {
+        super(blocks);
+        this.chunks = chunks;
+        this.words = new LongBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            words[i] = chunks[i].order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+
+    static int chunkCount(int blocks) {
+        return (blocks + CHUNK_MASK) >>> CHUNK_SHIFT;
+    }
+
+    static long chunkSize(int blocks, int chunk) {
+        return (long) Math.min(CHUNK_BLOCKS, blocks - (chunk << CHUNK_SHIFT)) * BLOCK_SIZE;
+    }
+
+    ByteBuffer[] chunks() {
+        return chunks;
+    }
+
+    /**
+     * Release the memory of the non-null chunks and clear them from the array.
+     */
+    static void release(ByteBuffer[] chunks) {
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null) {
+                Cleaner.clean(chunks[i]);
+                chunks[i] = null;
+            }
+        }
+    }
+
+    @Override
+    Accessor accessor() {
+        return new BufferAccessor();
+    }
+
+    @Override
+    void wipe() {
+        for (LongBuffer chunk : words) {
+            LongBuffer view = chunk.duplicate();
+            ((Buffer) view).clear();
+            while (view.hasRemaining()) {
+                view.put(ZEROS, 0, Math.min(ZEROS.length, view.remaining()));
+            }
+        }
+    }
+
+    private final class BufferAccessor extends Accessor {
+        private final LongBuffer[] views = new LongBuffer[words.length];
+        private long[] prevBlock = new long[QWORDS_IN_BLOCK];
+        private long[] nextBlock = new long[QWORDS_IN_BLOCK];
+        private final long[] refBlock = new long[QWORDS_IN_BLOCK];
+        private int cached = -1;
+
+        BufferAccessor() {
+            for (int i = 0; i < words.length; i++) {
+                views[i] = words[i].duplicate();
+            }
+        }
+
+        @Override
+        long firstWord(int block) {
+            if (block == cached) {
+                return prevBlock[0];
+            }
+            return views[block >>> CHUNK_SHIFT].get((block & CHUNK_MASK) * QWORDS_IN_BLOCK);
+        }
+
+        @Override
+        void read(int block, long[] dst, int dstOffset) {
+            LongBuffer view = views[block >>> CHUNK_SHIFT];
+            ((Buffer) view).position((block & CHUNK_MASK) * QWORDS_IN_BLOCK);
+            view.get(dst, dstOffset, QWORDS_IN_BLOCK);
+        }
+
+        @Override
+        void write(int block, long[] src, int srcOffset) {
+            LongBuffer view = views[block >>> CHUNK_SHIFT];
+            ((Buffer) view).position((block & CHUNK_MASK) * QWORDS_IN_BLOCK);
+            view.put(src, srcOffset, QWORDS_IN_BLOCK);
+            if (block == cached) {
+                cached = -1;
+            }
+        }
+
+        @Override
+        void compress(BlockCompressor compressor, int prev, int ref, int next, boolean withXor) {
+            if (prev != cached) {
+                read(prev, prevBlock, 0);
+            }
+            read(ref, refBlock, 0);
+            if (withXor) {
+                read(next, nextBlock, 0);
+            }
+            compressor.compress(prevBlock, 0, refBlock, 0, nextBlock, 0, withXor);
+            write(next, nextBlock, 0);
+
+            long[] swap = prevBlock;
+            prevBlock = nextBlock;
+            nextBlock = swap;
+            cached = next;
+        }
+
+        @Override
+        void wipe() {
+            Arrays.fill(prevBlock, 0L);
+            Arrays.fill(nextBlock, 0L);
+            Arrays.fill(refBlock, 0L);
+            cached = -1;
+        }
+    }
+
+    /**
+     * Frees the native memory of a direct buffer or unmaps a mapped one. Uses <tt>sun.misc.Unsafe.invokeCleaner</tt> on Java 9+ and the
+     * buffer's own <tt>cleaner()</tt> on earlier versions. If neither is accessible, the memory is released when the
+     * buffer is garbage collected.
+     */
+    static final class Cleaner {
+
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+            } catch (Exception e) {
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        private Cleaner() {
+        }
+
+        static void clean(ByteBuffer buffer) {
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                } else {
+                    Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                    cleanerMethod.setAccessible(true);
+                    Object cleaner = cleanerMethod.invoke(buffer);
+                    if (cleaner != null) {
+                        cleaner.getClass().getMethod("clean").invoke(cleaner);
+                    }
+                }
+            } catch (Exception e) {
+                // Left to the garbage collector
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Block matrix in direct {@link ByteBuffer}s. The native memory is released by {@link #free()} instead of waiting
+ * for the buffers to be garbage collected.
+ */
+final class DirectBlockMemory extends BufferBlockMemory {
+
+    DirectBlockMemory(int blocks) {
+        super(blocks, allocate(blocks));
+    }
+
+    private static ByteBuffer[] allocate(int blocks) {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(blocks)];
+        try {
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = ByteBuffer.allocateDirect((int) chunkSize(blocks, i));
+            }
+            return chunks;
+        } catch (RuntimeException | Error e) {
+            release(chunks);
+            throw e;
+        }
+    }
+
+    @Override
+    void free() {
+        release(chunks());
+    }
+}
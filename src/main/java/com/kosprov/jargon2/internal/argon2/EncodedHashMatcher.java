@@ -0,0 +1,108 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+import static com.kosprov.jargon2.api.Jargon2.Version;
+
+/**
+ * Tests whether encoded hashes were produced with a given set of parameters, by comparing their prefix with the
+ * precomputed <tt>$argon2&lt;type&gt;[$v=&lt;version&gt;]$m=&lt;memoryCost&gt;,t=&lt;timeCost&gt;,p=&lt;lanes&gt;$</tt> and
+ * checking the length and alphabet of the Base64 salt and hash. Matching allocates nothing.
+ *
+ * <p>
+ *     Instances are immutable and shared: {@link #of} returns the same instance for the same parameters, across
+ *     threads and hasher instances, from a cache of up to {@value #MAX_CACHED} parameter sets.
+ * </p>
+ */
+public final class EncodedHashMatcher {
+
+    private static final int MAX_CACHED = 256;
+
+    private static final ConcurrentMap<String, EncodedHashMatcher> CACHE = new ConcurrentHashMap<>();
+
+    private final Type type;
+    private final Version version;
+    private final int memoryCost;
+    private final int timeCost;
+    private final int lanes;
+    private final int saltLength;
+    private final int hashLength;
+    private final String prefix;
+    private final int saltChars;
+    private final int hashChars;
+
+    private EncodedHashMatcher(Type type, Version version, int memoryCost, int timeCost, int lanes, int saltLength, int hashLength, String prefix) {
+        this.type = type;
+        this.version = version;
+        this.memoryCost = memoryCost;
+        this.timeCost = timeCost;
+        this.lanes = lanes;
+        this.saltLength = saltLength;
+        this.hashLength = hashLength;
+        this.prefix = prefix;
+        this.saltChars = Argon2Encoding.base64Length(saltLength);
+        this.hashChars = Argon2Encoding.base64Length(hashLength);
+    }
+
+    /**
+     * Get the matcher of a set of parameters.
+     *
+     * @return The matcher, possibly shared
+     */
+    public static EncodedHashMatcher of(Type type, Version version, int memoryCost, int timeCost, int lanes, int saltLength, int hashLength) {
+        String prefix = Argon2Encoding.prefix(type, version, memoryCost, timeCost, lanes);
+        String key = prefix + saltLength + '$' + hashLength;
+        EncodedHashMatcher matcher = CACHE.get(key);
+        if (matcher == null) {
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            EncodedHashMatcher created = new EncodedHashMatcher(type, version, memoryCost, timeCost, lanes, saltLength, hashLength, prefix);
+            matcher = CACHE.putIfAbsent(key, created);
+            if (matcher == null) {
+                matcher = created;
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * @return true if this matcher was created for the given parameters
+     */
+    public boolean isFor(Type type, Version version, int memoryCost, int timeCost, int lanes, int saltLength, int hashLength) {
+        return this.type == type &&
+                this.version == version &&
+                this.memoryCost == memoryCost &&
+                this.timeCost == timeCost &&
+                this.lanes == lanes &&
+                this.saltLength == saltLength &&
+                this.hashLength == hashLength;
+    }
+
+    /**
+     * @param encodedHash An encoded hash. Can be null
+     * @return true if the encoded hash has the parameters, salt length and hash length of this matcher
+     */
+    public boolean matches(String encodedHash) {
+        int saltStart = prefix.length();
+        int hashStart = saltStart + saltChars + 1;
+        if (encodedHash == null || encodedHash.length() != hashStart + hashChars || !encodedHash.startsWith(prefix)) {
+            return false;
+        }
+        if (encodedHash.charAt(hashStart - 1) != '$') {
+            return false;
+        }
+        return isBase64(encodedHash, saltStart, hashStart - 1) && isBase64(encodedHash, hashStart, encodedHash.length());
+    }
+
+    private static boolean isBase64(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Argon2Encoding.isBase64(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
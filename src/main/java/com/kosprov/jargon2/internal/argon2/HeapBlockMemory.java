@@ -0,0 +1,63 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+
+import java.util.Arrays;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.QWORDS_IN_BLOCK;
+
+/**
+ * Block matrix in a single flat long[] of <tt>blocks * 128</tt> words. Blocks are compressed in place, without
+ * copying.
+ */
+final class HeapBlockMemory extends BlockMemory {
+
+    private final long[] words;
+
+    HeapBlockMemory(int blocks) {
+        super(blocks);
+        if (blocks > Integer.MAX_VALUE / QWORDS_IN_BLOCK) {
+            throw new Jargon2BackendException("Memory cost of " + blocks + " KiB exceeds the maximum heap array size");
+        }
+        this.words = new long[blocks * QWORDS_IN_BLOCK];
+    }
+
+    @Override
+    Accessor accessor() {
+        return new Accessor() {
+            @Override
+            long firstWord(int block) {
+                return words[block * QWORDS_IN_BLOCK];
+            }
+
+            @Override
+            void read(int block, long[] dst, int dstOffset) {
+                System.arraycopy(words, block * QWORDS_IN_BLOCK, dst, dstOffset, QWORDS_IN_BLOCK);
+            }
+
+            @Override
+            void write(int block, long[] src, int srcOffset) {
+                System.arraycopy(src, srcOffset, words, block * QWORDS_IN_BLOCK, QWORDS_IN_BLOCK);
+            }
+
+            @Override
+            void compress(BlockCompressor compressor, int prev, int ref, int next, boolean withXor) {
+                compressor.compress(
+                        words, prev * QWORDS_IN_BLOCK,
+                        words, ref * QWORDS_IN_BLOCK,
+                        words, next * QWORDS_IN_BLOCK,
+                        withXor);
+            }
+        };
+    }
+
+    @Override
+    void wipe() {
+        Arrays.fill(words, 0L);
+    }
+
+    @Override
+    void free() {
+        // Reclaimed by the garbage collector
+    }
+}
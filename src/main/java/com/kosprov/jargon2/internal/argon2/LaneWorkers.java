@@ -0,0 +1,41 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The JVM-wide {@link ForkJoinPool} used to fill lanes in parallel.
+ *
+ * <p>
+ *     Created on first use with one worker per available processor. Workers are daemon threads and are shared by
+ *     all hash calculations, so no thread is ever started per hash.
+ * </p>
+ */
+final class LaneWorkers {
+
+    private LaneWorkers() {
+    }
+
+    static ForkJoinPool pool() {
+        return Holder.POOL;
+    }
+
+    private static class Holder {
+        static final ForkJoinPool POOL = new ForkJoinPool(
+                Runtime.getRuntime().availableProcessors(),
+                new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    @Override
+                    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                        thread.setName("jargon2-lane-worker-" + counter.incrementAndGet());
+                        return thread;
+                    }
+                },
+                null,
+                false
+        );
+    }
+}
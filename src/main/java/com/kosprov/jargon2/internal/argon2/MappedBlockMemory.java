@@ -0,0 +1,79 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.BLOCK_SIZE;
+
+/**
+ * Block matrix in a temporary file mapped into memory, one mapping per chunk. The file is created with owner-only
+ * permissions where the file system supports them, is sized to the matrix and is unmapped and deleted by
+ * {@link #free()}.
+ *
+ * <p>
+ *     The matrix is wiped before it is freed, but on a disk-backed file system the pages may already have been
+ *     written out, and overwriting them in place does not guarantee they are gone from the device. Place the file on
+ *     a memory file system such as <tt>tmpfs</tt> (e.g. <tt>/dev/shm</tt>) so that nothing reaches a disk.
+ * </p>
+ */
+final class MappedBlockMemory extends BufferBlockMemory {
+
+    private final Path file;
+    private final FileChannel channel;
+
+    private MappedBlockMemory(int blocks, Path file, FileChannel channel, ByteBuffer[] chunks) {
+        super(blocks, chunks);
+        this.file = file;
+        this.channel = channel;
+    }
+
+    static MappedBlockMemory create(int blocks, Path directory) {
+        Path file = null;
+        FileChannel channel = null;
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(blocks)];
+        try {
+            file = Files.createTempFile(directory, "jargon2-", ".tmp");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            for (int i = 0; i < chunks.length; i++) {
+                long position = ((long) i << CHUNK_SHIFT) * BLOCK_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, chunkSize(blocks, i));
+            }
+            return new MappedBlockMemory(blocks, file, channel, chunks);
+        } catch (IOException e) {
+            close(file, channel, chunks);
+            throw new Jargon2BackendException("Failed to map " + blocks + " KiB of memory in " + directory, e);
+        } catch (RuntimeException | Error e) {
+            close(file, channel, chunks);
+            throw e;
+        }
+    }
+
+    @Override
+    void free() {
+        close(file, channel, chunks());
+    }
+
+    private static void close(Path file, FileChannel channel, ByteBuffer[] chunks) {
+        release(chunks);
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // The file is deleted anyway
+        }
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new Jargon2BackendException("Failed to delete memory file " + file, e);
+        }
+    }
+}
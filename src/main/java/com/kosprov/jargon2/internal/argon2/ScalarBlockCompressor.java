@@ -0,0 +1,89 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.QWORDS_IN_BLOCK;
+
+/**
+ * Portable implementation of the compression function with plain long arithmetic.
+ */
+final class ScalarBlockCompressor extends BlockCompressor {
+
+    private final long[] r = new long[QWORDS_IN_BLOCK];
+    private final long[] z = new long[QWORDS_IN_BLOCK];
+
+    @Override
+    BlockCompressor newInstance() {
+        return new ScalarBlockCompressor();
+    }
+
+    @Override
+    void compress(long[] prev, int prevOffset, long[] ref, int refOffset, long[] next, int nextOffset, boolean withXor) {
+        long[] r = this.r;
+        long[] z = this.z;
+
+        for (int i = 0; i < QWORDS_IN_BLOCK; i++) {
+            r[i] = prev[prevOffset + i] ^ ref[refOffset + i];
+        }
+        if (withXor) {
+            for (int i = 0; i < QWORDS_IN_BLOCK; i++) {
+                z[i] = r[i] ^ next[nextOffset + i];
+            }
+        } else {
+            System.arraycopy(r, 0, z, 0, QWORDS_IN_BLOCK);
+        }
+
+        permute(r);
+
+        for (int i = 0; i < QWORDS_IN_BLOCK; i++) {
+            next[nextOffset + i] = z[i] ^ r[i];
+        }
+    }
+
+    /**
+     * Apply the permutation P on the 8 rows and then the 8 columns of a block.
+     */
+    static void permute(long[] r) {
+        for (int i = 0; i < 8; i++) {
+            int o = i << 4;
+            round(r, o, o + 1, o + 2, o + 3, o + 4, o + 5, o + 6, o + 7,
+                    o + 8, o + 9, o + 10, o + 11, o + 12, o + 13, o + 14, o + 15);
+        }
+        for (int i = 0; i < 8; i++) {
+            int o = i << 1;
+            round(r, o, o + 1, o + 16, o + 17, o + 32, o + 33, o + 48, o + 49,
+                    o + 64, o + 65, o + 80, o + 81, o + 96, o + 97, o + 112, o + 113);
+        }
+    }
+
+    private static void round(long[] v,
+                              int v0, int v1, int v2, int v3, int v4, int v5, int v6, int v7,
+                              int v8, int v9, int v10, int v11, int v12, int v13, int v14, int v15) {
+        g(v, v0, v4, v8, v12);
+        g(v, v1, v5, v9, v13);
+        g(v, v2, v6, v10, v14);
+        g(v, v3, v7, v11, v15);
+        g(v, v0, v5, v10, v15);
+        g(v, v1, v6, v11, v12);
+        g(v, v2, v7, v8, v13);
+        g(v, v3, v4, v9, v14);
+    }
+
+    private static void g(long[] v, int a, int b, int c, int d) {
+        long va = v[a], vb = v[b], vc = v[c], vd = v[d];
+        va = blaMka(va, vb);
+        vd = Long.rotateRight(vd ^ va, 32);
+        vc = blaMka(vc, vd);
+        vb = Long.rotateRight(vb ^ vc, 24);
+        va = blaMka(va, vb);
+        vd = Long.rotateRight(vd ^ va, 16);
+        vc = blaMka(vc, vd);
+        vb = Long.rotateRight(vb ^ vc, 63);
+        v[a] = va;
+        v[b] = vb;
+        v[c] = vc;
+        v[d] = vd;
+    }
+
+    private static long blaMka(long x, long y) {
+        return x + y + 2 * (x & 0xFFFFFFFFL) * (y & 0xFFFFFFFFL);
+    }
+}
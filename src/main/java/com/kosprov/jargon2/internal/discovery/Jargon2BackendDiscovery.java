@@ -1,6 +1,8 @@
 package com.kosprov.jargon2.internal.discovery;
 
+import com.kosprov.jargon2.backend.JavaJargon2Backend;
 import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
 
 import java.util.HashSet;
 import java.util.ServiceLoader;
@@ -20,7 +22,8 @@ import java.util.Set;
  * </p>
  *
  * <p>
- *     The previous 2 steps combined should output only 1 backend.
+ *     The previous 2 steps combined should output only 1 backend. The built-in {@link JavaJargon2Backend} is not
+ *     counted; it is used only if no other backend is found.
  * </p>
  *
  * @see Jargon2Backend
@@ -33,6 +36,8 @@ public enum Jargon2BackendDiscovery {
 
     private volatile Jargon2Backend backend;
 
+    private volatile Jargon2BackendCapabilities capabilities;
+
     /**
      * Get the single instance of the {@link Jargon2Backend}
      *
@@ -43,6 +48,7 @@ public enum Jargon2BackendDiscovery {
             synchronized (this) {
                 if (backend == null) {
                     Set<Jargon2Backend> backendsFound = new HashSet<>();
+                    Jargon2Backend builtInBackend = null;
 
                     String backendClassName = System.getProperty(JARGON2_BACKEND_SYSTEM_PROP_NAME);
                     if (backendClassName != null && !"".equals(backendClassName.trim())) {
@@ -55,10 +61,16 @@ public enum Jargon2BackendDiscovery {
 
                     ServiceLoader<Jargon2Backend> loader = ServiceLoader.load(Jargon2Backend.class);
                     for (Jargon2Backend loadedBackend : loader) {
-                        backendsFound.add(loadedBackend);
+                        if (loadedBackend.getClass() == JavaJargon2Backend.class) {
+                            builtInBackend = loadedBackend;
+                        } else {
+                            backendsFound.add(loadedBackend);
+                        }
                     }
 
-                    if (backendsFound.size() == 1) {
+                    if (backendsFound.isEmpty() && builtInBackend != null) {
+                        backend = builtInBackend; // Fall back to the pure Java backend
+                    } else if (backendsFound.size() == 1) {
                         backend = backendsFound.iterator().next(); // All good
                     } else if (backendsFound.size() > 1) {
                         StringBuilder sb = new StringBuilder();
@@ -77,4 +89,17 @@ public enum Jargon2BackendDiscovery {
         }
         return backend;
     }
+
+    /**
+     * Get the capabilities of the single instance of the {@link Jargon2Backend}
+     *
+     * @return The capabilities of the discovered backend
+     * @see Jargon2BackendCapabilities#of(Jargon2Backend)
+     */
+    public Jargon2BackendCapabilities getJargon2BackendCapabilities() {
+        if (capabilities == null) {
+            capabilities = Jargon2BackendCapabilities.of(getJargon2Backend());
+        }
+        return capabilities;
+    }
 }
@@ -0,0 +1,97 @@
+package com.kosprov.jargon2.spi;
+
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Optional extension of {@link Jargon2Backend} for backends that run calculations on their own threads, for example
+ * a native thread pool, and can complete asynchronous calls without occupying a Java thread while they wait.
+ *
+ * <p>
+ *     The asynchronous methods of {@link Hasher}, {@link EncodedVerifier} and {@link RawVerifier} with byte array
+ *     passwords call these methods if the backend implements this interface. Otherwise, they run the corresponding
+ *     blocking {@link Jargon2Backend} method on the executor of the builder.
+ * </p>
+ *
+ * <p><b>Implementor's guides</b></p>
+ * <p>
+ *     Implementors must validate input the same way as the blocking methods and must call exactly one method of the
+ *     callback exactly once, with the same result as the blocking method, or with the {@link Jargon2BackendException}
+ *     it would throw. Failures must be reported through the callback rather than thrown. The callback may be called on
+ *     any thread, including the calling one, and does not block. Methods should return without waiting for the
+ *     calculation. Inputs must not be changed and are not changed by the caller until the callback is called.
+ * </p>
+ */
+public interface AsyncJargon2Backend extends Jargon2Backend {
+
+    /**
+     * Asynchronous variant of {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param callback The callback to complete with a byte array of length hashLength with the hash value
+     */
+    void rawHashAsync(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, Callback<byte[]> callback);
+
+    /**
+     * Asynchronous variant of {@link #encodedHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param callback The callback to complete with the encoded hash
+     */
+    void encodedHashAsync(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, Callback<String> callback);
+
+    /**
+     * Asynchronous variant of {@link #verifyRaw(Type, Version, int, int, int, int, byte[], byte[], byte[], byte[], byte[], Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param rawHash The raw hash bytes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @param callback The callback to complete with true if the password matches
+     */
+    void verifyRawAsync(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, Callback<Boolean> callback);
+
+    /**
+     * Asynchronous variant of {@link #verifyEncoded(String, int, byte[], byte[], byte[], Map)}.
+     *
+     * @param encodedHash The encoded hash
+     * @param threads The maximum number of threads to process lanes, or -1 to use as many as lanes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @param callback The callback to complete with true if the password matches
+     */
+    void verifyEncodedAsync(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options, Callback<Boolean> callback);
+}
@@ -0,0 +1,70 @@
+package com.kosprov.jargon2.spi;
+
+import com.kosprov.jargon2.api.Jargon2Exception;
+import com.kosprov.jargon2.api.VerifyRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Optional extension of {@link Jargon2Backend} for backends that hash or verify many passwords more efficiently than
+ * one call per password, for example by sharing memory or precomputation across them.
+ *
+ * <p>
+ *     {@link LowLevelApi#rawHashBatch(Type, Version, int, int, int, int, int, byte[], byte[], byte[][], byte[][], Map)}
+ *     calls {@link #rawHashBatch(Type, Version, int, int, int, int, int, byte[], byte[], byte[][], byte[][], Map)} if
+ *     the backend implements this interface and falls back to a sequence of
+ *     {@link Jargon2Backend#rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)} calls
+ *     otherwise. Batch verification through {@link LowLevelApi} and {@link Verifier} calls
+ *     {@link #verifyEncodedBatch(int, byte[], byte[], List, Map)} or falls back to a sequence of
+ *     {@link Jargon2Backend#verifyEncoded(String, int, byte[], byte[], byte[], Map)} calls the same way.
+ * </p>
+ */
+public interface BatchJargon2Backend extends Jargon2Backend {
+
+    /**
+     * <p><b>Implementor's guides</b></p>
+     * <p>
+     *     Implementors must validate input the same way as
+     *     {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)} and return the
+     *     same hash for every pair as that method would.
+     * </p>
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of each hash value
+     * @param secret A secret for keyed hashing, common to all pairs. Can be null
+     * @param ad Additional authentication data to include into every hash. Can be null
+     * @param salts The salt values, one per pair
+     * @param passwords The passwords to be hashed, as many as the salts
+     * @param options Any options for the backend
+     * @return An array with the hash value of every pair, in the same order
+     * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+     */
+    byte[][] rawHashBatch(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[][] salts, byte[][] passwords, Map<String, Object> options);
+
+    /**
+     * <p><b>Implementor's guides</b></p>
+     * <p>
+     *     The requests and their encoded hashes have been checked to be non-null. Implementors must validate every request the same way as
+     *     {@link #verifyEncoded(String, int, byte[], byte[], byte[], Map)} and return the same result for it as that
+     *     method would, except that an encoded hash they cannot decode must give false instead of failing the batch.
+     *     Requests can have different parameters.
+     * </p>
+     *
+     * @param threads The maximum number of threads to process lanes, or -1 to use as many as the lanes of each hash
+     * @param secret A secret for keyed hashing, common to all requests. Can be null
+     * @param ad Additional authentication data included into every hash. Can be null
+     * @param requests The encoded hashes and passwords to verify
+     * @param options Any options for the backend
+     * @return An array with the result of every request, in the same order
+     * @throws Jargon2Exception If required parameters are missing, are invalid or verification fails unexpectedly
+     */
+    boolean[] verifyEncodedBatch(int threads, byte[] secret, byte[] ad, List<VerifyRequest> requests, Map<String, Object> options);
+}
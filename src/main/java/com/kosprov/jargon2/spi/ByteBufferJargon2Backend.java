@@ -0,0 +1,105 @@
+package com.kosprov.jargon2.spi;
+
+import com.kosprov.jargon2.api.Jargon2Exception;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Optional extension of {@link Jargon2Backend} for backends that read their inputs from {@link ByteBuffer}s in
+ * place, for example from direct buffers without copying them to the Java heap.
+ *
+ * <p>
+ *     The {@link ByteBuffer} variants of {@link LowLevelApi} and the fluent API call these methods if the backend
+ *     implements this interface. Otherwise, they copy the remaining bytes of each buffer to a byte[], call the
+ *     corresponding {@link Jargon2Backend} method and wipe the copies.
+ * </p>
+ *
+ * <p><b>Implementor's guides</b></p>
+ * <p>
+ *     Buffers can be direct or heap, read-only or writable. Implementors must read the bytes between the position and
+ *     the limit of each buffer and must not change its position, limit or mark. Validation and results must be the
+ *     same as for the byte[] variants.
+ * </p>
+ */
+public interface ByteBufferJargon2Backend extends Jargon2Backend {
+
+    /**
+     * Same as {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)} with
+     * inputs in buffers.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @return A byte array of length hashLength with the hash value
+     * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+     */
+    byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options);
+
+    /**
+     * Same as {@link #encodedHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)} with
+     * inputs in buffers.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @return The encoded hash
+     * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+     */
+    String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options);
+
+    /**
+     * Same as {@link #verifyRaw(Type, Version, int, int, int, int, byte[], byte[], byte[], byte[], byte[], Map)} with
+     * inputs in buffers.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param rawHash The raw hash bytes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @return true if the password matches
+     * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+     */
+    boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options);
+
+    /**
+     * Same as {@link #verifyEncoded(String, int, byte[], byte[], byte[], Map)} with inputs in buffers.
+     *
+     * @param encodedHash The encoded hash
+     * @param threads The maximum number of threads to process lanes, or -1 to use as many as lanes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @return true if the password matches
+     * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+     */
+    boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options);
+}
@@ -0,0 +1,107 @@
+package com.kosprov.jargon2.spi;
+
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.Jargon2CancelledException;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Optional extension for backends that both read {@link ByteBuffer}s in place and abandon cancelled calls, so that
+ * calls with buffer inputs and a {@link CancellationToken} keep the buffers in place and can still be abandoned while
+ * hashing.
+ *
+ * <p>
+ *     Hashers, verifiers and the low-level API call these methods for buffer inputs if the backend implements this
+ *     interface. A backend that implements {@link ByteBufferJargon2Backend} and {@link CancellableJargon2Backend}
+ *     only gets the token checked before its {@link ByteBuffer} methods are called.
+ * </p>
+ *
+ * <p><b>Implementor's guides</b></p>
+ * <p>
+ *     Buffers are read as for {@link ByteBufferJargon2Backend} and the token is checked as for
+ *     {@link CancellableJargon2Backend}. A null token means that the call cannot be cancelled.
+ * </p>
+ */
+public interface CancellableByteBufferJargon2Backend extends ByteBufferJargon2Backend, CancellableJargon2Backend {
+
+    /**
+     * Cancellable variant of {@link #rawHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return A byte array of length hashLength with the hash value
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation);
+
+    /**
+     * Cancellable variant of {@link #encodedHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return The encoded hash
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation);
+
+    /**
+     * Cancellable variant of {@link #verifyRaw(Type, Version, int, int, int, int, byte[], ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param rawHash The raw hash bytes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return true if the password matches
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation);
+
+    /**
+     * Cancellable variant of {@link #verifyEncoded(String, int, ByteBuffer, ByteBuffer, ByteBuffer, Map)}.
+     *
+     * @param encodedHash The encoded hash
+     * @param threads The maximum number of threads to process lanes, or -1 to use as many as lanes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return true if the password matches
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation);
+}
@@ -0,0 +1,111 @@
+package com.kosprov.jargon2.spi;
+
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.Jargon2CancelledException;
+
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Optional extension of {@link Jargon2Backend} for backends that can abandon a calculation in progress when the
+ * {@link CancellationToken} of the call is cancelled or its deadline passes.
+ *
+ * <p>
+ *     Hashers and verifiers configured with a token check it before every call, so that calls are refused without
+ *     reaching any backend once the token is cancelled. If the backend implements this interface, they call these
+ *     methods to have it checked while hashing as well. Calls with {@link java.nio.ByteBuffer} inputs are checked
+ *     while hashing if the backend implements {@link CancellableByteBufferJargon2Backend}. Batch and output calls
+ *     keep going to {@link BatchJargon2Backend} and {@link OutputJargon2Backend} methods and are only checked before
+ *     they are made.
+ * </p>
+ *
+ * <p><b>Implementor's guides</b></p>
+ * <p>
+ *     Implementors should check {@link CancellationToken#isCancelled()} at points where the work done so far can be
+ *     dropped cheaply, e.g. between passes or slices, and throw a {@link Jargon2CancelledException} (for example with
+ *     {@link CancellationToken#throwIfCancelled()}). Memory must be wiped the same way as on success. A null token
+ *     means that the call cannot be cancelled. Apart from that, the methods behave exactly like the
+ *     {@link Jargon2Backend} methods.
+ * </p>
+ */
+public interface CancellableJargon2Backend extends Jargon2Backend {
+
+    /**
+     * Cancellable variant of {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return A byte array of length hashLength with the hash value
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, CancellationToken cancellation);
+
+    /**
+     * Cancellable variant of {@link #encodedHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return The encoded hash
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, CancellationToken cancellation);
+
+    /**
+     * Cancellable variant of {@link #verifyRaw(Type, Version, int, int, int, int, byte[], byte[], byte[], byte[], byte[], Map)}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param rawHash The raw hash bytes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return true if the password matches
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, CancellationToken cancellation);
+
+    /**
+     * Cancellable variant of {@link #verifyEncoded(String, int, byte[], byte[], byte[], Map)}.
+     *
+     * @param encodedHash The encoded hash
+     * @param threads The maximum number of threads to process lanes, or -1 to use as many as lanes
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param password The password to be verified
+     * @param options Any options for the backend
+     * @param cancellation The token to check while hashing. Can be null
+     * @return true if the password matches
+     * @throws Jargon2CancelledException If the token is cancelled before the hash is complete
+     */
+    boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options, CancellationToken cancellation);
+}
@@ -0,0 +1,35 @@
+package com.kosprov.jargon2.spi;
+
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Optional extension of {@link Jargon2Backend} for backends that can prepare for repeated calls with the same
+ * parameters, for example by validating them and deriving the block layout once.
+ *
+ * <p>
+ *     A {@link PreparedHasher} opens a context when it is prepared and uses it for all its hashes. Hashers that are
+ *     not prepared never open one, since every builder method makes a copy and nothing would own the context.
+ * </p>
+ *
+ * @see Jargon2BackendContext
+ */
+public interface ContextJargon2Backend extends Jargon2Backend {
+
+    /**
+     * Open a context for the given parameters and options.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param options Any options for the backend
+     * @return The context
+     * @throws Jargon2BackendException If any parameter or option is invalid
+     */
+    Jargon2BackendContext openContext(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, Map<String, Object> options);
+}
@@ -0,0 +1,23 @@
+package com.kosprov.jargon2.spi;
+
+/**
+ * Optional extension of {@link Jargon2Backend} for backends that declare their {@link Jargon2BackendCapabilities},
+ * for example that they are not thread-safe or accept lower limits than the Argon2 specification.
+ *
+ * <p>
+ *     Backends that do not implement this interface are assumed to have {@link Jargon2BackendCapabilities#DEFAULT}.
+ * </p>
+ *
+ * <p><b>Implementor's guides</b></p>
+ * <p>
+ *     The capabilities are read whenever a builder or low-level API is configured with the backend, so implementors
+ *     should return a precomputed instance. They must not change over the lifetime of the backend.
+ * </p>
+ */
+public interface DescribedJargon2Backend extends Jargon2Backend {
+
+    /**
+     * @return The capabilities of this backend
+     */
+    Jargon2BackendCapabilities getCapabilities();
+}
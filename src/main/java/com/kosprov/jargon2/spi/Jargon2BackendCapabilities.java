@@ -0,0 +1,271 @@
+package com.kosprov.jargon2.spi;
+
+import com.kosprov.jargon2.api.BackendOption;
+import com.kosprov.jargon2.api.BackendOptions;
+import com.kosprov.jargon2.api.Jargon2Exception;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Immutable (copy-on-write) description of what a {@link Jargon2Backend} supports, used by the API layer to pick the
+ * call path for every call and to reject calls it cannot serve before they reach the backend.
+ *
+ * <p>
+ *     Backends declare the facts that cannot be told from their type by implementing
+ *     {@link DescribedJargon2Backend}, typically starting from {@link #DEFAULT}. Whether a backend reads
+ *     {@link java.nio.ByteBuffer}s in place, writes to caller-supplied output, verifies batches, completes
+ *     asynchronous calls itself, abandons cancelled calls or opens contexts is always derived from the optional SPI
+ *     interfaces it implements.
+ * </p>
+ *
+ * @see #of(Jargon2Backend)
+ */
+public final class Jargon2BackendCapabilities {
+
+    /**
+     * The maximum number of lanes of the Argon2 specification
+     */
+    public static final int MAX_LANES = 0xFFFFFF;
+
+    /**
+     * The capabilities assumed for backends that do not declare any: thread-safe, since discovery shares one instance
+     * across the whole JVM, lanes computed one after the other, no limits beyond the specification and any options.
+     */
+    public static final Jargon2BackendCapabilities DEFAULT = new Jargon2BackendCapabilities();
+
+    private boolean threadSafe = true;
+    private boolean parallelLanes;
+    private int maxLanes = MAX_LANES;
+    private int maxMemoryCost = Integer.MAX_VALUE;
+    private Set<String> options;
+
+    private boolean byteBuffers;
+    private boolean output;
+    private boolean batch;
+    private boolean async;
+    private boolean cancellable;
+    private boolean contexts;
+
+    private Jargon2BackendCapabilities() {
+    }
+
+    private Jargon2BackendCapabilities(Jargon2BackendCapabilities copy) {
+        this.threadSafe = copy.threadSafe;
+        this.parallelLanes = copy.parallelLanes;
+        this.maxLanes = copy.maxLanes;
+        this.maxMemoryCost = copy.maxMemoryCost;
+        this.options = copy.options;
+        this.byteBuffers = copy.byteBuffers;
+        this.output = copy.output;
+        this.batch = copy.batch;
+        this.async = copy.async;
+        this.cancellable = copy.cancellable;
+        this.contexts = copy.contexts;
+    }
+
+    /**
+     * Get the capabilities of a backend: those it declares, or {@link #DEFAULT}, completed with the optional SPI
+     * interfaces it implements.
+     *
+     * @param backend The backend
+     * @return The capabilities of the backend
+     */
+    public static Jargon2BackendCapabilities of(Jargon2Backend backend) {
+        Jargon2BackendCapabilities declared = null;
+        if (backend instanceof DescribedJargon2Backend) {
+            declared = ((DescribedJargon2Backend) backend).getCapabilities();
+        }
+        Jargon2BackendCapabilities copy = new Jargon2BackendCapabilities(declared != null ? declared : DEFAULT);
+        copy.byteBuffers = backend instanceof ByteBufferJargon2Backend;
+        copy.output = backend instanceof OutputJargon2Backend;
+        copy.batch = backend instanceof BatchJargon2Backend;
+        copy.async = backend instanceof AsyncJargon2Backend;
+        copy.cancellable = backend instanceof CancellableJargon2Backend;
+        copy.contexts = backend instanceof ContextJargon2Backend;
+        return copy;
+    }
+
+    /**
+     * Declare whether the backend can be called concurrently. Calls to a backend that cannot are serialized by the
+     * API layer.
+     *
+     * @param threadSafe true if the backend is thread-safe
+     * @return A copy of these capabilities
+     */
+    public Jargon2BackendCapabilities threadSafe(boolean threadSafe) {
+        Jargon2BackendCapabilities copy = new Jargon2BackendCapabilities(this);
+        copy.threadSafe = threadSafe;
+        return copy;
+    }
+
+    /**
+     * Declare whether the backend computes the lanes of a hash on several threads when asked to. Bulk hashing keeps
+     * fewer hashes in flight for such a backend, since every hash already takes <tt>threads</tt> processors.
+     *
+     * @param parallelLanes true if lanes are computed in parallel
+     * @return A copy of these capabilities
+     */
+    public Jargon2BackendCapabilities parallelLanes(boolean parallelLanes) {
+        Jargon2BackendCapabilities copy = new Jargon2BackendCapabilities(this);
+        copy.parallelLanes = parallelLanes;
+        return copy;
+    }
+
+    /**
+     * Declare the maximum number of lanes the backend accepts.
+     *
+     * @param maxLanes The maximum number of lanes, up to {@link #MAX_LANES}
+     * @return A copy of these capabilities
+     */
+    public Jargon2BackendCapabilities maxLanes(int maxLanes) {
+        Jargon2BackendCapabilities copy = new Jargon2BackendCapabilities(this);
+        copy.maxLanes = maxLanes;
+        return copy;
+    }
+
+    /**
+     * Declare the maximum memory cost the backend accepts.
+     *
+     * @param maxMemoryCost The maximum memory cost in kibi bytes
+     * @return A copy of these capabilities
+     */
+    public Jargon2BackendCapabilities maxMemoryCost(int maxMemoryCost) {
+        Jargon2BackendCapabilities copy = new Jargon2BackendCapabilities(this);
+        copy.maxMemoryCost = maxMemoryCost;
+        return copy;
+    }
+
+    /**
+     * Declare the options the backend supports. Options with any other name are rejected when a hasher or verifier
+     * is configured with them. Backends that do not declare their options accept any.
+     *
+     * @param options The keys of the supported options
+     * @return A copy of these capabilities
+     */
+    public Jargon2BackendCapabilities options(BackendOption<?>... options) {
+        Set<String> supported = new LinkedHashSet<>();
+        for (BackendOption<?> option : options) {
+            supported.add(option.getName());
+        }
+        Jargon2BackendCapabilities copy = new Jargon2BackendCapabilities(this);
+        copy.options = Collections.unmodifiableSet(supported);
+        return copy;
+    }
+
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
+
+    public boolean isParallelLanes() {
+        return parallelLanes;
+    }
+
+    public int getMaxLanes() {
+        return maxLanes;
+    }
+
+    public int getMaxMemoryCost() {
+        return maxMemoryCost;
+    }
+
+    /**
+     * @return The names of the supported options or null if the backend accepts any
+     */
+    public Set<String> getOptions() {
+        return options;
+    }
+
+    /**
+     * @return true if the backend implements {@link ByteBufferJargon2Backend}
+     */
+    public boolean isByteBuffers() {
+        return byteBuffers;
+    }
+
+    /**
+     * @return true if the backend implements {@link OutputJargon2Backend}
+     */
+    public boolean isOutput() {
+        return output;
+    }
+
+    /**
+     * @return true if the backend implements {@link BatchJargon2Backend}
+     */
+    public boolean isBatch() {
+        return batch;
+    }
+
+    /**
+     * @return true if the backend implements {@link AsyncJargon2Backend}
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return true if the backend implements {@link CancellableJargon2Backend}
+     */
+    public boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * @return true if the backend implements {@link ContextJargon2Backend}
+     */
+    public boolean isContexts() {
+        return contexts;
+    }
+
+    /**
+     * Check the lanes and memory cost of a call against the limits of the backend.
+     *
+     * @param lanes The number of lanes
+     * @param memoryCost The memory cost in kibi bytes
+     * @throws Jargon2Exception If any of them exceeds its limit
+     */
+    public void checkLimits(int lanes, int memoryCost) {
+        if (lanes > maxLanes) {
+            throw new Jargon2Exception("Backend supports up to " + maxLanes + " lanes");
+        }
+        if (memoryCost > maxMemoryCost) {
+            throw new Jargon2Exception("Backend supports up to " + maxMemoryCost + " KiB of memory cost");
+        }
+    }
+
+    /**
+     * Check that the backend supports all of the given options.
+     *
+     * @param options The options
+     * @throws Jargon2Exception If any option is not supported
+     */
+    public void checkOptions(BackendOptions options) {
+        if (this.options == null) {
+            return;
+        }
+        for (String name : options.asMap().keySet()) {
+            if (!this.options.contains(name)) {
+                throw new Jargon2Exception("Backend does not support option " + name + (this.options.isEmpty() ? "" : " (supported: " + this.options + ")"));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Jargon2BackendCapabilities{" +
+                "threadSafe=" + threadSafe +
+                ", parallelLanes=" + parallelLanes +
+                ", maxLanes=" + maxLanes +
+                ", maxMemoryCost=" + maxMemoryCost +
+                ", options=" + options +
+                ", byteBuffers=" + byteBuffers +
+                ", output=" + output +
+                ", batch=" + batch +
+                ", async=" + async +
+                ", cancellable=" + cancellable +
+                ", contexts=" + contexts +
+                '}';
+    }
+}
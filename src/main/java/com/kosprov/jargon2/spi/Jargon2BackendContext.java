@@ -0,0 +1,56 @@
+package com.kosprov.jargon2.spi;
+
+/**
+ * A backend bound to a fixed set of Argon2 parameters and options, opened by
+ * {@link ContextJargon2Backend#openContext(com.kosprov.jargon2.api.Jargon2.Type, com.kosprov.jargon2.api.Jargon2.Version, int, int, int, int, int, java.util.Map)}.
+ * Parameters are validated and everything that depends only on them is derived once, when the context is opened, so
+ * that every call only takes the data to hash.
+ *
+ * <p><b>Implementor's guides</b></p>
+ * <p>
+ *     Contexts must be thread-safe. Methods behave like the corresponding {@link Jargon2Backend} methods with the
+ *     parameters of the context. {@link #close()} releases whatever the context holds, e.g. pooled memory, and makes
+ *     later calls fail with a {@link Jargon2BackendException}. The fluent API opens a context only for a
+ *     {@link com.kosprov.jargon2.api.Jargon2.PreparedHasher}, which owns it, so contexts may hold per-context native
+ *     state and memory.
+ * </p>
+ */
+public interface Jargon2BackendContext extends AutoCloseable {
+
+    /**
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @return A byte array of length hashLength with the hash value
+     * @see Jargon2Backend#rawHash(com.kosprov.jargon2.api.Jargon2.Type, com.kosprov.jargon2.api.Jargon2.Version, int, int, int, int, int, byte[], byte[], byte[], byte[], java.util.Map)
+     */
+    byte[] rawHash(byte[] secret, byte[] ad, byte[] salt, byte[] password);
+
+    /**
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @return The encoded hash
+     * @see Jargon2Backend#encodedHash(com.kosprov.jargon2.api.Jargon2.Type, com.kosprov.jargon2.api.Jargon2.Version, int, int, int, int, int, byte[], byte[], byte[], byte[], java.util.Map)
+     */
+    String encodedHash(byte[] secret, byte[] ad, byte[] salt, byte[] password);
+
+    /**
+     * @param rawHash The raw hash bytes, hashLength bytes long
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be verified
+     * @return true if the password matches
+     * @see Jargon2Backend#verifyRaw(com.kosprov.jargon2.api.Jargon2.Type, com.kosprov.jargon2.api.Jargon2.Version, int, int, int, int, byte[], byte[], byte[], byte[], byte[], java.util.Map)
+     */
+    boolean verifyRaw(byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password);
+
+    /**
+     * Release whatever the context holds. Closing a closed context has no effect.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,72 @@
+package com.kosprov.jargon2.spi;
+
+import com.kosprov.jargon2.api.Jargon2Exception;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * Optional extension of {@link Jargon2Backend} for backends that write raw hashes directly to caller-supplied
+ * storage, so that a caller reusing its output array or buffer does not allocate one per hash.
+ *
+ * <p>
+ *     The output variants of {@link LowLevelApi#rawHash} and {@link Hasher#rawHash(byte[])} call these methods if the
+ *     backend implements this interface. Otherwise, they call the corresponding method that returns a new array, copy
+ *     the hash to the output and wipe the array.
+ * </p>
+ *
+ * <p><b>Implementor's guides</b></p>
+ * <p>
+ *     The output has already been checked to hold hashLength bytes (and, for a buffer, to be writable) when these
+ *     methods are called. Implementors must write exactly hashLength bytes, must not write anything outside them and
+ *     should write nothing if hashing fails. Input buffers are read as for {@link ByteBufferJargon2Backend}.
+ * </p>
+ */
+public interface OutputJargon2Backend extends Jargon2Backend {
+
+    /**
+     * Same as {@link #rawHash(Type, Version, int, int, int, int, int, byte[], byte[], byte[], byte[], Map)} with the
+     * hash written to an array.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param out The array to write the hash value to
+     * @param outOffset The index in out of the first byte of the hash value
+     * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+     */
+    void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, byte[] out, int outOffset);
+
+    /**
+     * Same as {@link ByteBufferJargon2Backend#rawHash(Type, Version, int, int, int, int, int, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, Map)}
+     * with the hash written to a buffer. The hash value is written at the position of out, which is then advanced by
+     * hashLength, like {@link ByteBuffer#put(byte[])}.
+     *
+     * @param type The Argon2 {@link Type}
+     * @param version The Argon2 {@link Version}
+     * @param memoryCost The memory cost in kibi bytes (e.g. 65536 -&gt; 64MB)
+     * @param timeCost The number of passes through memory
+     * @param lanes The number of memory lanes
+     * @param threads The maximum number of threads to process lanes
+     * @param hashLength The number of output bytes of the hash value
+     * @param secret A secret for keyed hashing. Can be null
+     * @param ad Additional authentication data to include into the hash. Can be null
+     * @param salt The salt value to be used during hashing
+     * @param password The password to be hashed
+     * @param options Any options for the backend
+     * @param out The buffer to write the hash value to
+     * @throws Jargon2Exception If required parameters are missing, are invalid or hash calculation fails unexpectedly
+     */
+    void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, ByteBuffer out);
+}
@@ -0,0 +1,138 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.QWORDS_IN_BLOCK;
+
+/**
+ * Compression function on 256-bit {@link LongVector}s.
+ *
+ * <p>
+ *     Each round of P works on 16 words arranged as four vectors <tt>a, b, c, d</tt> of four words. The column step
+ *     of the round is one lanewise G. For the diagonal step, <tt>b, c, d</tt> are rotated by 1, 2 and 3 lanes, G is
+ *     applied lanewise and the rotation is undone. Rows of the block are contiguous; columns are gathered through
+ *     {@link #COLUMN_MAP}.
+ * </p>
+ *
+ * <p>
+ *     Only present in the Java 17 part of the multi-release jar and loaded reflectively by
+ *     {@link BlockCompressor#create()}.
+ * </p>
+ */
+final class VectorBlockCompressor extends BlockCompressor {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+
+    private static final VectorShuffle<Long> ROTATE_1 = VectorShuffle.fromValues(SPECIES, 1, 2, 3, 0);
+    private static final VectorShuffle<Long> ROTATE_2 = VectorShuffle.fromValues(SPECIES, 2, 3, 0, 1);
+    private static final VectorShuffle<Long> ROTATE_3 = VectorShuffle.fromValues(SPECIES, 3, 0, 1, 2);
+
+    private static final int[] COLUMN_MAP = {0, 1, 16, 17};
+
+    private static final long LOW_32 = 0xFFFFFFFFL;
+
+    private final long[] r = new long[QWORDS_IN_BLOCK];
+    private final long[] z = new long[QWORDS_IN_BLOCK];
+
+    VectorBlockCompressor() {
+        if (LongVector.SPECIES_PREFERRED.length() < SPECIES.length()) {
+            throw new UnsupportedOperationException("256-bit vectors are not supported on this platform");
+        }
+    }
+
+    @Override
+    BlockCompressor newInstance() {
+        return new VectorBlockCompressor();
+    }
+
+    @Override
+    void compress(long[] prev, int prevOffset, long[] ref, int refOffset, long[] next, int nextOffset, boolean withXor) {
+        long[] r = this.r;
+        long[] z = this.z;
+
+        for (int i = 0; i < QWORDS_IN_BLOCK; i += 4) {
+            LongVector x = LongVector.fromArray(SPECIES, prev, prevOffset + i)
+                    .lanewise(VectorOperators.XOR, LongVector.fromArray(SPECIES, ref, refOffset + i));
+            x.intoArray(r, i);
+            if (withXor) {
+                x = x.lanewise(VectorOperators.XOR, LongVector.fromArray(SPECIES, next, nextOffset + i));
+            }
+            x.intoArray(z, i);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            round(r, i << 4, 4, null);
+        }
+        for (int i = 0; i < 8; i++) {
+            round(r, i << 1, 32, COLUMN_MAP);
+        }
+
+        for (int i = 0; i < QWORDS_IN_BLOCK; i += 4) {
+            LongVector.fromArray(SPECIES, z, i)
+                    .lanewise(VectorOperators.XOR, LongVector.fromArray(SPECIES, r, i))
+                    .intoArray(next, nextOffset + i);
+        }
+    }
+
+    /**
+     * One Blake2b round on the 16 words starting at <tt>offset</tt>, with <tt>a, b, c, d</tt> <tt>stride</tt> words
+     * apart, either contiguous (<tt>map == null</tt>) or gathered through <tt>map</tt>.
+     */
+    private static void round(long[] v, int offset, int stride, int[] map) {
+        LongVector a = load(v, offset, map);
+        LongVector b = load(v, offset + stride, map);
+        LongVector c = load(v, offset + 2 * stride, map);
+        LongVector d = load(v, offset + 3 * stride, map);
+
+        a = blaMka(a, b);
+        d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+        c = blaMka(c, d);
+        b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+        a = blaMka(a, b);
+        d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+        c = blaMka(c, d);
+        b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+
+        b = b.rearrange(ROTATE_1);
+        c = c.rearrange(ROTATE_2);
+        d = d.rearrange(ROTATE_3);
+
+        a = blaMka(a, b);
+        d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+        c = blaMka(c, d);
+        b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+        a = blaMka(a, b);
+        d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+        c = blaMka(c, d);
+        b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+
+        b = b.rearrange(ROTATE_3);
+        c = c.rearrange(ROTATE_2);
+        d = d.rearrange(ROTATE_1);
+
+        store(a, v, offset, map);
+        store(b, v, offset + stride, map);
+        store(c, v, offset + 2 * stride, map);
+        store(d, v, offset + 3 * stride, map);
+    }
+
+    private static LongVector load(long[] v, int offset, int[] map) {
+        return map == null ? LongVector.fromArray(SPECIES, v, offset) : LongVector.fromArray(SPECIES, v, offset, map, 0);
+    }
+
+    private static void store(LongVector x, long[] v, int offset, int[] map) {
+        if (map == null) {
+            x.intoArray(v, offset);
+        } else {
+            x.intoArray(v, offset, map, 0);
+        }
+    }
+
+    private static LongVector blaMka(LongVector x, LongVector y) {
+        LongVector product = x.lanewise(VectorOperators.AND, LOW_32).mul(y.lanewise(VectorOperators.AND, LOW_32));
+        return x.add(y).add(product.lanewise(VectorOperators.LSHL, 1));
+    }
+}
@@ -0,0 +1,439 @@
+package com.kosprov.jargon2.backend;
+
+import com.kosprov.jargon2.internal.argon2.Argon2Encoding;
+import com.kosprov.jargon2.spi.ByteBufferJargon2Backend;
+import com.kosprov.jargon2.spi.DescribedJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+import com.kosprov.jargon2.spi.OutputJargon2Backend;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+import static com.kosprov.jargon2.api.Jargon2.Version;
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+/**
+ * {@link Jargon2Backend} that calls the Argon2 reference implementation (<tt>libargon2</tt>) through the Foreign
+ * Function and Memory API.
+ *
+ * <p>
+ *     Every call fills an <tt>argon2_context</tt> in a confined {@link Arena} and passes it to <tt>argon2_ctx</tt>
+ *     or <tt>argon2_verify_ctx</tt> through downcall handles that are linked once. Inputs in byte arrays and heap
+ *     buffers are copied into the arena and, together with the output, wiped before it is closed, so nothing is left
+ *     behind in native memory or in garbage-collected wrappers. Inputs in direct buffers are passed in place, and so
+ *     is a direct output buffer. Raw hashes are compared by the library. Encoded hashes are formatted and parsed by
+ *     the same code as {@link JavaJargon2Backend}, since <tt>libargon2</tt> exports encoding only for calls without
+ *     secret and associated data.
+ * </p>
+ *
+ * <p>
+ *     Only present in the Java 22 part of the multi-release jar and not registered as a service provider. Select it
+ *     with <tt>-Dcom.kosprov.jargon2.spi.backend=com.kosprov.jargon2.backend.NativeJargon2Backend</tt> or one of the
+ *     <tt>backend</tt> builder methods. The library is loaded from the file name or path in
+ *     <tt>-Dcom.kosprov.jargon2.backend.native.library</tt>, or else by its usual names from the system library
+ *     path. Run with <tt>--enable-native-access=ALL-UNNAMED</tt> (or the module name) to avoid the warning on
+ *     restricted methods.
+ * </p>
+ *
+ * <p>
+ *     No options are supported. Hashers and verifiers configured with any option are rejected.
+ * </p>
+ */
+public class NativeJargon2Backend implements ByteBufferJargon2Backend, OutputJargon2Backend, DescribedJargon2Backend {
+
+    private static final String LIBRARY_SYSTEM_PROP_NAME = "com.kosprov.jargon2.backend.native.library";
+
+    /**
+     * libargon2 is reentrant and computes lanes on its own threads when given more than one. It takes no options.
+     */
+    private static final Jargon2BackendCapabilities CAPABILITIES = Jargon2BackendCapabilities.DEFAULT.parallelLanes(true).options();
+
+    private static final int ARGON2_OK = 0;
+    private static final int ARGON2_VERIFY_MISMATCH = -35;
+
+    private static final StructLayout CONTEXT = MemoryLayout.structLayout(
+            ADDRESS.withName("out"), JAVA_INT.withName("outlen"), MemoryLayout.paddingLayout(4),
+            ADDRESS.withName("pwd"), JAVA_INT.withName("pwdlen"), MemoryLayout.paddingLayout(4),
+            ADDRESS.withName("salt"), JAVA_INT.withName("saltlen"), MemoryLayout.paddingLayout(4),
+            ADDRESS.withName("secret"), JAVA_INT.withName("secretlen"), MemoryLayout.paddingLayout(4),
+            ADDRESS.withName("ad"), JAVA_INT.withName("adlen"),
+            JAVA_INT.withName("t_cost"),
+            JAVA_INT.withName("m_cost"),
+            JAVA_INT.withName("lanes"),
+            JAVA_INT.withName("threads"),
+            JAVA_INT.withName("version"),
+            ADDRESS.withName("allocate_cbk"),
+            ADDRESS.withName("free_cbk"),
+            JAVA_INT.withName("flags"), MemoryLayout.paddingLayout(4)
+    );
+
+    private static final long OUT = offset("out");
+    private static final long OUTLEN = offset("outlen");
+    private static final long PWD = offset("pwd");
+    private static final long PWDLEN = offset("pwdlen");
+    private static final long SALT = offset("salt");
+    private static final long SALTLEN = offset("saltlen");
+    private static final long SECRET = offset("secret");
+    private static final long SECRETLEN = offset("secretlen");
+    private static final long AD = offset("ad");
+    private static final long ADLEN = offset("adlen");
+    private static final long T_COST = offset("t_cost");
+    private static final long M_COST = offset("m_cost");
+    private static final long LANES = offset("lanes");
+    private static final long THREADS = offset("threads");
+    private static final long VERSION = offset("version");
+
+    public NativeJargon2Backend() {
+        if (Library.ERROR != null) {
+            throw new Jargon2BackendException("Failed to load libargon2", Library.ERROR);
+        }
+    }
+
+    @Override
+    public Jargon2BackendCapabilities getCapabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        try (Arena arena = Arena.ofConfined()) {
+            List<MemorySegment> copies = new ArrayList<>(4);
+            try {
+                return hash(arena, type, version, memoryCost, timeCost, lanes, threads, hashLength, segment(arena, copies, secret), segment(arena, copies, ad), segment(arena, copies, salt), segment(arena, copies, password));
+            } finally {
+                wipe(copies);
+            }
+        }
+    }
+
+    @Override
+    public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        try (Arena arena = Arena.ofConfined()) {
+            List<MemorySegment> copies = new ArrayList<>(4);
+            try {
+                return hash(arena, type, version, memoryCost, timeCost, lanes, threads, hashLength, segment(arena, copies, secret), segment(arena, copies, ad), segment(arena, copies, salt), segment(arena, copies, password));
+            } finally {
+                wipe(copies);
+            }
+        }
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        byte[] hash = rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        try {
+            return Argon2Encoding.encode(type, version, memoryCost, timeCost, lanes, salt, hash);
+        } finally {
+            Arrays.fill(hash, (byte) 0);
+        }
+    }
+
+    @Override
+    public String encodedHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        byte[] hash = rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        try {
+            byte[] saltBytes = new byte[salt.remaining()];
+            salt.duplicate().get(saltBytes);
+            return Argon2Encoding.encode(type, version, memoryCost, timeCost, lanes, saltBytes, hash);
+        } finally {
+            Arrays.fill(hash, (byte) 0);
+        }
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        if (rawHash == null) {
+            throw new Jargon2BackendException("Missing raw hash");
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            List<MemorySegment> copies = new ArrayList<>(4);
+            try {
+                return verify(arena, type, version, memoryCost, timeCost, lanes, threads, rawHash, segment(arena, copies, secret), segment(arena, copies, ad), segment(arena, copies, salt), segment(arena, copies, password));
+            } finally {
+                wipe(copies);
+            }
+        }
+    }
+
+    @Override
+    public boolean verifyRaw(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options) {
+        if (rawHash == null) {
+            throw new Jargon2BackendException("Missing raw hash");
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            List<MemorySegment> copies = new ArrayList<>(4);
+            try {
+                return verify(arena, type, version, memoryCost, timeCost, lanes, threads, rawHash, segment(arena, copies, secret), segment(arena, copies, ad), segment(arena, copies, salt), segment(arena, copies, password));
+            } finally {
+                wipe(copies);
+            }
+        }
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, byte[] out, int outOffset) {
+        try (Arena arena = Arena.ofConfined()) {
+            List<MemorySegment> copies = new ArrayList<>(5);
+            try {
+                MemorySegment hash = arena.allocate(hashLength);
+                copies.add(hash);
+                hash(arena, type, version, memoryCost, timeCost, lanes, threads, hash, segment(arena, copies, secret), segment(arena, copies, ad), segment(arena, copies, salt), segment(arena, copies, password));
+                MemorySegment.copy(hash, JAVA_BYTE, 0, out, outOffset, hashLength);
+            } finally {
+                wipe(copies);
+            }
+        }
+    }
+
+    @Override
+    public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, ByteBuffer out) {
+        try (Arena arena = Arena.ofConfined()) {
+            List<MemorySegment> copies = new ArrayList<>(5);
+            try {
+                // libargon2 writes the output only after hashing succeeds, so a direct buffer is passed in place
+                MemorySegment target = MemorySegment.ofBuffer(out).asSlice(0, hashLength);
+                MemorySegment hash = out.isDirect() ? target : arena.allocate(hashLength);
+                if (hash != target) {
+                    copies.add(hash);
+                }
+                hash(arena, type, version, memoryCost, timeCost, lanes, threads, hash, segment(arena, copies, secret), segment(arena, copies, ad), segment(arena, copies, salt), segment(arena, copies, password));
+                if (hash != target) {
+                    target.copyFrom(hash);
+                }
+                out.position(out.position() + hashLength);
+            } finally {
+                wipe(copies);
+            }
+        }
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options) {
+        Argon2Encoding.Decoded decoded = Argon2Encoding.decode(encodedHash);
+        return verifyRaw(
+                decoded.type,
+                decoded.version,
+                decoded.memoryCost,
+                decoded.timeCost,
+                decoded.lanes,
+                threads == -1 ? decoded.lanes : threads,
+                decoded.hash,
+                secret,
+                ad,
+                decoded.salt,
+                password,
+                options
+        );
+    }
+
+    @Override
+    public boolean verifyEncoded(String encodedHash, int threads, ByteBuffer secret, ByteBuffer ad, ByteBuffer password, Map<String, Object> options) {
+        Argon2Encoding.Decoded decoded = Argon2Encoding.decode(encodedHash);
+        return verifyRaw(
+                decoded.type,
+                decoded.version,
+                decoded.memoryCost,
+                decoded.timeCost,
+                decoded.lanes,
+                threads == -1 ? decoded.lanes : threads,
+                decoded.hash,
+                secret,
+                ad,
+                ByteBuffer.wrap(decoded.salt),
+                password,
+                options
+        );
+    }
+
+    private static byte[] hash(Arena arena, Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, MemorySegment secret, MemorySegment ad, MemorySegment salt, MemorySegment password) {
+        MemorySegment out = arena.allocate(hashLength);
+        try {
+            hash(arena, type, version, memoryCost, timeCost, lanes, threads, out, secret, ad, salt, password);
+            return out.toArray(JAVA_BYTE);
+        } finally {
+            out.fill((byte) 0);
+        }
+    }
+
+    /**
+     * Hash into out, which may be in the arena or in a caller's buffer and must be wiped by the caller if needed.
+     */
+    private static void hash(Arena arena, Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, MemorySegment out, MemorySegment secret, MemorySegment ad, MemorySegment salt, MemorySegment password) {
+        MemorySegment context = arena.allocate(CONTEXT);
+        try {
+            fill(context, out, version, memoryCost, timeCost, lanes, threads, secret, ad, salt, password);
+            check((int) Library.ARGON2_CTX.invokeExact(context, type.ordinal()));
+        } catch (Jargon2BackendException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new Jargon2BackendException(t);
+        }
+    }
+
+    private static boolean verify(Arena arena, Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, byte[] rawHash, MemorySegment secret, MemorySegment ad, MemorySegment salt, MemorySegment password) {
+        MemorySegment context = arena.allocate(CONTEXT);
+        MemorySegment out = arena.allocate(rawHash.length);
+        MemorySegment expected = arena.allocate(Math.max(rawHash.length, 1));
+        MemorySegment.copy(rawHash, 0, expected, JAVA_BYTE, 0, rawHash.length);
+        try {
+            fill(context, out, version, memoryCost, timeCost, lanes, threads, secret, ad, salt, password);
+            int result = (int) Library.ARGON2_VERIFY_CTX.invokeExact(context, expected, type.ordinal());
+            if (result == ARGON2_VERIFY_MISMATCH) {
+                return false;
+            }
+            check(result);
+            return true;
+        } catch (Jargon2BackendException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new Jargon2BackendException(t);
+        } finally {
+            out.fill((byte) 0);
+        }
+    }
+
+    private static void fill(MemorySegment context, MemorySegment out, Version version, int memoryCost, int timeCost, int lanes, int threads, MemorySegment secret, MemorySegment ad, MemorySegment salt, MemorySegment password) {
+        context.set(ADDRESS, OUT, out);
+        context.set(JAVA_INT, OUTLEN, (int) out.byteSize());
+        context.set(ADDRESS, PWD, password);
+        context.set(JAVA_INT, PWDLEN, (int) password.byteSize());
+        context.set(ADDRESS, SALT, salt);
+        context.set(JAVA_INT, SALTLEN, (int) salt.byteSize());
+        context.set(ADDRESS, SECRET, secret);
+        context.set(JAVA_INT, SECRETLEN, (int) secret.byteSize());
+        context.set(ADDRESS, AD, ad);
+        context.set(JAVA_INT, ADLEN, (int) ad.byteSize());
+        context.set(JAVA_INT, T_COST, timeCost);
+        context.set(JAVA_INT, M_COST, memoryCost);
+        context.set(JAVA_INT, LANES, lanes);
+        context.set(JAVA_INT, THREADS, threads);
+        context.set(JAVA_INT, VERSION, version.getValue());
+    }
+
+    /**
+     * @return A copy of the array in the arena, added to <tt>copies</tt>, or {@link MemorySegment#NULL}
+     */
+    private static MemorySegment segment(Arena arena, List<MemorySegment> copies, byte[] value) {
+        if (value == null) {
+            return MemorySegment.NULL;
+        }
+        MemorySegment segment = arena.allocate(Math.max(value.length, 1)).asSlice(0, value.length);
+        MemorySegment.copy(value, 0, segment, JAVA_BYTE, 0, value.length);
+        copies.add(segment);
+        return segment;
+    }
+
+    /**
+     * @return The remaining bytes of a direct buffer in place, a copy of those of a heap buffer in the arena (added
+     * to <tt>copies</tt>), or {@link MemorySegment#NULL}
+     */
+    private static MemorySegment segment(Arena arena, List<MemorySegment> copies, ByteBuffer value) {
+        if (value == null) {
+            return MemorySegment.NULL;
+        }
+        if (value.isDirect()) {
+            return MemorySegment.ofBuffer(value);
+        }
+        MemorySegment segment = arena.allocate(Math.max(value.remaining(), 1)).asSlice(0, value.remaining());
+        segment.copyFrom(MemorySegment.ofBuffer(value));
+        copies.add(segment);
+        return segment;
+    }
+
+    private static void wipe(List<MemorySegment> copies) {
+        for (MemorySegment copy : copies) {
+            copy.fill((byte) 0);
+        }
+    }
+
+    private static void check(int result) throws Throwable {
+        if (result != ARGON2_OK) {
+            MemorySegment message = ((MemorySegment) Library.ARGON2_ERROR_MESSAGE.invokeExact(result)).reinterpret(256);
+            int length = 0;
+            while (length < message.byteSize() && message.get(JAVA_BYTE, length) != 0) {
+                length++;
+            }
+            throw new Jargon2BackendException(new String(message.asSlice(0, length).toArray(JAVA_BYTE), StandardCharsets.US_ASCII) + " (" + result + ")");
+        }
+    }
+
+    private static long offset(String name) {
+        return CONTEXT.byteOffset(groupElement(name));
+    }
+
+    /**
+     * Downcall handles, linked on first use. A failure is kept and reported by every constructor call.
+     */
+    private static final class Library {
+
+        private static final MethodHandle ARGON2_CTX;
+        private static final MethodHandle ARGON2_VERIFY_CTX;
+        private static final MethodHandle ARGON2_ERROR_MESSAGE;
+        private static final Throwable ERROR;
+
+        static {
+            MethodHandle ctx = null;
+            MethodHandle verifyCtx = null;
+            MethodHandle errorMessage = null;
+            Throwable error = null;
+            try {
+                Linker linker = Linker.nativeLinker();
+                SymbolLookup lookup = lookup();
+                ctx = linker.downcallHandle(find(lookup, "argon2_ctx"), FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+                verifyCtx = linker.downcallHandle(find(lookup, "argon2_verify_ctx"), FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT));
+                errorMessage = linker.downcallHandle(find(lookup, "argon2_error_message"), FunctionDescriptor.of(ADDRESS, JAVA_INT));
+            } catch (Throwable t) {
+                error = t;
+            }
+            ARGON2_CTX = ctx;
+            ARGON2_VERIFY_CTX = verifyCtx;
+            ARGON2_ERROR_MESSAGE = errorMessage;
+            ERROR = error;
+        }
+
+        private Library() {
+        }
+
+        private static SymbolLookup lookup() {
+            String library = System.getProperty(LIBRARY_SYSTEM_PROP_NAME);
+            if (library != null) {
+                return SymbolLookup.libraryLookup(library, Arena.global());
+            }
+            IllegalArgumentException error = null;
+            for (String name : new String[] {System.mapLibraryName("argon2"), "libargon2.so.1", "libargon2.1.dylib"}) {
+                try {
+                    return SymbolLookup.libraryLookup(name, Arena.global());
+                } catch (IllegalArgumentException e) {
+                    if (error == null) {
+                        error = e;
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            }
+            throw error;
+        }
+
+        private static MemorySegment find(SymbolLookup lookup, String name) {
+            return lookup.find(name).orElseThrow(() -> new Jargon2BackendException("Symbol " + name + " not found in libargon2"));
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.kosprov.jargon2.flow;
+
+import com.kosprov.jargon2.api.EncodedHashResult;
+import com.kosprov.jargon2.api.Jargon2Exception;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+
+/**
+ * A {@link Flow.Processor} that hashes passwords or verifies them against encoded hashes, for pipelines that receive
+ * credentials faster than Argon2 can process them.
+ *
+ * <p>
+ *     Every item is scheduled with the asynchronous methods of the {@link Hasher} or {@link Verifier} the processor
+ *     was created with, so it runs on their executor (or on the backend's own threads) and observes their
+ *     {@link CancellationToken}. At most <tt>concurrency</tt> items are requested from upstream and not yet emitted
+ *     downstream. This bounds the memory taken by calculations in flight and throttles upstream to the pace of the
+ *     calculations and of downstream demand. {@link Hasher#concurrency()} gives a limit that keeps all the
+ *     processors busy without exceeding half of the heap.
+ * </p>
+ *
+ * <p>
+ *     Results are emitted in the order of the items they belong to. An item that fails produces a failed result and
+ *     does not terminate the stream. An upstream error is emitted after the results of the items received before it.
+ *     When downstream cancels, upstream is cancelled and calculations in flight are left to complete, with their
+ *     results dropped.
+ * </p>
+ *
+ * <p>
+ *     A processor supports a single subscriber and a single upstream subscription. Only present in the Java 9 part of
+ *     the multi-release jar.
+ * </p>
+ *
+ * @param <T> The type of the items
+ * @param <R> The type of the results
+ */
+public final class Jargon2Processor<T, R> implements Flow.Processor<T, R> {
+
+    private final Task<T, R> task;
+    private final Function<Throwable, R> failure;
+    private final int concurrency;
+
+    private final Queue<Slot> inFlight = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Flow.Subscriber<? super R>> downstream = new AtomicReference<>();
+
+    private volatile boolean ready;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private volatile Throwable violation;
+
+    /**
+     * The number of items requested from upstream and not yet emitted, only accessed by {@link #drain()}
+     */
+    private int outstanding;
+
+    private Jargon2Processor(Task<T, R> task, Function<Throwable, R> failure, int concurrency) {
+        if (concurrency < 1) {
+            throw new Jargon2Exception("Concurrency must be at least 1");
+        }
+        this.task = task;
+        this.failure = failure;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Create a processor that emits the encoded hash of every password, with the {@link Hasher#concurrency()} of the
+     * hasher.
+     *
+     * @param hasher The hasher, configured with everything but the password
+     * @return The processor
+     * @throws Jargon2Exception If the hasher is missing
+     */
+    public static Jargon2Processor<ByteArray, EncodedHashResult> hashing(final Hasher hasher) {
+        if (hasher == null) {
+            throw new Jargon2Exception("Missing hasher");
+        }
+        return hashing(hasher, hasher.concurrency());
+    }
+
+    /**
+     * Create a processor that emits the encoded hash of every password, each with a new salt from the salt generator
+     * of the hasher.
+     *
+     * @param hasher The hasher, configured with everything but the password
+     * @param concurrency The maximum number of passwords in flight
+     * @return The processor
+     * @throws Jargon2Exception If the hasher is missing or concurrency is less than 1
+     */
+    public static Jargon2Processor<ByteArray, EncodedHashResult> hashing(final Hasher hasher, int concurrency) {
+        if (hasher == null) {
+            throw new Jargon2Exception("Missing hasher");
+        }
+        return new Jargon2Processor<>(
+                (password, slot) -> hasher.password(password).encodedHashAsync(new Callback<String>() {
+                    @Override
+                    public void completed(String encodedHash) {
+                        slot.complete(EncodedHashResult.success(encodedHash));
+                    }
+
+                    @Override
+                    public void failed(Throwable error) {
+                        slot.fail(error);
+                    }
+                }),
+                error -> EncodedHashResult.failure(asJargon2Exception(error, "Hash calculation failed")),
+                concurrency);
+    }
+
+    /**
+     * Create a processor that emits whether the password of every request matches its encoded hash.
+     *
+     * @param verifier The verifier, configured with everything but the encoded hash and the password
+     * @param concurrency The maximum number of requests in flight
+     * @return The processor
+     * @throws Jargon2Exception If the verifier is missing or concurrency is less than 1
+     */
+    public static Jargon2Processor<VerificationRequest, VerificationResult> verifying(final Verifier verifier, int concurrency) {
+        if (verifier == null) {
+            throw new Jargon2Exception("Missing verifier");
+        }
+        return new Jargon2Processor<>(
+                (request, slot) -> verifier.hash(request.getEncodedHash()).password(request.getPassword()).verifyEncodedAsync(new Callback<Boolean>() {
+                    @Override
+                    public void completed(Boolean matches) {
+                        slot.complete(VerificationResult.success(matches));
+                    }
+
+                    @Override
+                    public void failed(Throwable error) {
+                        slot.fail(error);
+                    }
+                }),
+                error -> VerificationResult.failure(asJargon2Exception(error, "Verification failed")),
+                concurrency);
+    }
+
+    /**
+     * @return The maximum number of items in flight
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Jargon2Processor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    violation = new IllegalArgumentException("Non-positive request: " + n);
+                } else {
+                    addRequested(n);
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        ready = true;
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        if (!upstream.compareAndSet(null, subscription) || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(T item) {
+        Objects.requireNonNull(item);
+        if (done || cancelled) {
+            return;
+        }
+        Slot slot = new Slot();
+        inFlight.add(slot);
+        try {
+            task.schedule(item, slot);
+        } catch (RuntimeException e) {
+            slot.fail(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable);
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    /**
+     * Emit the completed results at the head of the queue, up to downstream demand, then terminate downstream or
+     * request enough items from upstream to have <tt>concurrency</tt> of them outstanding. Runs on one thread at a
+     * time; calls made while it runs make it loop once more.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            if (cancelled) {
+                inFlight.clear();
+            } else if (ready) {
+                Flow.Subscriber<? super R> subscriber = downstream.get();
+                Throwable violation = this.violation;
+                if (violation != null) {
+                    cancelled = true;
+                    inFlight.clear();
+                    cancelUpstream();
+                    subscriber.onError(violation);
+                } else {
+                    long demand = requested.get();
+                    long emitted = 0;
+                    Slot head;
+                    while (emitted != demand && !cancelled && (head = inFlight.peek()) != null && head.completed) {
+                        inFlight.poll();
+                        outstanding--;
+                        emitted++;
+                        subscriber.onNext(head.result);
+                    }
+                    if (emitted != 0 && demand != Long.MAX_VALUE) {
+                        requested.addAndGet(-emitted);
+                    }
+                    if (cancelled) {
+                        inFlight.clear();
+                    } else if (done) {
+                        if (inFlight.isEmpty()) {
+                            cancelled = true;
+                            Throwable error = this.error;
+                            if (error != null) {
+                                subscriber.onError(error);
+                            } else {
+                                subscriber.onComplete();
+                            }
+                        }
+                    } else {
+                        Flow.Subscription subscription = upstream.get();
+                        if (subscription != null && outstanding < concurrency) {
+                            int n = concurrency - outstanding;
+                            outstanding = concurrency;
+                            subscription.request(n);
+                        }
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void addRequested(long n) {
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return;
+            }
+            next = current + n;
+            if (next < 0) {
+                next = Long.MAX_VALUE;
+            }
+        } while (!requested.compareAndSet(current, next));
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private static Jargon2Exception asJargon2Exception(Throwable error, String message) {
+        return error instanceof Jargon2Exception ? (Jargon2Exception) error : new Jargon2Exception(message, error);
+    }
+
+    /**
+     * Schedules the calculation of one item, completing its slot when done.
+     */
+    private interface Task<T, R> {
+        void schedule(T item, Jargon2Processor<T, R>.Slot slot);
+    }
+
+    /**
+     * The place of one item in the output order, holding its result once the calculation completes.
+     */
+    private final class Slot {
+
+        private R result;
+        private volatile boolean completed;
+
+        void complete(R result) {
+            this.result = result;
+            completed = true;
+            drain();
+        }
+
+        void fail(Throwable error) {
+            complete(failure.apply(error));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.kosprov.jargon2.flow;
+
+import com.kosprov.jargon2.api.Jargon2Exception;
+
+import static com.kosprov.jargon2.api.Jargon2.ByteArray;
+
+/**
+ * An encoded hash and the password to verify against it, as consumed by {@link Jargon2Processor#verifying}.
+ *
+ * <p>
+ *     The password is not copied. It must stay readable until the result of the request is emitted.
+ * </p>
+ */
+public final class VerificationRequest {
+
+    private final String encodedHash;
+    private final ByteArray password;
+
+    private VerificationRequest(String encodedHash, ByteArray password) {
+        this.encodedHash = encodedHash;
+        this.password = password;
+    }
+
+    /**
+     * @param encodedHash The encoded hash
+     * @param password The password
+     * @return A request to verify the password against the encoded hash
+     * @throws Jargon2Exception If encoded hash or password is missing
+     */
+    public static VerificationRequest of(String encodedHash, ByteArray password) {
+        if (encodedHash == null || password == null) {
+            throw new Jargon2Exception("Missing encoded hash or password");
+        }
+        return new VerificationRequest(encodedHash, password);
+    }
+
+    public String getEncodedHash() {
+        return encodedHash;
+    }
+
+    public ByteArray getPassword() {
+        return password;
+    }
+
+    /**
+     * @return The encoded hash only, never the password
+     */
+    @Override
+    public String toString() {
+        return "VerificationRequest{" +
+                "encodedHash=" + encodedHash +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.kosprov.jargon2.flow;
+
+import com.kosprov.jargon2.api.Jargon2Exception;
+
+/**
+ * The outcome of one {@link VerificationRequest}: whether the password matched or the reason verification failed. A
+ * failed request does not terminate the stream.
+ *
+ * @see Jargon2Processor#verifying
+ */
+public final class VerificationResult {
+
+    private static final VerificationResult MATCH = new VerificationResult(true, null);
+    private static final VerificationResult MISMATCH = new VerificationResult(false, null);
+
+    private final boolean matches;
+    private final Jargon2Exception failure;
+
+    private VerificationResult(boolean matches, Jargon2Exception failure) {
+        this.matches = matches;
+        this.failure = failure;
+    }
+
+    /**
+     * @param matches true if the password matched
+     * @return A successful result
+     */
+    public static VerificationResult success(boolean matches) {
+        return matches ? MATCH : MISMATCH;
+    }
+
+    /**
+     * @param failure The reason verification failed
+     * @return A failed result
+     */
+    public static VerificationResult failure(Jargon2Exception failure) {
+        return new VerificationResult(false, failure);
+    }
+
+    /**
+     * @return true if the password was verified, whether it matched or not
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * @return true if the password matched, false if it did not or verification failed
+     */
+    public boolean isMatch() {
+        return matches;
+    }
+
+    /**
+     * @return The reason verification failed or null if it succeeded
+     */
+    public Jargon2Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "VerificationResult{" +
+                (failure == null ? "matches=" + matches : "failure=" + failure) +
+                '}';
+    }
+}
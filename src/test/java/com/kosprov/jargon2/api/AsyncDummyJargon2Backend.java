@@ -0,0 +1,66 @@
+package com.kosprov.jargon2.api;
+
+import com.kosprov.jargon2.spi.AsyncJargon2Backend;
+
+import java.util.Map;
+
+/**
+ * Completes every asynchronous call on a new thread named {@link #THREAD_NAME}.
+ */
+public class AsyncDummyJargon2Backend extends DummyJargon2Backend implements AsyncJargon2Backend {
+
+    public static final String THREAD_NAME = "async-dummy-backend";
+
+    @Override
+    public void rawHashAsync(final Jargon2.Type type, final Jargon2.Version version, final int memoryCost, final int timeCost, final int lanes, final int threads, final int hashLength, final byte[] secret, final byte[] ad, final byte[] salt, final byte[] password, final Map<String, Object> options, final Jargon2.Callback<byte[]> callback) {
+        start(new Runnable() {
+            @Override
+            public void run() {
+                callback.completed(rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options));
+            }
+        }, callback);
+    }
+
+    @Override
+    public void encodedHashAsync(final Jargon2.Type type, final Jargon2.Version version, final int memoryCost, final int timeCost, final int lanes, final int threads, final int hashLength, final byte[] secret, final byte[] ad, final byte[] salt, final byte[] password, final Map<String, Object> options, final Jargon2.Callback<String> callback) {
+        start(new Runnable() {
+            @Override
+            public void run() {
+                callback.completed(encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options));
+            }
+        }, callback);
+    }
+
+    @Override
+    public void verifyRawAsync(final Jargon2.Type type, final Jargon2.Version version, final int memoryCost, final int timeCost, final int lanes, final int threads, final byte[] rawHash, final byte[] secret, final byte[] ad, final byte[] salt, final byte[] password, final Map<String, Object> options, final Jargon2.Callback<Boolean> callback) {
+        start(new Runnable() {
+            @Override
+            public void run() {
+                callback.completed(verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options));
+            }
+        }, callback);
+    }
+
+    @Override
+    public void verifyEncodedAsync(final String encodedHash, final int threads, final byte[] secret, final byte[] ad, final byte[] password, final Map<String, Object> options, final Jargon2.Callback<Boolean> callback) {
+        start(new Runnable() {
+            @Override
+            public void run() {
+                callback.completed(verifyEncoded(encodedHash, threads, secret, ad, password, options));
+            }
+        }, callback);
+    }
+
+    private static void start(final Runnable task, final Jargon2.Callback<?> callback) {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    callback.failed(e);
+                }
+            }
+        }, THREAD_NAME).start();
+    }
+}
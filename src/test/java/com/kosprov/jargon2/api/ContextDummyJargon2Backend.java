@@ -0,0 +1,46 @@
+package com.kosprov.jargon2.api;
+
+import com.kosprov.jargon2.spi.ContextJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendContext;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the contexts it opens and closes and the calls made through them.
+ */
+public class ContextDummyJargon2Backend extends DummyJargon2Backend implements ContextJargon2Backend {
+
+    public final AtomicInteger contexts = new AtomicInteger();
+    public final AtomicInteger contextCalls = new AtomicInteger();
+    public final AtomicInteger closedContexts = new AtomicInteger();
+
+    @Override
+    public Jargon2BackendContext openContext(final Jargon2.Type type, final Jargon2.Version version, final int memoryCost, final int timeCost, final int lanes, final int threads, final int hashLength, final Map<String, Object> options) {
+        contexts.incrementAndGet();
+        return new Jargon2BackendContext() {
+            @Override
+            public byte[] rawHash(byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+                contextCalls.incrementAndGet();
+                return ContextDummyJargon2Backend.this.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+            }
+
+            @Override
+            public String encodedHash(byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+                contextCalls.incrementAndGet();
+                return ContextDummyJargon2Backend.this.encodedHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+            }
+
+            @Override
+            public boolean verifyRaw(byte[] rawHash, byte[] secret, byte[] ad, byte[] salt, byte[] password) {
+                contextCalls.incrementAndGet();
+                return ContextDummyJargon2Backend.this.verifyRaw(type, version, memoryCost, timeCost, lanes, threads, rawHash, secret, ad, salt, password, options);
+            }
+
+            @Override
+            public void close() {
+                closedContexts.incrementAndGet();
+            }
+        };
+    }
+}
@@ -1,15 +1,42 @@
 package com.kosprov.jargon2.api;
 
+import com.kosprov.jargon2.backend.JavaJargon2Backend;
+import com.kosprov.jargon2.internal.EncodedHashAccess;
+import com.kosprov.jargon2.internal.discovery.Jargon2BackendDiscovery;
+import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.CharArrayReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.kosprov.jargon2.api.Jargon2.*;
 import static org.hamcrest.Matchers.equalTo;
@@ -543,6 +570,1046 @@ public class Jargon2Test {
         assertTrue(matches);
     }
 
+    @Test
+    public void lowLevelApiRawBatchTest() {
+        byte[][] saltBytes = {"some salt".getBytes(StandardCharsets.UTF_8), "another salt".getBytes(StandardCharsets.UTF_8)};
+        byte[][] passwordBytes = {"this is a password".getBytes(StandardCharsets.UTF_8), "this is another password".getBytes(StandardCharsets.UTF_8)};
+
+        for (LowLevelApi lowLevelApi : new LowLevelApi[] {jargon2LowLevelApi(DummyJargon2Backend.class), jargon2LowLevelApi(new JavaJargon2Backend())}) {
+            byte[][] rawHashes = lowLevelApi.rawHashBatch(
+                    Type.ARGON2id,
+                    Version.V13,
+                    64,
+                    3,
+                    2,
+                    16,
+                    saltBytes,
+                    passwordBytes
+            );
+
+            assertEquals(2, rawHashes.length);
+            for (int i = 0; i < rawHashes.length; i++) {
+                assertArrayEquals(lowLevelApi.rawHash(Type.ARGON2id, Version.V13, 64, 3, 2, 16, saltBytes[i], passwordBytes[i]), rawHashes[i]);
+            }
+        }
+    }
+
+    @Test
+    public void verifyEncodedBatchTest() {
+        byte[] password = "this is a password".getBytes(StandardCharsets.UTF_8);
+        byte[] otherPassword = "this is another password".getBytes(StandardCharsets.UTF_8);
+        byte[] secret = "this is a secret".getBytes(StandardCharsets.UTF_8);
+
+        for (Jargon2Backend backend : new Jargon2Backend[] {new DummyJargon2Backend(), new JavaJargon2Backend()}) {
+            Hasher hasher = jargon2Hasher().backend(backend).memoryCost(64).timeCost(1).secret(secret);
+            List<VerifyRequest> requests = Arrays.asList(
+                    new VerifyRequest(hasher.password(password).encodedHash(), password),
+                    new VerifyRequest(hasher.parallelism(2).password(otherPassword).encodedHash(), password),
+                    new VerifyRequest(hasher.password(otherPassword).encodedHash(), toByteArray(otherPassword))
+            );
+
+            Verifier verifier = jargon2Verifier().backend(backend).secret(secret);
+            assertArrayEquals(new boolean[] {true, false, true}, verifier.verifyEncodedBatch(requests));
+            assertArrayEquals(new boolean[] {true, false, true}, verifier.hash("ignored").verifyEncodedBatch(requests));
+            assertArrayEquals(new boolean[] {true, false, true}, jargon2LowLevelApi(backend).verifyEncodedBatch(1, secret, null, requests, null));
+            assertArrayEquals(new boolean[] {false, false, false}, jargon2LowLevelApi(backend).verifyEncodedBatch(requests));
+            assertEquals(0, verifier.verifyEncodedBatch(new ArrayList<VerifyRequest>()).length);
+        }
+
+        // An undecodable hash does not match, whether the backend verifies batches or not, but other failures remain
+        Jargon2Backend plain = new DummyJargon2Backend() {
+            @Override
+            public boolean verifyEncoded(String encodedHash, int threads, byte[] secret, byte[] ad, byte[] password, Map<String, Object> options) {
+                if (!encodedHash.startsWith("$argon2")) {
+                    throw new Jargon2BackendException("Invalid encoded hash");
+                }
+                return super.verifyEncoded(encodedHash, threads, secret, ad, password, options);
+            }
+        };
+        for (Jargon2Backend backend : new Jargon2Backend[] {plain, new JavaJargon2Backend()}) {
+            Hasher hasher = jargon2Hasher().backend(backend).memoryCost(64).timeCost(1);
+            String encodedHash = hasher.password(password).encodedHash();
+            List<VerifyRequest> requests = Arrays.asList(
+                    new VerifyRequest(encodedHash, password),
+                    new VerifyRequest("legacy$hash", password),
+                    new VerifyRequest(encodedHash, password)
+            );
+            assertArrayEquals(new boolean[] {true, false, true}, jargon2Verifier().backend(backend).verifyEncodedBatch(requests));
+            try {
+                jargon2Verifier().backend(backend).verifyEncodedBatch(Arrays.asList(new VerifyRequest(null, password)));
+                fail();
+            } catch (Jargon2Exception e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void backendOptionsTest() throws Exception {
+        BackendOptions options = BackendOptions.EMPTY
+                .with(JavaJargon2Backend.MEMORY_POOL, true)
+                .with(JavaJargon2Backend.ADDRESS_CACHE, true);
+        assertEquals(Boolean.TRUE, options.get(JavaJargon2Backend.MEMORY_POOL));
+        assertNull(options.get(JavaJargon2Backend.MEMORY));
+        assertSame(options.asMap(), options.asMap());
+        assertEquals(options, BackendOptions.of(options.asMap()));
+        assertTrue(options.with(JavaJargon2Backend.MEMORY_POOL, null).with(JavaJargon2Backend.ADDRESS_CACHE, null).isEmpty());
+
+        Hasher hasher = jargon2Hasher().backend(new JavaJargon2Backend()).memoryCost(256).timeCost(2).salt(new byte[16]).password(new byte[8]);
+        String expected = hasher.encodedHash();
+        assertEquals(expected, hasher.backendOptions(options).encodedHash());
+        assertTrue(jargon2Verifier().backend(new JavaJargon2Backend()).backendOptions(options).hash(expected).password(new byte[8]).verifyEncoded());
+
+        // Misspelled options fail when both options and backend are known, in either order
+        BackendOptions misspelled = BackendOptions.EMPTY.with("memoryPol", true);
+        try {
+            hasher.backendOptions(misspelled);
+            fail();
+        } catch (Jargon2Exception e) {
+            assertThat(e.getMessage(), startsWith("Backend does not support option memoryPol"));
+        }
+        try {
+            jargon2Verifier().backendOptions(misspelled).backend(new JavaJargon2Backend());
+            fail();
+        } catch (Jargon2Exception e) {
+            assertThat(e.getMessage(), startsWith("Backend does not support option memoryPol"));
+        }
+
+        // Backends that do not declare their options accept any
+        jargon2Hasher().backend(new DummyJargon2Backend()).backendOptions(misspelled);
+
+        // Options set before the backend are not checked against the discovered one
+        Object discovered = setDiscoveredBackend(new JavaJargon2Backend());
+        try {
+            Map<String, Object> nativeOptions = Collections.<String, Object>singletonMap("libraryPath", "/x");
+            jargon2Hasher().options(nativeOptions).backend(new DummyJargon2Backend());
+            jargon2Verifier().options(nativeOptions).backend(new DummyJargon2Backend());
+            try {
+                jargon2Hasher().options(nativeOptions).backend(new JavaJargon2Backend());
+                fail();
+            } catch (Jargon2Exception e) {
+                assertThat(e.getMessage(), startsWith("Backend does not support option libraryPath"));
+            }
+        } finally {
+            setDiscoveredBackend(discovered);
+        }
+
+        try {
+            BackendOptions.EMPTY.with(JavaJargon2Backend.MEMORY_POOL.getName(), "true").get(JavaJargon2Backend.MEMORY_POOL);
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void contextTest() throws Exception {
+        ContextDummyJargon2Backend backend = new ContextDummyJargon2Backend();
+        byte[] salt = new byte[16];
+        Hasher hasher = jargon2Hasher().backend(backend).memoryCost(1024);
+
+        // Hashers that are not prepared never open a context
+        byte[] expected = hasher.salt(salt).password(new byte[8]).rawHash();
+        hasher.salt(salt).password(new byte[8]).encodedHash();
+        assertEquals(0, backend.contexts.get());
+
+        // A prepared hasher opens one, uses it for all its hashes and closes it
+        PreparedHasher closedHasher;
+        try (PreparedHasher prepared = hasher.prepare()) {
+            assertEquals(1, backend.contexts.get());
+            for (int i = 0; i < 3; i++) {
+                assertArrayEquals(expected, prepared.rawHash(salt, new byte[8]));
+            }
+            assertEquals(3, backend.contextCalls.get());
+            assertEquals(0, backend.closedContexts.get());
+            closedHasher = prepared;
+        }
+        assertEquals(1, backend.closedContexts.get());
+        closedHasher.close();
+        assertEquals(1, backend.closedContexts.get());
+        try {
+            closedHasher.encodedHash(new byte[8]);
+            fail();
+        } catch (Jargon2Exception e) {
+            assertThat(e.getMessage(), is("Prepared hasher is closed"));
+        }
+
+        // Cancellable hashers bypass contexts
+        try (PreparedHasher prepared = hasher.cancellation(new CancellationToken()).prepare()) {
+            prepared.rawHash(salt, new byte[8]);
+        }
+        assertEquals(1, backend.contexts.get());
+        assertEquals(3, backend.contextCalls.get());
+
+        // Bulk hashing closes its context once all the results are consumed
+        assertEquals(2, hasher.encodedHashes(Arrays.asList(toByteArray("a"), toByteArray("b"))).size());
+        assertEquals(2, backend.contexts.get());
+        assertEquals(2, backend.closedContexts.get());
+
+        // ... or once it is closed before that
+        try (EncodedHashIterator streamed = hasher.encodedHashes(Arrays.asList(toByteArray("a"), toByteArray("b"), toByteArray("c")).iterator())) {
+            assertTrue(streamed.next().isSuccess());
+        }
+        // Hashes still running when the iterator is closed complete before the context is closed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (backend.closedContexts.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, backend.contexts.get());
+        assertEquals(3, backend.closedContexts.get());
+
+        // ... or once the results read before a failing password source are consumed and the failure is thrown
+        EncodedHashIterator failing = hasher.encodedHashes(new Iterator<ByteArray>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                if (read == 2) {
+                    throw new IllegalStateException("Source failure");
+                }
+                return true;
+            }
+
+            @Override
+            public ByteArray next() {
+                return toByteArray("password" + read++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+        assertTrue(failing.next().isSuccess());
+        assertTrue(failing.next().isSuccess());
+        try {
+            failing.hasNext();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("Source failure"));
+        }
+        assertFalse(failing.hasNext());
+        assertEquals(4, backend.contexts.get());
+        assertEquals(4, backend.closedContexts.get());
+    }
+
+    private static final ByteArray FAILING_BYTE_ARRAY = new ByteArray() {
+        @Override
+        public byte[] getBytes() {
+            throw new Jargon2Exception("Unreadable password");
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public ByteArray finalizable() {
+            return this;
+        }
+    };
+
+    @Test
+    public void encodedHashesTest() {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        Verifier verifier = jargon2Verifier().backend(new DummyJargon2Backend());
+
+        List<ByteArray> passwords = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            passwords.add(i == 7 ? FAILING_BYTE_ARRAY : toByteArray("password" + i));
+        }
+        List<EncodedHashResult> results = hasher.encodedHashes(passwords);
+        assertEquals(50, results.size());
+        Set<String> salts = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            EncodedHashResult result = results.get(i);
+            if (i == 7) {
+                assertFalse(result.isSuccess());
+                assertNull(result.getEncodedHash());
+                assertEquals("Unreadable password", result.getFailure().getMessage());
+                continue;
+            }
+            assertTrue(result.isSuccess());
+            assertTrue(verifier.hash(result.getEncodedHash()).password(toByteArray("password" + i)).verifyEncoded());
+            assertTrue(salts.add(Arrays.toString(EncodedHash.parse(result.getEncodedHash()).getSalt())));
+        }
+
+        // Passwords are read only as far ahead as the hashes in flight
+        final int[] read = new int[1];
+        final int total = 10000;
+        Iterator<EncodedHashResult> streamed = hasher.encodedHashes(new Iterator<ByteArray>() {
+            @Override
+            public boolean hasNext() {
+                return read[0] < total;
+            }
+
+            @Override
+            public ByteArray next() {
+                return toByteArray("password" + read[0]++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+        assertEquals(0, read[0]);
+        assertTrue(streamed.next().isSuccess());
+        assertTrue(read[0] <= Runtime.getRuntime().availableProcessors() + 1);
+        int count = 1;
+        while (streamed.hasNext()) {
+            assertTrue(streamed.next().isSuccess());
+            count++;
+        }
+        assertEquals(total, count);
+
+        try {
+            hasher.encodedHashes((Iterable<ByteArray>) null);
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void verifyAnyTest() throws Exception {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        Verifier verifier = jargon2Verifier().backend(new DummyJargon2Backend());
+        List<String> encodedHashes = Arrays.asList(
+                hasher.password(toByteArray("primary")).encodedHash(),
+                hasher.password(toByteArray("app1")).encodedHash(),
+                hasher.password(toByteArray("app2")).encodedHash()
+        );
+
+        for (boolean constantWork : new boolean[] {false, true}) {
+            assertTrue(verifier.verifyAny(encodedHashes, toByteArray("primary"), constantWork));
+            assertTrue(verifier.verifyAny(encodedHashes, toByteArray("app2"), constantWork));
+            assertFalse(verifier.verifyAny(encodedHashes, toByteArray("other"), constantWork));
+        }
+
+        // Calls from the only thread of the executor verify the hashes themselves instead of waiting for it
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final Verifier onSingle = verifier.executor(single);
+            final List<String> candidates = encodedHashes;
+            Future<Boolean> nested = single.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return onSingle.verifyAny(candidates, toByteArray("app2"), true)
+                            && !onSingle.verifyAny(candidates, toByteArray("other"));
+                }
+            });
+            assertTrue(nested.get(10, TimeUnit.SECONDS));
+        } finally {
+            single.shutdown();
+        }
+        Verifier rejecting = verifier.executor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        });
+        assertTrue(rejecting.verifyAny(encodedHashes, toByteArray("app1")));
+        assertFalse(rejecting.verifyAny(encodedHashes, toByteArray("other")));
+        assertFalse(verifier.verifyAny(new ArrayList<String>(), toByteArray("primary")));
+
+        // An invalid hash does not hide a match, but is reported otherwise
+        List<String> withInvalid = new ArrayList<>(encodedHashes);
+        withInvalid.add(0, "invalid");
+        assertTrue(verifier.verifyAny(withInvalid, toByteArray("app1")));
+        try {
+            verifier.verifyAny(withInvalid, toByteArray("other"));
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+
+        // The expensive hash is abandoned as soon as the cheap one matches
+        Hasher javaHasher = jargon2Hasher().backend(new JavaJargon2Backend()).type(Type.ARGON2id);
+        List<String> mixed = Arrays.asList(
+                javaHasher.memoryCost(256).timeCost(1).password(toByteArray("app1")).encodedHash(),
+                javaHasher.memoryCost(65536).timeCost(1).password(toByteArray("primary")).encodedHash().replace("t=1", "t=1000")
+        );
+        long start = System.nanoTime();
+        assertTrue(jargon2Verifier().backend(new JavaJargon2Backend()).verifyAny(mixed, toByteArray("app1")));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+
+        // Even when the calling thread has claimed the expensive hash, a match on the executor abandons it
+        Executor late = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        command.run();
+                    }
+                }).start();
+            }
+        };
+        start = System.nanoTime();
+        assertTrue(jargon2Verifier().backend(new JavaJargon2Backend()).executor(late).verifyAny(Arrays.asList(mixed.get(1), mixed.get(0)), toByteArray("app1")));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        try {
+            verifier.cancellation(cancelled).verifyAny(encodedHashes, toByteArray("primary"));
+            fail();
+        } catch (Jargon2CancelledException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void verifyAnyParallelismTest() throws Exception {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        List<String> encodedHashes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            encodedHashes.add(hasher.password(toByteArray("app" + i)).encodedHash());
+        }
+
+        // No more tasks are submitted than the threads of the executor, whatever the number of candidates
+        final AtomicInteger submitted = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        try {
+            Verifier verifier = jargon2Verifier().backend(new DummyJargon2Backend()).executor(pool);
+            for (boolean constantWork : new boolean[] {false, true}) {
+                submitted.set(0);
+                assertTrue(verifier.verifyAny(encodedHashes, toByteArray("app0"), constantWork));
+                assertTrue(submitted.get() <= 2);
+
+                submitted.set(0);
+                assertTrue(verifier.verifyAny(encodedHashes, toByteArray("app9"), constantWork));
+                assertTrue(submitted.get() <= 2);
+
+                submitted.set(0);
+                assertFalse(verifier.verifyAny(encodedHashes, toByteArray("other"), constantWork));
+                assertTrue(submitted.get() <= 2);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedHasherTest() throws Exception {
+        final Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024).password(new byte[8]);
+        final Verifier verifier = jargon2Verifier().backend(new DummyJargon2Backend()).password(new byte[8]);
+
+        String first = hasher.encodedHash();
+        String second = hasher.encodedHash();
+        assertThat(first, not(equalTo(second)));
+        assertThat(EncodedHash.parse(first).getSalt(), not(equalTo(EncodedHash.parse(second).getSalt())));
+
+        final List<String> encodedHashes = new ArrayList<>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 25; j++) {
+                        String encodedHash = hasher.encodedHash();
+                        synchronized (encodedHashes) {
+                            encodedHashes.add(encodedHash);
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, encodedHashes.size());
+        assertEquals(100, new HashSet<>(encodedHashes).size());
+        for (String encodedHash : encodedHashes) {
+            assertTrue(verifier.hash(encodedHash).verifyEncoded());
+        }
+    }
+
+    @Test
+    public void preparedTest() throws Exception {
+        ContextDummyJargon2Backend backend = new ContextDummyJargon2Backend();
+        Hasher hasher = jargon2Hasher().backend(backend).memoryCost(1024).secret(new byte[] {1, 2}).ad(new byte[] {3});
+        final PreparedHasher preparedHasher = hasher.prepare();
+        final PreparedVerifier preparedVerifier = jargon2Verifier().backend(backend).memoryCost(1024).secret(new byte[] {1, 2}).ad(new byte[] {3}).prepare();
+        assertEquals(1, backend.contexts.get());
+
+        byte[] salt = new byte[16];
+        byte[] password = "password".getBytes(StandardCharsets.UTF_8);
+        byte[] rawHash = hasher.salt(salt).password(password).rawHash();
+        assertArrayEquals(rawHash, preparedHasher.rawHash(salt, password));
+        assertArrayEquals(rawHash, preparedHasher.rawHash(salt, toByteArray(password)));
+        assertTrue(preparedVerifier.verifyRaw(rawHash, salt, password));
+        assertFalse(preparedVerifier.verifyRaw(rawHash, new byte[16], new byte[8]));
+
+        final String encodedHash = preparedHasher.encodedHash(toByteArray("password"));
+        assertTrue(preparedHasher.propertiesMatch(encodedHash));
+        assertFalse(preparedHasher.propertiesMatch(encodedHash.replace("m=1024", "m=2048")));
+        assertTrue(preparedVerifier.verifyEncoded(encodedHash, toByteArray("password")));
+        assertTrue(preparedVerifier.verifyEncoded(EncodedHash.parse(encodedHash), "password".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(preparedVerifier.verifyEncoded(encodedHash, toByteArray("wrong")));
+
+        // A prepared hasher owns copies of secret and additional data and is shared across threads
+        final List<Throwable> failures = new ArrayList<>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 10; j++) {
+                            byte[] password = ("password" + j).getBytes(StandardCharsets.UTF_8);
+                            assertTrue(preparedVerifier.verifyEncoded(preparedHasher.encodedHash(password), password));
+                        }
+                    } catch (Throwable t) {
+                        synchronized (failures) {
+                            failures.add(t);
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failures.size(), is(0));
+        assertEquals(1, backend.contexts.get());
+
+        try {
+            preparedHasher.rawHash(null, password);
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+
+        try {
+            jargon2Hasher().backend(new LimitedDummyJargon2Backend()).memoryCost(4096).prepare();
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parsedEncodedHashTest() {
+        byte[] password = "this is a password".getBytes(StandardCharsets.UTF_8);
+        byte[] secret = "this is a secret".getBytes(StandardCharsets.UTF_8);
+
+        for (Jargon2Backend backend : new Jargon2Backend[] {new DummyJargon2Backend(), new JavaJargon2Backend()}) {
+            String encodedHash = jargon2Hasher().backend(backend).type(Type.ARGON2id).memoryCost(64).timeCost(2).parallelism(2).secret(secret).password(password).encodedHash();
+            EncodedHash parsed = EncodedHash.parse(encodedHash);
+            assertEquals(Type.ARGON2id, parsed.getType());
+            assertEquals(Version.V13, parsed.getVersion());
+            assertEquals(64, parsed.getMemoryCost());
+            assertEquals(2, parsed.getTimeCost());
+            assertEquals(2, parsed.getLanes());
+            assertEquals(32, parsed.getHashLength());
+            assertEquals(encodedHash, parsed.toString());
+            assertEquals(parsed, EncodedHash.of(Type.ARGON2id, Version.V13, 64, 2, 2, parsed.getSalt(), parsed.getHash()));
+            assertEquals(encodedHash, EncodedHash.of(Type.ARGON2id, Version.V13, 64, 2, 2, parsed.getSalt(), parsed.getHash()).getEncoded());
+
+            parsed.getHash()[0]++;
+            Verifier verifier = jargon2Verifier().backend(backend).secret(secret);
+            assertTrue(verifier.hash(parsed).password(password).verifyEncoded());
+            assertTrue(verifier.hash(parsed).password(ByteBuffer.wrap(password)).verifyEncoded());
+            assertTrue(verifier.hash(parsed).threads(1).password(password).verifyEncoded());
+            assertFalse(verifier.hash(parsed).password(new byte[8]).verifyEncoded());
+            assertFalse(verifier.hash(parsed).ad("some ad".getBytes(StandardCharsets.UTF_8)).password(password).verifyEncoded());
+            assertTrue(jargon2LowLevelApi(backend).verifyEncoded(parsed, -1, secret, null, password, null));
+            assertFalse(jargon2LowLevelApi(backend).verifyEncoded(parsed, -1, null, null, password, null));
+        }
+
+        // Verification hands the parsed salt and hash to the backend without copying them
+        CapturingDummyJargon2Backend capturing = new CapturingDummyJargon2Backend();
+        EncodedHash parsed = EncodedHash.parse(jargon2Hasher().backend(capturing).password(password).encodedHash());
+        Verifier verifier = jargon2Verifier().backend(capturing);
+        assertTrue(verifier.hash(parsed).password(password).verifyEncoded());
+        byte[] salt = capturing.captured.salt;
+        byte[] rawHash = capturing.captured.rawHash;
+        assertTrue(verifier.hash(parsed).password(password).verifyEncoded());
+        assertSame(salt, capturing.captured.salt);
+        assertSame(rawHash, capturing.captured.rawHash);
+        assertArrayEquals(parsed.getSalt(), salt);
+
+        try {
+            EncodedHashAccess.register(new EncodedHashAccess() {
+                @Override
+                protected byte[] saltOf(EncodedHash encodedHash) {
+                    return null;
+                }
+
+                @Override
+                protected byte[] hashOf(EncodedHash encodedHash) {
+                    return null;
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void invalidParsedEncodedHashTest() {
+        EncodedHash.parse("$argon2i$v=19$m=64,t=1,p=1$c2FsdHNhbHQ$aGFzaGhhc2g$");
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void verifyEncodedBatchMissingRequestTest() {
+        jargon2LowLevelApi().verifyEncodedBatch(Arrays.asList(new VerifyRequest("$argon2i$v=19$m=64,t=1,p=1$c2FsdHNhbHQ$aGFzaGhhc2g", new byte[8]), null));
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void lowLevelApiRawBatchMismatchTest() {
+        jargon2LowLevelApi(DummyJargon2Backend.class).rawHashBatch(
+                Type.ARGON2id,
+                Version.V13,
+                64,
+                3,
+                2,
+                16,
+                new byte[2][16],
+                new byte[1][8]
+        );
+    }
+
+    @Test
+    public void byteBufferPasswordTest() {
+        byte[] passwordBytes = "this is a password".getBytes(StandardCharsets.UTF_8);
+        byte[] salt = "some salt".getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer password = ByteBuffer.allocateDirect(passwordBytes.length + 4);
+        password.put((byte) 1).put((byte) 2).put(passwordBytes).put((byte) 3).put((byte) 4);
+        password.position(2).limit(2 + passwordBytes.length);
+
+        for (Jargon2Backend backend : new Jargon2Backend[] {new DummyJargon2Backend(), new JavaJargon2Backend()}) {
+            Hasher hasher = jargon2Hasher().backend(backend).memoryCost(64).timeCost(1).salt(salt);
+            Verifier verifier = jargon2Verifier().backend(backend).memoryCost(64).timeCost(1).salt(salt);
+
+            byte[] rawHash = hasher.password(password).rawHash();
+            String encodedHash = hasher.password(password).encodedHash();
+
+            assertArrayEquals(hasher.password(passwordBytes).rawHash(), rawHash);
+            assertEquals(hasher.password(passwordBytes).encodedHash(), encodedHash);
+            assertTrue(verifier.hash(rawHash).password(password).verifyRaw());
+            assertTrue(verifier.hash(encodedHash).password(password).verifyEncoded());
+            assertTrue(verifier.hash(encodedHash).password(password.asReadOnlyBuffer()).verifyEncoded());
+            assertFalse(verifier.hash(encodedHash).password(ByteBuffer.wrap(salt)).verifyEncoded());
+            assertEquals(2, password.position());
+            assertEquals(2 + passwordBytes.length, password.limit());
+        }
+    }
+
+    @Test
+    public void lowLevelApiByteBufferTest() {
+        byte[] passwordBytes = "this is a password".getBytes(StandardCharsets.UTF_8);
+        byte[] saltBytes = "some salt".getBytes(StandardCharsets.UTF_8);
+        byte[] secretBytes = "this is a secret".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer password = ByteBuffer.wrap(Arrays.copyOf(passwordBytes, passwordBytes.length + 3), 0, passwordBytes.length);
+        ByteBuffer secret = ByteBuffer.allocateDirect(secretBytes.length);
+        secret.put(secretBytes).flip();
+
+        LowLevelApi lowLevelApi = jargon2LowLevelApi(DummyJargon2Backend.class);
+        byte[] rawHash = lowLevelApi.rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 16, secret, null, ByteBuffer.wrap(saltBytes), password, null);
+
+        assertArrayEquals(lowLevelApi.rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 16, secretBytes, null, saltBytes, passwordBytes, null), rawHash);
+        assertTrue(lowLevelApi.verifyRaw(Type.ARGON2id, Version.V13, 64, 1, 1, 1, rawHash, secret, null, ByteBuffer.wrap(saltBytes), password, null));
+        assertEquals(passwordBytes.length, password.remaining());
+        assertArrayEquals(passwordBytes, Arrays.copyOf(password.array(), passwordBytes.length));
+    }
+
+    @Test
+    public void rawHashIntoArrayTest() {
+        byte[] password = "this is a password".getBytes(StandardCharsets.UTF_8);
+        byte[] salt = "some salt".getBytes(StandardCharsets.UTF_8);
+
+        for (Jargon2Backend backend : new Jargon2Backend[] {new DummyJargon2Backend(), new JavaJargon2Backend()}) {
+            Hasher hasher = jargon2Hasher().backend(backend).memoryCost(64).timeCost(1).hashLength(16).salt(salt);
+            byte[] out = new byte[17];
+
+            hasher.password(password).rawHash(out);
+            assertArrayEquals(hasher.password(password).rawHash(), Arrays.copyOf(out, 16));
+            assertEquals(0, out[16]);
+
+            Arrays.fill(out, (byte) 0);
+            hasher.password(ByteBuffer.wrap(password)).rawHash(out);
+            assertArrayEquals(hasher.password(password).rawHash(), Arrays.copyOf(out, 16));
+        }
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void rawHashIntoShortArrayTest() {
+        jargon2Hasher().hashLength(16).salt(new byte[8]).password(new byte[8]).rawHash(new byte[15]);
+    }
+
+    @Test
+    public void lowLevelApiOutputTest() {
+        byte[] password = "this is a password".getBytes(StandardCharsets.UTF_8);
+        byte[] salt = "some salt".getBytes(StandardCharsets.UTF_8);
+
+        for (LowLevelApi lowLevelApi : new LowLevelApi[] {jargon2LowLevelApi(DummyJargon2Backend.class), jargon2LowLevelApi(JavaJargon2Backend.class)}) {
+            byte[] expected = lowLevelApi.rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 16, null, null, salt, password, null);
+
+            byte[] out = new byte[20];
+            lowLevelApi.rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 16, null, null, salt, password, null, out, 4);
+            assertArrayEquals(expected, Arrays.copyOfRange(out, 4, 20));
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(20);
+            lowLevelApi.rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 16, null, null, ByteBuffer.wrap(salt), ByteBuffer.wrap(password), null, buffer);
+            assertEquals(16, buffer.position());
+            byte[] hash = new byte[16];
+            buffer.flip();
+            buffer.get(hash);
+            assertArrayEquals(expected, hash);
+        }
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void lowLevelApiOutputTooShortTest() {
+        jargon2LowLevelApi().rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 16, null, null, new byte[8], new byte[8], null, new byte[20], 5);
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void lowLevelApiReadOnlyOutputTest() {
+        jargon2LowLevelApi().rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 16, null, null, ByteBuffer.wrap(new byte[8]), ByteBuffer.wrap(new byte[8]), null, ByteBuffer.allocate(16).asReadOnlyBuffer());
+    }
+
+    @Test
+    public void asyncTest() throws Exception {
+        byte[] password = "this is a password".getBytes(StandardCharsets.UTF_8);
+        Hasher hasher = jargon2Hasher().backend(JavaJargon2Backend.class).memoryCost(64).timeCost(1).salt("some salt".getBytes(StandardCharsets.UTF_8)).password(password);
+        Verifier verifier = jargon2Verifier().backend(JavaJargon2Backend.class).memoryCost(64).timeCost(1).salt("some salt".getBytes(StandardCharsets.UTF_8)).password(password);
+
+        CapturingCallback<String> callback = new CapturingCallback<>();
+        String encodedHash = hasher.encodedHashAsync(callback).get();
+        assertEquals(hasher.encodedHash(), encodedHash);
+        assertTrue(callback.await());
+        assertEquals(encodedHash, callback.result);
+        assertThat(callback.threadName, startsWith("jargon2-async-"));
+
+        byte[] rawHash = hasher.rawHashAsync().get();
+        assertArrayEquals(hasher.rawHash(), rawHash);
+
+        assertTrue(verifier.hash(encodedHash).verifyEncodedAsync().get());
+        assertTrue(verifier.hash(rawHash).password(ByteBuffer.wrap(password)).verifyRawAsync().get());
+        assertFalse(verifier.hash(rawHash).password(new byte[1]).verifyRawAsync().get(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void asyncBackendTest() throws Exception {
+        byte[] password = "this is a password".getBytes(StandardCharsets.UTF_8);
+        Hasher hasher = jargon2Hasher().backend(new AsyncDummyJargon2Backend()).password(password);
+        Verifier verifier = jargon2Verifier().backend(new AsyncDummyJargon2Backend()).password(password);
+
+        CapturingCallback<String> encodedCallback = new CapturingCallback<>();
+        String encodedHash = hasher.encodedHashAsync(encodedCallback).get();
+        assertTrue(encodedCallback.await());
+        assertEquals(AsyncDummyJargon2Backend.THREAD_NAME, encodedCallback.threadName);
+
+        CapturingCallback<Boolean> verifyCallback = new CapturingCallback<>();
+        assertTrue(verifier.hash(encodedHash).verifyEncodedAsync(verifyCallback).get());
+        assertTrue(verifyCallback.await());
+        assertEquals(AsyncDummyJargon2Backend.THREAD_NAME, verifyCallback.threadName);
+
+        byte[] rawHash = hasher.salt(new byte[16]).rawHashAsync().get();
+        assertTrue(verifier.salt(new byte[16]).hash(rawHash).verifyRawAsync().get());
+    }
+
+    @Test
+    public void asyncFailureTest() throws Exception {
+        CapturingCallback<byte[]> callback = new CapturingCallback<>();
+        Future<byte[]> future = jargon2Hasher().backend(DummyJargon2Backend.class).password(new byte[8]).rawHashAsync(callback);
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof Jargon2Exception);
+        }
+        assertTrue(callback.await());
+        assertTrue(callback.error instanceof Jargon2Exception);
+
+        Executor rejecting = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        };
+        future = jargon2Hasher().executor(rejecting).salt(new byte[8]).password(new byte[8]).rawHashAsync();
+        assertTrue(future.isDone());
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof Jargon2Exception);
+        }
+    }
+
+    @Test
+    public void asyncCancelTest() throws Exception {
+        final List<Runnable> queue = new ArrayList<>();
+        Executor queueing = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queue.add(command);
+            }
+        };
+        CapturingCallback<Boolean> callback = new CapturingCallback<>();
+        Future<Boolean> future = jargon2Verifier().backend(CapturingDummyJargon2Backend.class).executor(queueing).hash(new byte[16]).salt(new byte[8]).password(new byte[8]).verifyRawAsync(callback);
+
+        assertFalse(future.isDone());
+        assertTrue(future.cancel(false));
+        assertFalse(future.cancel(false));
+        assertTrue(future.isCancelled());
+        assertTrue(callback.error instanceof CancellationException);
+
+        queue.get(0).run();
+        try {
+            future.get();
+            fail();
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void capabilitiesTest() {
+        Jargon2BackendCapabilities dummy = Jargon2BackendCapabilities.of(new DummyJargon2Backend());
+        assertTrue(dummy.isThreadSafe());
+        assertFalse(dummy.isByteBuffers() || dummy.isOutput() || dummy.isBatch() || dummy.isAsync());
+        assertEquals(Jargon2BackendCapabilities.MAX_LANES, dummy.getMaxLanes());
+
+        Jargon2BackendCapabilities java = Jargon2BackendCapabilities.of(new JavaJargon2Backend());
+        assertTrue(java.isThreadSafe() && java.isParallelLanes());
+        assertTrue(java.isByteBuffers() && java.isOutput() && java.isBatch());
+        assertFalse(java.isAsync());
+
+        Jargon2BackendCapabilities limited = Jargon2BackendCapabilities.of(new LimitedDummyJargon2Backend());
+        assertFalse(limited.isThreadSafe());
+        assertTrue(limited.isAsync());
+        assertEquals(2, limited.getMaxLanes());
+        assertEquals(1024, limited.getMaxMemoryCost());
+    }
+
+    @Test
+    public void capabilitiesLimitsTest() throws Exception {
+        LimitedDummyJargon2Backend backend = new LimitedDummyJargon2Backend();
+        Hasher hasher = jargon2Hasher().backend(backend).memoryCost(1024).parallelism(2).salt(new byte[16]).password(new byte[8]);
+        hasher.encodedHash();
+        assertEquals(1, backend.calls.get());
+
+        for (Hasher overLimit : new Hasher[] {hasher.parallelism(3), hasher.memoryCost(2048)}) {
+            try {
+                overLimit.rawHash();
+                fail();
+            } catch (Jargon2Exception e) {
+                // expected
+            }
+            Future<String> future = overLimit.encodedHashAsync();
+            assertTrue(future.isDone());
+            try {
+                future.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof Jargon2Exception);
+            }
+        }
+        try {
+            jargon2LowLevelApi(backend).rawHash(Type.ARGON2i, Version.V13, 1024, 3, 4, 16, new byte[16], new byte[8]);
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+        assertEquals(1, backend.calls.get());
+    }
+
+    @Test
+    public void capabilitiesNotThreadSafeTest() throws Exception {
+        final LimitedDummyJargon2Backend backend = new LimitedDummyJargon2Backend();
+        final Hasher hasher = jargon2Hasher().backend(backend).memoryCost(1024).password(new byte[8]);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    hasher.encodedHash();
+                    jargon2LowLevelApi(backend).rawHash(Type.ARGON2i, Version.V13, 1024, 3, 1, 16, new byte[16], new byte[8]);
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(16, backend.calls.get());
+        assertEquals(1, backend.maxConcurrentCalls.get());
+
+        // The backend's own asynchronous path cannot be serialized, so calls go through the executor
+        CapturingCallback<String> callback = new CapturingCallback<>();
+        hasher.encodedHashAsync(callback).get();
+        assertTrue(callback.await());
+        assertThat(callback.threadName, startsWith("jargon2-async-"));
+    }
+
+    @Test
+    public void cancellationTest() throws Exception {
+        LimitedDummyJargon2Backend backend = new LimitedDummyJargon2Backend();
+        Hasher hasher = jargon2Hasher().backend(backend).memoryCost(1024).password(new byte[8]);
+        CancellationToken token = new CancellationToken();
+        String encodedHash = hasher.cancellation(token).encodedHash();
+        assertTrue(jargon2Verifier().backend(backend).cancellation(token).hash(encodedHash).password(new byte[8]).verifyEncoded());
+        assertEquals(1, backend.calls.get());
+
+        token.cancel();
+        try {
+            hasher.cancellation(token).encodedHash();
+            fail();
+        } catch (Jargon2CancelledException e) {
+            // expected
+        }
+        try {
+            jargon2Verifier().backend(backend).cancellation(token).hash(encodedHash).password(new byte[8]).verifyEncoded();
+            fail();
+        } catch (Jargon2CancelledException e) {
+            // expected
+        }
+        try {
+            jargon2Verifier().cancellation(CancellationToken.withTimeout(0, TimeUnit.SECONDS)).hash(encodedHash).password(new byte[8]).verifyEncoded();
+            fail();
+        } catch (Jargon2CancelledException e) {
+            // expected
+        }
+        assertEquals(1, backend.calls.get());
+    }
+
+    @Test
+    public void cancellationFastPathsTest() throws Exception {
+        final AtomicInteger bufferCalls = new AtomicInteger();
+        final AtomicInteger outputCalls = new AtomicInteger();
+        final AtomicInteger batchCalls = new AtomicInteger();
+        JavaJargon2Backend backend = new JavaJargon2Backend() {
+            @Override
+            public byte[] rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, ByteBuffer secret, ByteBuffer ad, ByteBuffer salt, ByteBuffer password, Map<String, Object> options, CancellationToken cancellation) {
+                bufferCalls.incrementAndGet();
+                return super.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, cancellation);
+            }
+
+            @Override
+            public void rawHash(Type type, Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options, byte[] out, int outOffset) {
+                outputCalls.incrementAndGet();
+                super.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options, out, outOffset);
+            }
+
+            @Override
+            public boolean[] verifyEncodedBatch(int threads, byte[] secret, byte[] ad, List<VerifyRequest> requests, Map<String, Object> options) {
+                batchCalls.incrementAndGet();
+                return super.verifyEncodedBatch(threads, secret, ad, requests, options);
+            }
+        };
+
+        // A token does not take the backend off its buffer, output and batch methods
+        Hasher hasher = jargon2Hasher().backend(backend).memoryCost(64).timeCost(1).salt(new byte[16]).cancellation(new CancellationToken());
+        byte[] rawHash = hasher.password(ByteBuffer.allocateDirect(8)).rawHash();
+        assertEquals(1, bufferCalls.get());
+        byte[] out = new byte[32];
+        hasher.password(new byte[8]).rawHash(out);
+        assertEquals(1, outputCalls.get());
+        assertArrayEquals(rawHash, out);
+        String encodedHash = hasher.password(new byte[8]).encodedHash();
+        assertArrayEquals(new boolean[] {true}, jargon2Verifier().backend(backend).cancellation(new CancellationToken())
+                .verifyEncodedBatch(Arrays.asList(new VerifyRequest(encodedHash, new byte[8]))));
+        assertEquals(1, batchCalls.get());
+
+        // The buffer method checks the token while hashing
+        long start = System.nanoTime();
+        try {
+            hasher.memoryCost(65536).timeCost(1000).cancellation(CancellationToken.withTimeout(200, TimeUnit.MILLISECONDS))
+                    .password(ByteBuffer.allocateDirect(8)).rawHash();
+            fail();
+        } catch (Jargon2CancelledException e) {
+            // expected
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        assertEquals(2, bufferCalls.get());
+    }
+
+    @Test
+    public void cancellationAfterQueueWaitTest() throws Exception {
+        final List<Runnable> queue = new ArrayList<>();
+        Executor queueing = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queue.add(command);
+            }
+        };
+        LimitedDummyJargon2Backend backend = new LimitedDummyJargon2Backend();
+        CancellationToken token = CancellationToken.withTimeout(50, TimeUnit.MILLISECONDS);
+        Future<String> future = jargon2Hasher().backend(backend).memoryCost(1024).password(new byte[8]).executor(queueing).cancellation(token).encodedHashAsync();
+        assertEquals(1, queue.size());
+
+        Thread.sleep(100);
+        queue.get(0).run();
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof Jargon2CancelledException);
+        }
+        assertEquals(0, backend.calls.get());
+
+        future = jargon2Hasher().backend(backend).memoryCost(1024).password(new byte[8]).executor(queueing).cancellation(token).encodedHashAsync();
+        assertTrue(future.isDone());
+        assertEquals(1, queue.size());
+    }
+
+    private static class CapturingCallback<T> implements Callback<T> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile T result;
+        private volatile Throwable error;
+        private volatile String threadName;
+
+        @Override
+        public void completed(T result) {
+            this.result = result;
+            this.threadName = Thread.currentThread().getName();
+            latch.countDown();
+        }
+
+        @Override
+        public void failed(Throwable error) {
+            this.error = error;
+            this.threadName = Thread.currentThread().getName();
+            latch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(1, TimeUnit.MINUTES);
+        }
+    }
+
     @Test(expected = Jargon2Exception.class)
     public void invalidBackendClassNameOnLowLevelApiTest() {
         jargon2LowLevelApi("invalid.class.Name");
@@ -844,4 +1911,20 @@ public class Jargon2Test {
         assertFalse(hasher.propertiesMatch(encodedHash.replace("$AAAAAAAAAAA", "$AAAAAAAAAAAAAAAAAAAAAA")));
         assertFalse(hasher.propertiesMatch(encodedHash.replace("$BBBBBBBBBBBBBBBBBBBBBB", "$BBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBB")));
     }
+
+    /**
+     * Replace the backend found by discovery, as if it had discovered the given one.
+     *
+     * @return The previously discovered backend
+     */
+    private static Object setDiscoveredBackend(Object backend) throws Exception {
+        Field backendField = Jargon2BackendDiscovery.class.getDeclaredField("backend");
+        Field capabilitiesField = Jargon2BackendDiscovery.class.getDeclaredField("capabilities");
+        backendField.setAccessible(true);
+        capabilitiesField.setAccessible(true);
+        Object previous = Jargon2BackendDiscovery.INSTANCE.getJargon2Backend();
+        backendField.set(Jargon2BackendDiscovery.INSTANCE, backend);
+        capabilitiesField.set(Jargon2BackendDiscovery.INSTANCE, null);
+        return previous;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.kosprov.jargon2.api;
+
+import com.kosprov.jargon2.spi.DescribedJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Declares itself not thread-safe, with at most 2 lanes and 1024 KiB of memory cost, and records how many hashes it
+ * computed and how many of them overlapped.
+ */
+public class LimitedDummyJargon2Backend extends AsyncDummyJargon2Backend implements DescribedJargon2Backend {
+
+    private static final Jargon2BackendCapabilities CAPABILITIES = Jargon2BackendCapabilities.DEFAULT
+            .threadSafe(false)
+            .maxLanes(2)
+            .maxMemoryCost(1024);
+
+    public final AtomicInteger calls = new AtomicInteger();
+    public final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+    private final AtomicInteger concurrentCalls = new AtomicInteger();
+
+    @Override
+    public Jargon2BackendCapabilities getCapabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public byte[] rawHash(Jargon2.Type type, Jargon2.Version version, int memoryCost, int timeCost, int lanes, int threads, int hashLength, byte[] secret, byte[] ad, byte[] salt, byte[] password, Map<String, Object> options) {
+        calls.incrementAndGet();
+        int concurrent = concurrentCalls.incrementAndGet();
+        try {
+            int max;
+            while ((max = maxConcurrentCalls.get()) < concurrent && !maxConcurrentCalls.compareAndSet(max, concurrent)) {
+                // retry
+            }
+            Thread.sleep(5);
+            return super.rawHash(type, version, memoryCost, timeCost, lanes, threads, hashLength, secret, ad, salt, password, options);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            concurrentCalls.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.kosprov.jargon2.backend;
+
+import com.kosprov.jargon2.api.CancellationToken;
+import com.kosprov.jargon2.api.Jargon2CancelledException;
+import com.kosprov.jargon2.api.Jargon2Exception;
+import com.kosprov.jargon2.api.VerifyRequest;
+import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendContext;
+import com.kosprov.jargon2.spi.Jargon2BackendException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+import static org.junit.Assert.*;
+
+public class JavaJargon2BackendTest {
+
+    private static final Map<String, Object> NO_OPTIONS = Collections.emptyMap();
+
+    private static final byte[] PASSWORD = "password".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SALT = "somesalt".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AD = "associated data".getBytes(StandardCharsets.US_ASCII);
+
+    private final Jargon2Backend backend = new JavaJargon2Backend();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void rfc9106Argon2dTest() {
+        assertRfc9106(Type.ARGON2d, "512b391b6f1162975371d30919734294f868e3be3984f3c1a13a4db9fabe4acb");
+    }
+
+    @Test
+    public void rfc9106Argon2iTest() {
+        assertRfc9106(Type.ARGON2i, "c814d9d1dc7f37aa13f0d77f2494bda1c8de6b016dd388d29952a4c4672b6ce8");
+    }
+
+    @Test
+    public void rfc9106Argon2idTest() {
+        assertRfc9106(Type.ARGON2id, "0d640df58d78766c08c037a34a8b53c9d01ef0452d75b65eb52520e96b01e659");
+    }
+
+    @Test
+    public void referenceImplementationVectorsTest() {
+        assertReference(Type.ARGON2i, Version.V10, 2, 256, 1, "fd4dd83d762c49bdeaf57c47bdcd0c2f1babf863fdeb490df63ede9975fccf06");
+        assertReference(Type.ARGON2i, Version.V10, 2, 256, 2, "b6c11560a6a9d61eac706b79a2f97d68b4463aa3ad87e00c07e2b01e90c564fb");
+        assertReference(Type.ARGON2i, Version.V13, 2, 256, 1, "89e9029f4637b295beb027056a7336c414fadd43f6b208645281cb214a56452f");
+        assertReference(Type.ARGON2i, Version.V13, 2, 256, 2, "4ff5ce2769a1d7f4c8a491df09d41a9fbe90e5eb02155a13e4c01e20cd4eab61");
+        assertReference(Type.ARGON2d, Version.V10, 3, 64, 4, "ce49825cc7612f3ca02f9ea6f87a4d20b651e82f995e2cfed599a90018544757");
+        assertReference(Type.ARGON2d, Version.V13, 2, 256, 2, "7b69c92d7c3889aad1281dbc8baefc12cc37c80f1c75e33ef2c2d40c28ebc573");
+        assertReference(Type.ARGON2id, Version.V10, 1, 16, 2, "91db230596a78c0f55dba2e9a5f20b46bd7583ca72eb2f3ada340905e119f98a");
+        assertReference(Type.ARGON2id, Version.V13, 3, 64, 4, "4f87cd309b72ccf982e3a0be0c36a2e8517923ca3eeaf28c6efc676d092fb6d5");
+    }
+
+    @Test
+    public void threadsDoNotAffectHashTest() {
+        for (Type type : Type.values()) {
+            byte[] expected = backend.rawHash(type, Version.V13, 512, 2, 8, 1, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+            for (int threads : new int[] {2, 3, 8, 16}) {
+                byte[] hash = backend.rawHash(type, Version.V13, 512, 2, 8, threads, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+                assertEquals(toHex(expected), toHex(hash));
+            }
+        }
+    }
+
+    @Test
+    public void directMemoryTest() {
+        Map<String, Object> direct = new HashMap<>();
+        direct.put(JavaJargon2Backend.MEMORY_OPTION, JavaJargon2Backend.MEMORY_DIRECT);
+
+        for (Type type : Type.values()) {
+            for (Version version : Version.values()) {
+                byte[] expected = backend.rawHash(type, version, 512, 3, 4, 1, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+                for (int threads : new int[] {1, 4}) {
+                    byte[] hash = backend.rawHash(type, version, 512, 3, 4, threads, 32, null, null, SALT, PASSWORD, direct);
+                    assertEquals(toHex(expected), toHex(hash));
+                    assertTrue(backend.verifyRaw(type, version, 512, 3, 4, threads, hash, null, null, SALT, PASSWORD, direct));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mappedMemoryTest() throws Exception {
+        Map<String, Object> mapped = new HashMap<>();
+        mapped.put(JavaJargon2Backend.MEMORY_OPTION, JavaJargon2Backend.MEMORY_MAPPED);
+        mapped.put(JavaJargon2Backend.MEMORY_DIRECTORY_OPTION, temporaryFolder.getRoot());
+
+        for (Type type : Type.values()) {
+            byte[] expected = backend.rawHash(type, Version.V13, 512, 3, 4, 1, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+            for (int threads : new int[] {1, 4}) {
+                byte[] hash = backend.rawHash(type, Version.V13, 512, 3, 4, threads, 32, null, null, SALT, PASSWORD, mapped);
+                assertEquals(toHex(expected), toHex(hash));
+                assertTrue(backend.verifyRaw(type, Version.V13, 512, 3, 4, threads, hash, null, null, SALT, PASSWORD, mapped));
+            }
+        }
+        assertEquals(0, temporaryFolder.getRoot().list().length);
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void mappedMemoryPoolTest() {
+        Map<String, Object> options = new HashMap<>();
+        options.put(JavaJargon2Backend.MEMORY_OPTION, JavaJargon2Backend.MEMORY_MAPPED);
+        options.put(JavaJargon2Backend.MEMORY_POOL_OPTION, true);
+        backend.rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 32, null, null, SALT, PASSWORD, options);
+    }
+
+    @Test
+    public void rawHashBatchTest() {
+        JavaJargon2Backend batchBackend = new JavaJargon2Backend();
+        byte[][] salts = {SALT, "othersalt".getBytes(StandardCharsets.US_ASCII), SALT};
+        byte[][] passwords = {PASSWORD, PASSWORD, "otherpassword".getBytes(StandardCharsets.US_ASCII)};
+        Map<String, Object> direct = new HashMap<>();
+        direct.put(JavaJargon2Backend.MEMORY_OPTION, JavaJargon2Backend.MEMORY_DIRECT);
+
+        for (Type type : Type.values()) {
+            for (Map<String, Object> options : Arrays.asList(NO_OPTIONS, direct)) {
+                byte[][] hashes = batchBackend.rawHashBatch(type, Version.V13, 256, 2, 2, 2, 32, null, null, salts, passwords, options);
+                assertEquals(salts.length, hashes.length);
+                for (int i = 0; i < salts.length; i++) {
+                    assertEquals(toHex(backend.rawHash(type, Version.V13, 256, 2, 2, 2, 32, null, null, salts[i], passwords[i], NO_OPTIONS)), toHex(hashes[i]));
+                }
+            }
+        }
+        assertEquals(0, batchBackend.rawHashBatch(Type.ARGON2i, Version.V13, 256, 2, 2, 2, 32, null, null, new byte[0][], new byte[0][], NO_OPTIONS).length);
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void rawHashBatchMissingPasswordTest() {
+        new JavaJargon2Backend().rawHashBatch(Type.ARGON2i, Version.V13, 256, 2, 2, 2, 32, null, null, new byte[][] {SALT, SALT}, new byte[][] {PASSWORD, null}, NO_OPTIONS);
+    }
+
+    @Test
+    public void verifyEncodedBatchTest() {
+        JavaJargon2Backend batchBackend = new JavaJargon2Backend();
+        byte[] otherPassword = "otherpassword".getBytes(StandardCharsets.US_ASCII);
+        String hash1 = backend.encodedHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS);
+        String hash2 = backend.encodedHash(Type.ARGON2i, Version.V13, 128, 1, 1, 1, 16, null, AD, SALT, PASSWORD, NO_OPTIONS);
+        String hash3 = backend.encodedHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, "othersalt".getBytes(StandardCharsets.US_ASCII), otherPassword, NO_OPTIONS);
+        List<VerifyRequest> requests = Arrays.asList(
+                new VerifyRequest(hash1, PASSWORD),
+                new VerifyRequest(hash2, otherPassword),
+                new VerifyRequest(hash3, otherPassword),
+                new VerifyRequest(hash2, PASSWORD),
+                new VerifyRequest(hash3, PASSWORD)
+        );
+
+        boolean[] results = batchBackend.verifyEncodedBatch(-1, null, AD, requests, NO_OPTIONS);
+        assertArrayEquals(new boolean[] {true, false, true, true, false}, results);
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(backend.verifyEncoded(requests.get(i).getEncodedHash(), 1, null, AD, requests.get(i).getPassword(), NO_OPTIONS), results[i]);
+        }
+        assertArrayEquals(new boolean[] {false}, batchBackend.verifyEncodedBatch(1, null, null, requests.subList(0, 1), NO_OPTIONS));
+
+        List<VerifyRequest> withMalformed = Arrays.asList(
+                new VerifyRequest(hash1, PASSWORD),
+                new VerifyRequest("$argon2id$v=19$m=256,t=2$c2FsdA$aGFzaA", PASSWORD),
+                new VerifyRequest(hash3, otherPassword)
+        );
+        assertArrayEquals(new boolean[] {true, false, true}, batchBackend.verifyEncodedBatch(-1, null, AD, withMalformed, NO_OPTIONS));
+    }
+
+    @Test(expected = Jargon2BackendException.class)
+    public void verifyEncodedBatchMissingHashTest() {
+        new JavaJargon2Backend().verifyEncodedBatch(-1, null, null, Arrays.asList(new VerifyRequest(null, PASSWORD)), NO_OPTIONS);
+    }
+
+    @Test
+    public void byteBufferTest() {
+        JavaJargon2Backend bufferBackend = new JavaJargon2Backend();
+        ByteBuffer password = ByteBuffer.allocateDirect(PASSWORD.length + 8);
+        password.position(5);
+        password.put(PASSWORD);
+        password.limit(password.position());
+        password.position(5);
+        ByteBuffer salt = ByteBuffer.wrap(("xx" + new String(SALT, StandardCharsets.US_ASCII)).getBytes(StandardCharsets.US_ASCII), 2, SALT.length).slice().asReadOnlyBuffer();
+
+        for (Type type : Type.values()) {
+            byte[] expected = backend.rawHash(type, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS);
+            byte[] hash = bufferBackend.rawHash(type, Version.V13, 256, 2, 2, 2, 32, null, ByteBuffer.wrap(AD), salt, password, NO_OPTIONS);
+            assertEquals(toHex(expected), toHex(hash));
+            assertTrue(bufferBackend.verifyRaw(type, Version.V13, 256, 2, 2, 2, hash, null, ByteBuffer.wrap(AD), salt, password, NO_OPTIONS));
+
+            String encodedHash = bufferBackend.encodedHash(type, Version.V13, 256, 2, 2, 2, 32, null, null, salt, password, NO_OPTIONS);
+            assertEquals(backend.encodedHash(type, Version.V13, 256, 2, 2, 2, 32, null, null, SALT, PASSWORD, NO_OPTIONS), encodedHash);
+            assertTrue(bufferBackend.verifyEncoded(encodedHash, -1, null, null, password, NO_OPTIONS));
+            assertFalse(bufferBackend.verifyEncoded(encodedHash, -1, null, null, salt, NO_OPTIONS));
+        }
+        assertEquals(5, password.position());
+        assertEquals(0, salt.position());
+    }
+
+    @Test
+    public void outputTest() {
+        JavaJargon2Backend outputBackend = new JavaJargon2Backend();
+        byte[] expected = backend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS);
+
+        byte[] out = new byte[40];
+        Arrays.fill(out, (byte) 0x55);
+        outputBackend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS, out, 3);
+        assertEquals(toHex(expected), toHex(Arrays.copyOfRange(out, 3, 35)));
+        assertEquals(0x55, out[2]);
+        assertEquals(0x55, out[35]);
+
+        for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(40), ByteBuffer.allocateDirect(40), ByteBuffer.wrap(new byte[44], 2, 40).slice()}) {
+            buffer.position(4);
+            outputBackend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, ByteBuffer.wrap(AD), ByteBuffer.wrap(SALT), ByteBuffer.wrap(PASSWORD), NO_OPTIONS, buffer);
+            assertEquals(36, buffer.position());
+            byte[] hash = new byte[32];
+            buffer.position(4);
+            buffer.get(hash);
+            assertEquals(toHex(expected), toHex(hash));
+        }
+    }
+
+    @Test
+    public void cancellationTest() {
+        JavaJargon2Backend cancellableBackend = new JavaJargon2Backend();
+        byte[] expected = backend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS);
+        assertEquals(toHex(expected), toHex(cancellableBackend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS, new CancellationToken())));
+        String encodedHash = cancellableBackend.encodedHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS, null);
+        assertTrue(cancellableBackend.verifyEncoded(encodedHash, -1, null, AD, PASSWORD, NO_OPTIONS, new CancellationToken()));
+
+        for (int threads : new int[] {1, 2}) {
+            CancellationToken token = CancellationToken.withTimeout(20, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            try {
+                cancellableBackend.rawHash(Type.ARGON2id, Version.V13, 65536, 100, 2, threads, 32, null, null, SALT, PASSWORD, NO_OPTIONS, token);
+                fail();
+            } catch (Jargon2CancelledException e) {
+                // expected
+            }
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        }
+
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        try {
+            cancellableBackend.verifyRaw(Type.ARGON2id, Version.V13, 256, 2, 2, 2, expected, null, AD, SALT, PASSWORD, NO_OPTIONS, cancelled);
+            fail();
+        } catch (Jargon2CancelledException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void contextTest() {
+        JavaJargon2Backend contextBackend = new JavaJargon2Backend();
+        byte[] expected = backend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS);
+        String expectedEncoded = backend.encodedHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, AD, SALT, PASSWORD, NO_OPTIONS);
+
+        Jargon2BackendContext context = contextBackend.openContext(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, NO_OPTIONS);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(toHex(expected), toHex(context.rawHash(null, AD, SALT, PASSWORD)));
+            assertEquals(expectedEncoded, context.encodedHash(null, AD, SALT, PASSWORD));
+            assertTrue(context.verifyRaw(expected, null, AD, SALT, PASSWORD));
+            assertFalse(context.verifyRaw(expected, null, null, SALT, PASSWORD));
+        }
+
+        context.close();
+        try {
+            context.rawHash(null, AD, SALT, PASSWORD);
+            fail();
+        } catch (Jargon2BackendException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void memoryPoolTest() {
+        JavaJargon2Backend pooledBackend = new JavaJargon2Backend(1, 1, TimeUnit.HOURS);
+        Map<String, Object> pooled = new HashMap<>();
+        pooled.put(JavaJargon2Backend.MEMORY_POOL_OPTION, true);
+
+        byte[] expected = backend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+        for (String memory : new String[] {JavaJargon2Backend.MEMORY_HEAP, JavaJargon2Backend.MEMORY_DIRECT}) {
+            pooled.put(JavaJargon2Backend.MEMORY_OPTION, memory);
+            for (int i = 0; i < 3; i++) {
+                byte[] hash = pooledBackend.rawHash(Type.ARGON2id, Version.V13, 256, 2, 2, 2, 32, null, null, SALT, PASSWORD, pooled);
+                assertEquals(toHex(expected), toHex(hash));
+            }
+        }
+
+        assertEquals(4, pooledBackend.getPoolHits());
+        assertEquals(2, pooledBackend.getPoolMisses());
+        assertEquals(2, pooledBackend.getPoolIdleCount());
+
+        pooledBackend.clearPool();
+        assertEquals(0, pooledBackend.getPoolIdleCount());
+    }
+
+    @Test
+    public void addressCacheTest() {
+        JavaJargon2Backend cachingBackend = new JavaJargon2Backend();
+        Map<String, Object> cached = Collections.<String, Object>singletonMap(JavaJargon2Backend.ADDRESS_CACHE_OPTION, true);
+
+        for (Type type : Type.values()) {
+            for (Version version : Version.values()) {
+                byte[] expected = backend.rawHash(type, version, 512, 3, 4, 1, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+                for (int threads : new int[] {1, 1, 4}) {
+                    byte[] hash = cachingBackend.rawHash(type, version, 512, 3, 4, threads, 32, null, null, SALT, PASSWORD, cached);
+                    assertEquals(toHex(expected), toHex(hash));
+                }
+            }
+        }
+
+        // One table per type that has data-independent segments, shared by both versions
+        assertEquals(2, cachingBackend.getAddressCacheMisses());
+        assertEquals(10, cachingBackend.getAddressCacheHits());
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void invalidMemoryOptionTest() {
+        backend.rawHash(Type.ARGON2i, Version.V13, 64, 1, 1, 1, 32, null, null, SALT, PASSWORD, Collections.<String, Object>singletonMap(JavaJargon2Backend.MEMORY_OPTION, "stack"));
+    }
+
+    @Test
+    public void longOutputTest() {
+        byte[] hash = backend.rawHash(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 200, null, null, SALT, PASSWORD, NO_OPTIONS);
+        assertEquals(200, hash.length);
+        assertTrue(backend.verifyRaw(Type.ARGON2id, Version.V13, 64, 1, 1, 1, hash, null, null, SALT, PASSWORD, NO_OPTIONS));
+    }
+
+    @Test
+    public void encodedHashTest() {
+        String encodedHash = backend.encodedHash(Type.ARGON2i, Version.V13, 256, 2, 1, 1, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+        assertEquals("$argon2i$v=19$m=256,t=2,p=1$c29tZXNhbHQ$iekCn0Y3spW+sCcFanM2xBT63UP2sghkUoHLIUpWRS8", encodedHash);
+
+        assertTrue(backend.verifyEncoded(encodedHash, -1, null, null, PASSWORD, NO_OPTIONS));
+        assertFalse(backend.verifyEncoded(encodedHash, -1, null, null, "Password".getBytes(StandardCharsets.US_ASCII), NO_OPTIONS));
+    }
+
+    @Test
+    public void encodedHashV10OmitsVersionTest() {
+        String encodedHash = backend.encodedHash(Type.ARGON2i, Version.V10, 256, 2, 2, 2, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+        assertEquals("$argon2i$m=256,t=2,p=2$c29tZXNhbHQ$tsEVYKap1h6scGt5ovl9aLRGOqOth+AMB+KwHpDFZPs", encodedHash);
+
+        assertTrue(backend.verifyEncoded(encodedHash, 1, null, null, PASSWORD, NO_OPTIONS));
+        assertTrue(backend.verifyEncoded("$argon2i$v=16$m=256,t=2,p=2$c29tZXNhbHQ$tsEVYKap1h6scGt5ovl9aLRGOqOth+AMB+KwHpDFZPs", -1, null, null, PASSWORD, NO_OPTIONS));
+    }
+
+    @Test
+    public void keyedHashingTest() {
+        byte[] secret = "secret".getBytes(StandardCharsets.US_ASCII);
+        byte[] ad = "ad".getBytes(StandardCharsets.US_ASCII);
+
+        String encodedHash = backend.encodedHash(Type.ARGON2id, Version.V13, 64, 1, 2, 2, 16, secret, ad, SALT, PASSWORD, NO_OPTIONS);
+
+        assertTrue(backend.verifyEncoded(encodedHash, -1, secret, ad, PASSWORD, NO_OPTIONS));
+        assertFalse(backend.verifyEncoded(encodedHash, -1, null, ad, PASSWORD, NO_OPTIONS));
+        assertFalse(backend.verifyEncoded(encodedHash, -1, secret, null, PASSWORD, NO_OPTIONS));
+    }
+
+    @Test
+    public void fluentApiTest() {
+        String hash = jargon2Hasher()
+                .backend(backend)
+                .type(Type.ARGON2id)
+                .memoryCost(64)
+                .timeCost(2)
+                .parallelism(2)
+                .password(PASSWORD)
+                .encodedHash();
+
+        assertTrue(jargon2Verifier().backend(backend).hash(hash).password(PASSWORD).verifyEncoded());
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void shortSaltTest() {
+        backend.rawHash(Type.ARGON2i, Version.V13, 64, 1, 1, 1, 32, null, null, new byte[7], PASSWORD, NO_OPTIONS);
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void lowMemoryCostTest() {
+        backend.rawHash(Type.ARGON2i, Version.V13, 15, 1, 2, 2, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void invalidEncodedHashTest() {
+        backend.verifyEncoded("$argon2x$v=19$m=256,t=2,p=1$c29tZXNhbHQ$iekCn0Y3spW+sCcFanM2xBT63UP2sghkUoHLIUpWRS8", -1, null, null, PASSWORD, NO_OPTIONS);
+    }
+
+    private void assertRfc9106(Type type, String expectedHex) {
+        byte[] password = new byte[32];
+        byte[] salt = new byte[16];
+        byte[] secret = new byte[8];
+        byte[] ad = new byte[12];
+        Arrays.fill(password, (byte) 0x01);
+        Arrays.fill(salt, (byte) 0x02);
+        Arrays.fill(secret, (byte) 0x03);
+        Arrays.fill(ad, (byte) 0x04);
+
+        byte[] hash = backend.rawHash(type, Version.V13, 32, 3, 4, 4, 32, secret, ad, salt, password, NO_OPTIONS);
+
+        assertEquals(expectedHex, toHex(hash));
+    }
+
+    private void assertReference(Type type, Version version, int timeCost, int memoryCost, int lanes, String expectedHex) {
+        byte[] hash = backend.rawHash(type, version, memoryCost, timeCost, lanes, lanes, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+        assertEquals(expectedHex, toHex(hash));
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.kosprov.jargon2.backend;
+
+import com.kosprov.jargon2.api.Jargon2Exception;
+import com.kosprov.jargon2.spi.ByteBufferJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2Backend;
+import com.kosprov.jargon2.spi.OutputJargon2Backend;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNoException;
+
+/**
+ * Runs only on Java 22+ with libargon2 installed, since the backend is in the Java 22 part of the multi-release jar.
+ */
+public class NativeJargon2BackendTest {
+
+    private static final Map<String, Object> NO_OPTIONS = Collections.emptyMap();
+
+    private static final byte[] PASSWORD = "password".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SALT = "somesalt".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SECRET = "secret".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AD = "ad".getBytes(StandardCharsets.US_ASCII);
+
+    private final Jargon2Backend javaBackend = new JavaJargon2Backend();
+    private Jargon2Backend backend;
+
+    @Before
+    public void setUp() {
+        try {
+            backend = (Jargon2Backend) Class.forName("com.kosprov.jargon2.backend.NativeJargon2Backend").newInstance();
+        } catch (Throwable t) {
+            assumeNoException(t);
+        }
+    }
+
+    @Test
+    public void rawHashTest() {
+        for (Type type : Type.values()) {
+            for (Version version : Version.values()) {
+                byte[] expected = javaBackend.rawHash(type, version, 256, 2, 4, 1, 32, SECRET, AD, SALT, PASSWORD, NO_OPTIONS);
+                byte[] hash = backend.rawHash(type, version, 256, 2, 4, 2, 32, SECRET, AD, SALT, PASSWORD, NO_OPTIONS);
+                assertArrayEquals(expected, hash);
+                assertTrue(backend.verifyRaw(type, version, 256, 2, 4, 2, hash, SECRET, AD, SALT, PASSWORD, NO_OPTIONS));
+                assertFalse(backend.verifyRaw(type, version, 256, 2, 4, 2, hash, null, AD, SALT, PASSWORD, NO_OPTIONS));
+            }
+        }
+    }
+
+    @Test
+    public void encodedHashTest() {
+        String encodedHash = backend.encodedHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, null, null, SALT, PASSWORD, NO_OPTIONS);
+
+        assertEquals(javaBackend.encodedHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, null, null, SALT, PASSWORD, NO_OPTIONS), encodedHash);
+        assertTrue(backend.verifyEncoded(encodedHash, -1, null, null, PASSWORD, NO_OPTIONS));
+        assertFalse(backend.verifyEncoded(encodedHash, -1, null, null, SALT, NO_OPTIONS));
+    }
+
+    @Test
+    public void byteBufferTest() {
+        ByteBufferJargon2Backend bufferBackend = (ByteBufferJargon2Backend) backend;
+        ByteBuffer password = ByteBuffer.allocateDirect(PASSWORD.length);
+        password.put(PASSWORD);
+        password.flip();
+        ByteBuffer secret = ByteBuffer.wrap(SECRET).asReadOnlyBuffer();
+
+        byte[] expected = javaBackend.rawHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, SECRET, null, SALT, PASSWORD, NO_OPTIONS);
+        byte[] hash = bufferBackend.rawHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, secret, null, ByteBuffer.wrap(SALT), password, NO_OPTIONS);
+
+        assertArrayEquals(expected, hash);
+        assertTrue(bufferBackend.verifyRaw(Type.ARGON2id, Version.V13, 64, 3, 1, 1, hash, secret, null, ByteBuffer.wrap(SALT), password, NO_OPTIONS));
+        assertEquals(0, password.position());
+        assertEquals(PASSWORD[0], password.get(0));
+    }
+
+    @Test
+    public void outputTest() {
+        OutputJargon2Backend outputBackend = (OutputJargon2Backend) backend;
+        byte[] expected = javaBackend.rawHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, SECRET, AD, SALT, PASSWORD, NO_OPTIONS);
+
+        byte[] out = new byte[36];
+        outputBackend.rawHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, SECRET, AD, SALT, PASSWORD, NO_OPTIONS, out, 4);
+        assertArrayEquals(expected, Arrays.copyOfRange(out, 4, 36));
+
+        for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(36), ByteBuffer.allocateDirect(36)}) {
+            buffer.position(4);
+            outputBackend.rawHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, ByteBuffer.wrap(SECRET), ByteBuffer.wrap(AD), ByteBuffer.wrap(SALT), ByteBuffer.wrap(PASSWORD), NO_OPTIONS, buffer);
+            assertEquals(36, buffer.position());
+            byte[] hash = new byte[32];
+            buffer.position(4);
+            buffer.get(hash);
+            assertArrayEquals(expected, hash);
+        }
+    }
+
+    @Test(expected = Jargon2Exception.class)
+    public void libraryErrorTest() {
+        backend.rawHash(Type.ARGON2id, Version.V13, 64, 3, 1, 1, 32, null, null, new byte[4], PASSWORD, NO_OPTIONS);
+    }
+}
@@ -0,0 +1,32 @@
+package com.kosprov.jargon2.internal;
+
+import com.kosprov.jargon2.backend.JavaJargon2Backend;
+import com.kosprov.jargon2.spi.Jargon2BackendCapabilities;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BulkHashIteratorTest {
+
+    private static final Map<String, Object> NO_OPTIONS = Collections.emptyMap();
+
+    @Test
+    public void windowTest() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        Jargon2BackendCapabilities parallel = Jargon2BackendCapabilities.DEFAULT.parallelLanes(true);
+        Jargon2BackendCapabilities sequential = Jargon2BackendCapabilities.DEFAULT;
+
+        // Only a backend that computes lanes in parallel takes several processors per hash
+        assertEquals(1, BulkHashIterator.window(parallel, 8, processors, NO_OPTIONS));
+        assertEquals(processors, BulkHashIterator.window(sequential, 8, processors, NO_OPTIONS));
+        assertEquals(processors, BulkHashIterator.window(parallel, 8, 1, NO_OPTIONS));
+
+        assertEquals(1, BulkHashIterator.window(sequential, Integer.MAX_VALUE, 1, NO_OPTIONS));
+        assertEquals(1, BulkHashIterator.window(sequential, Integer.MAX_VALUE, 1, Collections.<String, Object>singletonMap(JavaJargon2Backend.MEMORY_OPTION, JavaJargon2Backend.MEMORY_DIRECT)));
+        // Mapped matrices are not taken from the heap
+        assertEquals(processors, BulkHashIterator.window(sequential, Integer.MAX_VALUE, 1, Collections.<String, Object>singletonMap(JavaJargon2Backend.MEMORY_OPTION, JavaJargon2Backend.MEMORY_MAPPED)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import org.junit.Test;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+import static com.kosprov.jargon2.api.Jargon2.Version;
+import static org.junit.Assert.*;
+
+public class AddressCacheTest {
+
+    @Test
+    public void evictionTest() {
+        // Argon2i with t=1, m=64 needs 64 ints
+        AddressCache cache = new AddressCache(2 * 64 * 4);
+        Argon2Engine first = new Argon2Engine(Type.ARGON2i, Version.V13, 64, 1, 1, 1, 32, cache);
+        Argon2Engine second = new Argon2Engine(Type.ARGON2i, Version.V13, 64, 1, 2, 1, 32, cache);
+        Argon2Engine third = new Argon2Engine(Type.ARGON2i, Version.V13, 64, 1, 4, 1, 32, cache);
+
+        int[] references = cache.references(first);
+        assertSame(references, cache.references(first));
+        cache.references(second);
+        cache.references(third);
+        assertEquals(2 * 64 * 4, cache.getBytes());
+
+        assertNotSame(references, cache.references(first));
+        assertEquals(4, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void notCacheableTest() {
+        AddressCache cache = new AddressCache(64 * 4 - 1);
+
+        assertNull(cache.references(new Argon2Engine(Type.ARGON2i, Version.V13, 64, 1, 1, 1, 32, cache)));
+        assertNull(cache.references(new Argon2Engine(Type.ARGON2d, Version.V13, 64, 1, 1, 1, 32, cache)));
+        assertNotNull(cache.references(new Argon2Engine(Type.ARGON2id, Version.V13, 64, 1, 1, 1, 32, cache)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class Blake2bTest {
+
+    @Test
+    public void rfc7693Test() {
+        assertEquals(
+                "ba80a53f981c4d0d6a2797b69f12f6e94c212f14685ac4b74b12bb6fdbffa2d17d87c5392aab792dc252d5de4533cc9518d38aa8dbf1925ab92386edd4009923",
+                digest(new Blake2b().reset(64).update("abc".getBytes(StandardCharsets.US_ASCII)), 64)
+        );
+    }
+
+    @Test
+    public void keyedTest() {
+        byte[] key = sequence(64);
+
+        assertEquals(
+                "10ebb67700b1868efb4417987acf4690ae9d972fb7a590c2f02871799aaa4786b5e996e8f0f4eb981fc214b005f42d2ff4233499391653df7aefcbc13fc51568",
+                digest(new Blake2b().reset(64, key, 0, key.length), 64)
+        );
+        assertEquals(
+                "142709d62e28fcccd0af97fad0f8465b971e82201dc51070faa0372aa43e92484be1c1e73ba10906d5d1853db6a4106e0a7bf9800d373d6dee2d46d62ef2a461",
+                digest(new Blake2b().reset(64, key, 0, key.length).update(sequence(255)), 64)
+        );
+        assertEquals(
+                "e32604f46fa2c57bcf86282234be0b821b98fe58b65ce24b926bf44bcd934194",
+                digest(new Blake2b().reset(32, "key".getBytes(StandardCharsets.US_ASCII), 0, 3).update(sequence(128)), 32)
+        );
+    }
+
+    @Test
+    public void resetTest() {
+        Blake2b blake2b = new Blake2b();
+        byte[] key = sequence(64);
+
+        String keyed = digest(blake2b.reset(64, key, 0, key.length).update(sequence(255)), 64);
+        String plain = digest(blake2b.reset(64).update("abc".getBytes(StandardCharsets.US_ASCII)), 64);
+        blake2b.wipe();
+
+        assertEquals(digest(new Blake2b().reset(64, key, 0, key.length).update(sequence(255)), 64), keyed);
+        assertEquals(digest(new Blake2b().reset(64).update("abc".getBytes(StandardCharsets.US_ASCII)), 64), plain);
+    }
+
+    @Test
+    public void splitIntUpdatesTest() {
+        byte[] data = sequence(126);
+        String expected = digest(new Blake2b().reset(64).update(data).update(sequence(8)), 64);
+
+        Blake2b blake2b = new Blake2b().reset(64).update(data);
+        blake2b.update(0x03020100).update(0x07060504);
+
+        assertEquals(expected, digest(blake2b, 64));
+    }
+
+    @Test
+    public void byteBufferUpdateTest() {
+        byte[] data = sequence(300);
+        String expected = digest(new Blake2b().reset(64).update(data, 10, 270), 64);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data);
+        direct.position(10);
+        direct.limit(280);
+
+        assertEquals(expected, digest(new Blake2b().reset(64).update(direct), 64));
+        assertEquals(expected, digest(new Blake2b().reset(64).update(ByteBuffer.wrap(data, 10, 270)), 64));
+        assertEquals(
+                digest(new Blake2b().reset(64).update(sequence(5)).update(data, 10, 270), 64),
+                digest(new Blake2b().reset(64).update(sequence(5)).update(direct), 64)
+        );
+        assertEquals(10, direct.position());
+    }
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    private static String digest(Blake2b blake2b, int length) {
+        byte[] out = new byte[length];
+        blake2b.digest(out, 0);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : out) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
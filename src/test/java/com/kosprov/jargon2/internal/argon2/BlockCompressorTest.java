@@ -0,0 +1,46 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.QWORDS_IN_BLOCK;
+import static org.junit.Assert.*;
+
+public class BlockCompressorTest {
+
+    @Test
+    public void sameOutputAsScalarTest() {
+        BlockCompressor scalar = new ScalarBlockCompressor();
+        BlockCompressor compressor = BlockCompressor.create();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 64; i++) {
+            long[] memory = new long[4 * QWORDS_IN_BLOCK];
+            for (int j = 0; j < memory.length; j++) {
+                memory[j] = random.nextLong();
+            }
+            long[] expected = Arrays.copyOf(memory, memory.length);
+            boolean withXor = (i & 1) == 1;
+
+            scalar.compress(expected, 0, expected, QWORDS_IN_BLOCK, expected, 3 * QWORDS_IN_BLOCK, withXor);
+            compressor.compress(memory, 0, memory, QWORDS_IN_BLOCK, memory, 3 * QWORDS_IN_BLOCK, withXor);
+
+            assertArrayEquals(expected, memory);
+        }
+    }
+
+    @Test
+    public void vectorizedWhenRequestedTest() {
+        boolean expected;
+        try {
+            Class.forName("jdk.incubator.vector.LongVector");
+            Class.forName("com.kosprov.jargon2.internal.argon2.VectorBlockCompressor");
+            expected = Boolean.parseBoolean(System.getProperty(BlockCompressor.VECTORIZE_PROPERTY, "false"));
+        } catch (ClassNotFoundException e) {
+            expected = false;
+        }
+        assertEquals(expected, BlockCompressor.isVectorized());
+    }
+}
@@ -0,0 +1,68 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.kosprov.jargon2.internal.argon2.Argon2Engine.QWORDS_IN_BLOCK;
+import static org.junit.Assert.*;
+
+public class BlockMemoryPoolTest {
+
+    @Test
+    public void reuseTest() {
+        BlockMemoryPool pool = new BlockMemoryPool(BlockMemoryAllocator.HEAP, 2, 1, TimeUnit.HOURS);
+
+        BlockMemory first = pool.allocate(16);
+        pool.release(first);
+        assertEquals(1, pool.getIdleCount());
+
+        assertSame(first, pool.allocate(16));
+        assertNotSame(first, pool.allocate(32));
+
+        assertEquals(1, pool.getHits());
+        assertEquals(2, pool.getMisses());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void maxIdleTest() {
+        BlockMemoryPool pool = new BlockMemoryPool(BlockMemoryAllocator.HEAP, 2, 1, TimeUnit.HOURS);
+
+        BlockMemory[] memories = {pool.allocate(16), pool.allocate(16), pool.allocate(16)};
+        for (BlockMemory memory : memories) {
+            pool.release(memory);
+        }
+        assertEquals(2, pool.getIdleCount());
+
+        pool.clear();
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void trimTest() {
+        BlockMemoryPool pool = new BlockMemoryPool(BlockMemoryAllocator.DIRECT, 2, 0, TimeUnit.NANOSECONDS);
+
+        pool.release(pool.allocate(16));
+        pool.trim();
+
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void wipedOnReleaseTest() {
+        BlockMemoryPool pool = new BlockMemoryPool(BlockMemoryAllocator.DIRECT, 1, 1, TimeUnit.HOURS);
+        long[] block = new long[QWORDS_IN_BLOCK];
+
+        BlockMemory memory = pool.allocate(4);
+        block[0] = 42;
+        memory.accessor().write(3, block, 0);
+        pool.release(memory);
+
+        assertSame(memory, pool.allocate(4));
+        memory.accessor().read(3, block, 0);
+        assertEquals(0, block[0]);
+        pool.release(memory);
+        pool.clear();
+    }
+}
@@ -0,0 +1,42 @@
+package com.kosprov.jargon2.internal.argon2;
+
+import org.junit.Test;
+
+import static com.kosprov.jargon2.api.Jargon2.Type;
+import static com.kosprov.jargon2.api.Jargon2.Version;
+import static org.junit.Assert.*;
+
+public class EncodedHashMatcherTest {
+
+    @Test
+    public void matchesTest() {
+        for (Version version : Version.values()) {
+            EncodedHashMatcher matcher = EncodedHashMatcher.of(Type.ARGON2id, version, 4096, 3, 2, 16, 32);
+            String encodedHash = Argon2Encoding.encode(Type.ARGON2id, version, 4096, 3, 2, new byte[16], new byte[32]);
+            assertTrue(matcher.matches(encodedHash));
+
+            assertFalse(matcher.matches(null));
+            assertFalse(matcher.matches(""));
+            assertFalse(matcher.matches(encodedHash.replace("m=4096", "m=4097")));
+            assertFalse(matcher.matches(encodedHash + "A"));
+            assertFalse(matcher.matches(encodedHash.substring(0, encodedHash.length() - 1)));
+            assertFalse(matcher.matches(encodedHash.substring(0, encodedHash.length() - 1) + "="));
+            assertFalse(matcher.matches(Argon2Encoding.encode(Type.ARGON2i, version, 4096, 3, 2, new byte[16], new byte[32])));
+            assertFalse(matcher.matches(Argon2Encoding.encode(Type.ARGON2id, version, 4096, 3, 2, new byte[15], new byte[33])));
+
+            // Salt and hash boundary moved by one character
+            int separator = encodedHash.lastIndexOf('$');
+            String moved = encodedHash.substring(0, separator - 1) + "$A" + encodedHash.substring(separator + 1);
+            assertFalse(matcher.matches(moved));
+        }
+    }
+
+    @Test
+    public void sharedTest() {
+        EncodedHashMatcher matcher = EncodedHashMatcher.of(Type.ARGON2i, Version.V13, 1024, 2, 1, 16, 32);
+        assertSame(matcher, EncodedHashMatcher.of(Type.ARGON2i, Version.V13, 1024, 2, 1, 16, 32));
+        assertNotSame(matcher, EncodedHashMatcher.of(Type.ARGON2i, Version.V13, 1024, 2, 1, 16, 64));
+        assertTrue(matcher.isFor(Type.ARGON2i, Version.V13, 1024, 2, 1, 16, 32));
+        assertFalse(matcher.isFor(Type.ARGON2i, Version.V10, 1024, 2, 1, 16, 32));
+    }
+}
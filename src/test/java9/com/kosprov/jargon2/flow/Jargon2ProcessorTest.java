@@ -0,0 +1,268 @@
+package com.kosprov.jargon2.flow;
+
+import com.kosprov.jargon2.api.DummyJargon2Backend;
+import com.kosprov.jargon2.api.EncodedHashResult;
+import com.kosprov.jargon2.api.Jargon2Exception;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.kosprov.jargon2.api.Jargon2.*;
+import static org.junit.Assert.*;
+
+/**
+ * Runs only on Java 9+, since the processor is in the Java 9 part of the multi-release jar.
+ */
+public class Jargon2ProcessorTest {
+
+    @Test
+    public void hashingTest() throws Exception {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        Jargon2Processor<ByteArray, EncodedHashResult> processor = Jargon2Processor.hashing(hasher, 4);
+
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            passwords.add("password" + i);
+        }
+        Recorder<EncodedHashResult> recorder = new Recorder<>(Long.MAX_VALUE);
+        processor.subscribe(recorder);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            try (SubmissionPublisher<ByteArray> publisher = new SubmissionPublisher<>(executor, 8)) {
+                publisher.subscribe(processor);
+                for (String password : passwords) {
+                    publisher.submit(toByteArray(password));
+                }
+            }
+            recorder.await();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertNull(recorder.error);
+        assertEquals(passwords.size(), recorder.items.size());
+        Verifier verifier = jargon2Verifier().backend(new DummyJargon2Backend());
+        for (int i = 0; i < passwords.size(); i++) {
+            EncodedHashResult result = recorder.items.get(i);
+            assertTrue(result.isSuccess());
+            assertTrue(verifier.hash(result.getEncodedHash()).password(toByteArray(passwords.get(i))).verifyEncoded());
+        }
+    }
+
+    @Test
+    public void verifyingTest() throws Exception {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        String encodedHash = hasher.password(toByteArray("password")).encodedHash();
+        Jargon2Processor<VerificationRequest, VerificationResult> processor = Jargon2Processor.verifying(jargon2Verifier().backend(new DummyJargon2Backend()), 2);
+
+        Recorder<VerificationResult> recorder = new Recorder<>(Long.MAX_VALUE);
+        processor.subscribe(recorder);
+        new Source<>(
+                VerificationRequest.of(encodedHash, toByteArray("password")),
+                VerificationRequest.of(encodedHash, toByteArray("wrong")),
+                VerificationRequest.of("invalid", toByteArray("password"))
+        ).subscribe(processor);
+        recorder.await();
+
+        assertNull(recorder.error);
+        assertEquals(3, recorder.items.size());
+        assertTrue(recorder.items.get(0).isMatch());
+        assertTrue(recorder.items.get(1).isSuccess());
+        assertFalse(recorder.items.get(1).isMatch());
+        assertFalse(recorder.items.get(2).isSuccess());
+        assertTrue(recorder.items.get(2).getFailure() instanceof Jargon2Exception);
+    }
+
+    @Test
+    public void backpressureTest() throws Exception {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        Jargon2Processor<ByteArray, EncodedHashResult> processor = Jargon2Processor.hashing(hasher, 3);
+
+        Recorder<EncodedHashResult> recorder = new Recorder<>(0);
+        processor.subscribe(recorder);
+        Source<ByteArray> source = new Source<>(Collections.nCopies(20, toByteArray("password")).toArray(new ByteArray[0]));
+        source.subscribe(processor);
+
+        // Upstream is asked for the concurrency limit only, however long downstream waits
+        Thread.sleep(200);
+        assertEquals(3, source.requested.get());
+        assertTrue(recorder.items.isEmpty());
+
+        recorder.subscription.request(5);
+        recorder.awaitItems(5);
+        Thread.sleep(100);
+        assertEquals(5, recorder.items.size());
+        assertEquals(8, source.requested.get());
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        recorder.await();
+        assertEquals(20, recorder.items.size());
+    }
+
+    @Test
+    public void upstreamErrorTest() throws Exception {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        Jargon2Processor<ByteArray, EncodedHashResult> processor = Jargon2Processor.hashing(hasher, 2);
+
+        Recorder<EncodedHashResult> recorder = new Recorder<>(Long.MAX_VALUE);
+        processor.subscribe(recorder);
+        Source<ByteArray> source = new Source<>(toByteArray("password"));
+        source.completes = false;
+        source.subscribe(processor);
+        recorder.awaitItems(1);
+        IllegalStateException error = new IllegalStateException("Upstream failure");
+        processor.onError(error);
+        recorder.await();
+
+        assertEquals(1, recorder.items.size());
+        assertSame(error, recorder.error);
+    }
+
+    @Test
+    public void cancelTest() throws Exception {
+        Hasher hasher = jargon2Hasher().backend(new DummyJargon2Backend()).memoryCost(1024);
+        Jargon2Processor<ByteArray, EncodedHashResult> processor = Jargon2Processor.hashing(hasher, 2);
+
+        Recorder<EncodedHashResult> recorder = new Recorder<>(1);
+        processor.subscribe(recorder);
+        Source<ByteArray> source = new Source<>(Collections.nCopies(10, toByteArray("password")).toArray(new ByteArray[0]));
+        source.subscribe(processor);
+        recorder.awaitItems(1);
+        recorder.subscription.cancel();
+
+        assertTrue(source.cancelled);
+        recorder.subscription.request(10);
+        Thread.sleep(100);
+        assertEquals(1, recorder.items.size());
+    }
+
+    @Test
+    public void singleSubscriberTest() throws Exception {
+        Jargon2Processor<ByteArray, EncodedHashResult> processor = Jargon2Processor.hashing(jargon2Hasher(), 1);
+        processor.subscribe(new Recorder<EncodedHashResult>(1));
+        Recorder<EncodedHashResult> second = new Recorder<>(1);
+        processor.subscribe(second);
+        second.await();
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void concurrencyTest() {
+        Hasher hasher = jargon2Hasher().memoryCost(1024);
+        assertEquals(hasher.concurrency(), Jargon2Processor.hashing(hasher).getConcurrency());
+        try {
+            Jargon2Processor.hashing(null);
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+        try {
+            Jargon2Processor.hashing(jargon2Hasher(), 0);
+            fail();
+        } catch (Jargon2Exception e) {
+            // expected
+        }
+    }
+
+    /**
+     * Emits the given items on the calling thread of <tt>request</tt>, then completes unless told not to.
+     */
+    private static final class Source<T> implements Flow.Publisher<T>, Flow.Subscription {
+
+        private final T[] items;
+        private final AtomicInteger requested = new AtomicInteger();
+        private volatile boolean cancelled;
+        private boolean completes = true;
+        private Flow.Subscriber<? super T> subscriber;
+        private int next;
+
+        @SafeVarargs
+        Source(T... items) {
+            this.items = items;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            requested.addAndGet((int) Math.min(n, items.length));
+            while (n-- > 0 && next < items.length && !cancelled) {
+                subscriber.onNext(items[next++]);
+            }
+            if (next == items.length && completes && !cancelled) {
+                cancelled = true;
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Records the signals of a processor, requesting a fixed number of items on subscription.
+     */
+    private static final class Recorder<T> implements Flow.Subscriber<T> {
+
+        private final long initialRequest;
+        private final List<T> items = Collections.synchronizedList(new ArrayList<T>());
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        Recorder(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("Not terminated", terminated.await(10, TimeUnit.SECONDS));
+        }
+
+        void awaitItems(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (items.size() < count) {
+                assertTrue("Not enough items", System.nanoTime() < deadline);
+                Thread.sleep(10);
+            }
+        }
+    }
+}